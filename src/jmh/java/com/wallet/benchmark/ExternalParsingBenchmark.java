@@ -0,0 +1,93 @@
+package com.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.opencsv.exceptions.CsvException;
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.service.ExternalDataService;
+import com.wallet.service.ExternalJsonStreamReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExternalParsingBenchmark {
+
+    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"10000"})
+    private int rows;
+
+    private ExternalDataService externalDataService;
+    private byte[] csv;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ExternalJsonStreamReader jsonStreamReader = new ExternalJsonStreamReader();
+        ReflectionTestUtils.setField(jsonStreamReader, "objectMapper", objectMapper);
+        externalDataService = new ExternalDataService();
+        ReflectionTestUtils.setField(externalDataService, "jsonStreamReader", jsonStreamReader);
+        ReflectionTestUtils.setField(externalDataService, "ingestBatchSize", 500);
+
+        Random random = new Random(42);
+        List<ExternalTransactionRecord> records = new ArrayList<>(rows);
+        StringBuilder lines = new StringBuilder("transaction_id,customer_id,amount,type,timestamp,reference\n");
+        for (int i = 0; i < rows; i++) {
+            ExternalTransactionRecord record = new ExternalTransactionRecord(
+                    String.format("TXN%012d", i), String.format("CUST%08d", i / 10),
+                    BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2), "TOPUP",
+                    ReconciliationDataSet.DATE.atStartOfDay().plusSeconds(random.nextInt(86_400)), "ref-" + i);
+            records.add(record);
+            lines.append(record.getTransactionId()).append(',')
+                    .append(record.getCustomerId()).append(',')
+                    .append(record.getAmount().toPlainString()).append(',')
+                    .append(record.getType()).append(',')
+                    .append(record.getTimestamp().format(CSV_TIMESTAMP)).append(',')
+                    .append(record.getReference()).append('\n');
+        }
+        csv = lines.toString().getBytes(StandardCharsets.UTF_8);
+        json = objectMapper.writeValueAsBytes(records);
+    }
+
+    @Benchmark
+    public List<ExternalTransactionRecord> csv() throws IOException, CsvException {
+        return externalDataService.processCSVFile(new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    public List<ExternalTransactionRecord> json() throws IOException {
+        return externalDataService.processJSONFile(new ByteArrayInputStream(json));
+    }
+}
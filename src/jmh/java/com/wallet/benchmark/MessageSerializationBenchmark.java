@@ -0,0 +1,74 @@
+package com.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.wallet.messaging.TransactionMessageCodec;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonMessageConverter converter;
+    private TransactionMessageCodec codec;
+    private TransactionMessage message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Configured like the application's mapper: java.time support and ISO dates.
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        converter = new Jackson2JsonMessageConverter(objectMapper);
+        codec = new TransactionMessageCodec();
+        ReflectionTestUtils.setField(codec, "objectMapper", objectMapper);
+
+        message = new TransactionMessage("txn-7f3c2a9e-0001", "customer-004217", "CONSUME",
+                new BigDecimal("125.40"), new BigDecimal("980.00"), new BigDecimal("854.60"),
+                "COMPLETED", "order-55120931", LocalDateTime.of(2024, 3, 14, 9, 26, 53, 589_793_000));
+    }
+
+    @Benchmark
+    public TransactionMessage doubleEncodedJson() throws IOException {
+        // The previous path: a JSON string, JSON-encoded again by the template's converter.
+        Message sent = converter.toMessage(objectMapper.writeValueAsString(message), new MessageProperties());
+        return objectMapper.readValue((String) converter.fromMessage(sent), TransactionMessage.class);
+    }
+
+    @Benchmark
+    public TransactionMessage singlePassJson() throws IOException {
+        return codec.decodeJson(codec.encodeJson(message));
+    }
+
+    @Benchmark
+    public TransactionMessage binary() throws IOException {
+        return codec.decodeBinary(codec.encodeBinary(message));
+    }
+}
@@ -0,0 +1,77 @@
+package com.wallet.benchmark;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.Transaction;
+import com.wallet.entity.TransactionType;
+import com.wallet.entity.Wallet;
+import com.wallet.service.ColumnarBatch;
+import com.wallet.service.IdDictionary;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class ReconciliationDataSet {
+
+    static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+    private static final int TRANSACTIONS_PER_WALLET = 10;
+
+    final List<Transaction> internalEntities;
+    final List<ExternalTransactionRecord> externalRecords;
+    final ColumnarBatch internalBatch;
+    final ColumnarBatch externalBatch;
+
+    ReconciliationDataSet(int rows) {
+        this(rows, true, true);
+    }
+
+    // At 10M rows the two representations together outgrow a typical heap, so each benchmark builds only its own.
+    ReconciliationDataSet(int rows, boolean withEntities, boolean withColumns) {
+        Random random = new Random(42);
+        IdDictionary ids = new IdDictionary(rows);
+        IdDictionary customers = new IdDictionary(rows / TRANSACTIONS_PER_WALLET);
+        internalEntities = new ArrayList<>(withEntities ? rows : 0);
+        externalRecords = new ArrayList<>(withEntities ? rows : 0);
+        internalBatch = new ColumnarBatch(ids, customers, withColumns ? rows : 0);
+        externalBatch = new ColumnarBatch(ids, customers, withColumns ? rows : 0);
+
+        Wallet wallet = null;
+        for (int i = 0; i < rows; i++) {
+            if (i % TRANSACTIONS_PER_WALLET == 0) {
+                wallet = new Wallet(String.format("CUST%08d", i / TRANSACTIONS_PER_WALLET));
+            }
+            String transactionId = String.format("TXN%012d", i);
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2);
+            LocalDateTime timestamp = DATE.atStartOfDay().plusSeconds(random.nextInt(86_400));
+
+            if (withEntities) {
+                Transaction transaction = new Transaction(transactionId, wallet, TransactionType.TOPUP,
+                                                          amount, BigDecimal.ZERO, amount);
+                transaction.setId((long) i);
+                transaction.setCreatedAt(timestamp);
+                internalEntities.add(transaction);
+            }
+            if (withColumns) {
+                internalBatch.add(transactionId, amount, timestamp, wallet.getCustomerId());
+            }
+
+            // Roughly 1% missing and 1% mismatched on the external side.
+            int outcome = random.nextInt(100);
+            if (outcome == 0) {
+                continue;
+            }
+            BigDecimal externalAmount = outcome == 1 ? amount.add(BigDecimal.ONE) : amount;
+            if (withEntities) {
+                externalRecords.add(new ExternalTransactionRecord(transactionId, wallet.getCustomerId(), externalAmount,
+                                                                  "TOPUP", timestamp, null));
+            }
+            if (withColumns) {
+                externalBatch.add(transactionId, externalAmount, timestamp, wallet.getCustomerId());
+            }
+        }
+    }
+}
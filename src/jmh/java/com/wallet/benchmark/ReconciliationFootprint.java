@@ -0,0 +1,23 @@
+package com.wallet.benchmark;
+
+import org.openjdk.jol.info.GraphLayout;
+
+public final class ReconciliationFootprint {
+
+    private ReconciliationFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        ReconciliationDataSet data = new ReconciliationDataSet(rows);
+
+        // Detached entities without Hibernate proxies or persistence-context entries, so the entity side is a lower bound.
+        long entityBytes = GraphLayout.parseInstance(data.internalEntities, data.externalRecords).totalSize();
+        long columnarBytes = GraphLayout.parseInstance(data.internalBatch, data.externalBatch).totalSize();
+
+        System.out.printf("rows:               %,d%n", rows);
+        System.out.printf("entities:           %,d bytes (%d bytes/row)%n", entityBytes, entityBytes / rows);
+        System.out.printf("columnar:           %,d bytes (%d bytes/row)%n", columnarBytes, columnarBytes / rows);
+        System.out.printf("reduction:          %.1fx%n", (double) entityBytes / columnarBytes);
+    }
+}
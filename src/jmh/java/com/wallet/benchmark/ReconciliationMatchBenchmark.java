@@ -0,0 +1,53 @@
+package com.wallet.benchmark;
+
+import com.wallet.entity.ReconciliationRecord;
+import com.wallet.service.ReconciliationMatcher;
+import com.wallet.service.ReconciliationMatcher.MatchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxRAMPercentage=75")
+public class ReconciliationMatchBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int rows;
+
+    private final ReconciliationMatcher matcher = new ReconciliationMatcher();
+
+    private ReconciliationDataSet data;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        boolean entities = params.getBenchmark().endsWith(".entityMatch");
+        data = new ReconciliationDataSet(rows, entities, !entities);
+    }
+
+    @Benchmark
+    public MatchResult entityMatch() {
+        return matcher.matchExact(ReconciliationDataSet.DATE, data.internalEntities, data.externalRecords);
+    }
+
+    @Benchmark
+    public List<ReconciliationRecord> columnarMatch() {
+        return matcher.matchExact(ReconciliationDataSet.DATE, data.internalBatch, data.externalBatch);
+    }
+}
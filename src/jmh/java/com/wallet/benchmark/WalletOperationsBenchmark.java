@@ -0,0 +1,50 @@
+package com.wallet.benchmark;
+
+import com.wallet.entity.Wallet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletOperationsBenchmark {
+
+    private final BigDecimal amount = new BigDecimal("125.40");
+
+    private Wallet wallet;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // A fresh wallet per iteration keeps the balance, and with it the BigDecimal width, from drifting.
+        wallet = new Wallet("customer-004217");
+        wallet.setBalance(new BigDecimal("1000000.00"));
+    }
+
+    @Benchmark
+    public BigDecimal topup() {
+        wallet.topup(amount);
+        return wallet.getBalance();
+    }
+
+    @Benchmark
+    public BigDecimal topupThenConsume() {
+        wallet.topup(amount);
+        wallet.consume(amount);
+        return wallet.getBalance();
+    }
+}
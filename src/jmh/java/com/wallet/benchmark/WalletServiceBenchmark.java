@@ -0,0 +1,76 @@
+package com.wallet.benchmark;
+
+import com.wallet.WalletSettlementApplication;
+import com.wallet.dto.TransactionRequest;
+import com.wallet.dto.TransactionResponse;
+import com.wallet.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WalletServiceBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+
+    private final BigDecimal amount = new BigDecimal("25.00");
+
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The full mutation path on in-memory H2, with events going to the embedded bus instead of a broker.
+        context = new SpringApplicationBuilder(WalletSettlementApplication.class)
+                .profiles("test", "embedded")
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false");
+        walletService = context.getBean(WalletService.class);
+
+        for (int i = 0; i < CUSTOMERS; i++) {
+            walletService.topup(customer(i), new TransactionRequest("seed-" + i, new BigDecimal("1000000.00"), "seed"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse topup() {
+        long n = sequence++;
+        return walletService.topup(customer(n), new TransactionRequest("bench-" + n, amount, "bench"));
+    }
+
+    @Benchmark
+    public TransactionResponse consume() {
+        long n = sequence++;
+        return walletService.consume(customer(n), new TransactionRequest("bench-" + n, amount, "bench"));
+    }
+
+    private String customer(long n) {
+        return String.format("CUST%08d", n % CUSTOMERS);
+    }
+}
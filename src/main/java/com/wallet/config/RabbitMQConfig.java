@@ -1,15 +1,26 @@
 package com.wallet.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.messaging.RetryTierRecoverer;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
+@Profile("!embedded")
 public class RabbitMQConfig {
 
     @Value("${wallet.rabbitmq.exchanges.wallet-exchange}")
@@ -21,12 +32,36 @@ public class RabbitMQConfig {
     @Value("${wallet.rabbitmq.queues.reconciliation-processing}")
     private String reconciliationQueue;
 
+    @Value("${wallet.rabbitmq.queues.reconciliation-details}")
+    private String reconciliationDetailsQueue;
+
     @Value("${wallet.rabbitmq.routing-keys.transaction}")
     private String transactionRoutingKey;
 
     @Value("${wallet.rabbitmq.routing-keys.reconciliation}")
     private String reconciliationRoutingKey;
 
+    @Value("${wallet.rabbitmq.routing-keys.reconciliation-details}")
+    private String reconciliationDetailsRoutingKey;
+
+    @Value("${wallet.rabbitmq.partitions.count:8}")
+    private int partitionCount;
+
+    @Value("${wallet.rabbitmq.listener.transaction.batch-size:100}")
+    private int transactionBatchSize;
+
+    @Value("${wallet.rabbitmq.listener.transaction.receive-timeout-ms:1000}")
+    private long transactionReceiveTimeoutMs;
+
+    @Value("${wallet.rabbitmq.listener.transaction.prefetch:250}")
+    private int transactionPrefetch;
+
+    @Value("${wallet.rabbitmq.listener.transaction.concurrency:2}")
+    private int transactionConcurrency;
+
+    @Value("${wallet.rabbitmq.listener.transaction.max-concurrency:4}")
+    private int transactionMaxConcurrency;
+
     @Bean
     public TopicExchange walletExchange() {
         return new TopicExchange(walletExchange);
@@ -48,6 +83,15 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    @Bean
+    public Queue reconciliationDetailsQueue() {
+        // Detail chunks share the reconciliation dead-letter queue, so the same replay endpoint covers them.
+        return QueueBuilder.durable(reconciliationDetailsQueue)
+                .withArgument("x-dead-letter-exchange", walletExchange + ".dlx")
+                .withArgument("x-dead-letter-routing-key", "dead.reconciliation")
+                .build();
+    }
+
     @Bean
     public Queue transactionDeadLetterQueue() {
         return QueueBuilder.durable(transactionQueue + ".dlq").build();
@@ -58,6 +102,43 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(reconciliationQueue + ".dlq").build();
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "wallet.rabbitmq.partitions.enabled", havingValue = "true")
+    public Declarables transactionPartitionQueues() {
+        // Single active consumer keeps one consumer per partition even while a partition changes owner.
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            Queue queue = QueueBuilder.durable(transactionQueue + ".p" + partition)
+                    .singleActiveConsumer()
+                    .withArgument("x-dead-letter-exchange", walletExchange + ".dlx")
+                    .withArgument("x-dead-letter-routing-key", "dead.transaction")
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(walletExchange()).with(transactionRoutingKey + "." + partition));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public Declarables retryTierQueues(RetryTierRecoverer retryTierRecoverer) {
+        // Each tier holds messages for its delay, then dead-letters them back to the wallet exchange under the
+        // routing key they were first received on.
+        HeadersExchange retryExchange = new HeadersExchange(retryTierRecoverer.retryExchange());
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(retryExchange);
+        List<Long> delays = retryTierRecoverer.tierDelays();
+        for (int tier = 0; tier < delays.size(); tier++) {
+            Queue queue = QueueBuilder.durable(retryTierRecoverer.tierQueue(tier))
+                    .ttl(Math.toIntExact(delays.get(tier)))
+                    .deadLetterExchange(walletExchange)
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(retryExchange)
+                    .where(RetryTierRecoverer.RETRY_TIER_HEADER).matches(tier));
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
     public TopicExchange deadLetterExchange() {
         return new TopicExchange(walletExchange + ".dlx");
@@ -79,6 +160,14 @@ public class RabbitMQConfig {
                 .with(reconciliationRoutingKey);
     }
 
+    @Bean
+    public Binding reconciliationDetailsBinding() {
+        return BindingBuilder
+                .bind(reconciliationDetailsQueue())
+                .to(walletExchange())
+                .with(reconciliationDetailsRoutingKey);
+    }
+
     @Bean
     public Binding transactionDeadLetterBinding() {
         return BindingBuilder
@@ -96,14 +185,51 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter jsonMessageConverter(ObjectMapper objectMapper) {
+        // Shares the application's mapper so dates and decimals are written the same way as in the REST API.
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory transactionBatchListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                                        MessageConverter messageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        // A batch is whatever arrived within the receive timeout, up to batch-size, and is acked once.
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(transactionBatchSize);
+        factory.setReceiveTimeout(transactionReceiveTimeoutMs);
+        // Prefetch must cover a whole batch per consumer or batches are cut short by the broker.
+        factory.setPrefetchCount(Math.max(transactionPrefetch, transactionBatchSize));
+        factory.setConcurrentConsumers(transactionConcurrency);
+        factory.setMaxConcurrentConsumers(Math.max(transactionConcurrency, transactionMaxConcurrency));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        // Gzipped batches from the batching publisher are inflated here; the container then splits them into events.
+        factory.setAfterReceivePostProcessors(new DelegatingDecompressingPostProcessor());
+        return factory;
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory reconciliationListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                                      MessageConverter messageConverter,
+                                                                                      RetryTierRecoverer retryTierRecoverer) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        // A failed message is handed to the retry tiers on the first failure instead of being requeued in a loop.
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(retryTierRecoverer)
+                .build());
+        return factory;
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(jsonMessageConverter());
+        template.setMessageConverter(messageConverter);
         template.setMandatory(true);
         template.setConfirmCallback((correlationData, ack, cause) -> {
             if (!ack) {
@@ -0,0 +1,54 @@
+package com.wallet.controller;
+
+import com.wallet.dto.DeadLetterReplayRequest;
+import com.wallet.dto.DeadLetterReplayResponse;
+import com.wallet.messaging.DeadLetterReplayJob;
+import com.wallet.messaging.DeadLetterReplayService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@Profile("!embedded")
+@RequestMapping("/admin/dead-letters")
+public class DeadLetterController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterController.class);
+
+    @Autowired
+    private DeadLetterReplayService deadLetterReplayService;
+
+    @PostMapping("/replays")
+    public ResponseEntity<DeadLetterReplayResponse> replay(@Valid @RequestBody DeadLetterReplayRequest request) {
+        logger.info("Replay requested for {} dead letters", request.getQueue());
+        
+        DeadLetterReplayJob job = deadLetterReplayService.submit(request);
+        
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/admin/dead-letters/replays/{jobId}").buildAndExpand(job.getId()).toUri())
+                .body(deadLetterReplayService.getJobStatus(job));
+    }
+
+    @GetMapping("/replays/{jobId}")
+    public ResponseEntity<DeadLetterReplayResponse> getReplay(@PathVariable String jobId) {
+        return deadLetterReplayService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(deadLetterReplayService.getJobStatus(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/replays/{jobId}")
+    public ResponseEntity<DeadLetterReplayResponse> cancelReplay(@PathVariable String jobId) {
+        return deadLetterReplayService.findJob(jobId)
+                .map(job -> {
+                    deadLetterReplayService.cancel(job);
+                    return ResponseEntity.accepted().body(deadLetterReplayService.getJobStatus(job));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,71 @@
+package com.wallet.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.Transaction;
+import com.wallet.repository.TransactionRepository;
+import com.wallet.service.HttpTransactionSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@Profile("standin")
+@RequestMapping("/stand-in/external-transactions")
+public class ExternalSourceStandInController {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${wallet.external.stand-in.page-delay-ms:0}")
+    private long pageDelayMs;
+
+    @GetMapping
+    public void getPage(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "1000") int limit,
+                        HttpServletResponse response) throws IOException, InterruptedException {
+        // Serves the day's wallet transactions the way a processor would report them, one page per call.
+        List<Transaction> page = transactionRepository.findPageInWindow(date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                cursor != null ? cursor : "", PageRequest.of(0, limit));
+        if (pageDelayMs > 0) {
+            Thread.sleep(pageDelayMs);
+        }
+
+        if (page.size() == limit) {
+            response.setHeader(HttpTransactionSource.NEXT_CURSOR_HEADER, page.get(page.size() - 1).getTransactionId());
+        }
+        response.setContentType("application/x-ndjson");
+        PrintWriter writer = response.getWriter();
+        for (Transaction transaction : page) {
+            writer.println(objectMapper.writeValueAsString(toRecord(transaction)));
+        }
+        writer.flush();
+    }
+
+    private ExternalTransactionRecord toRecord(Transaction transaction) {
+        return new ExternalTransactionRecord(
+            transaction.getTransactionId(),
+            transaction.getWallet().getCustomerId(),
+            transaction.getAmount(),
+            transaction.getType().name(),
+            transaction.getCreatedAt(),
+            transaction.getReference()
+        );
+    }
+}
@@ -1,21 +1,41 @@
 package com.wallet.controller;
 
+import com.wallet.dto.ReconciliationJobResponse;
+import com.wallet.dto.ReconciliationRecordPage;
 import com.wallet.dto.ReconciliationReportResponse;
+import com.wallet.dto.ReconciliationReportResponse.ReconciliationSummary;
+import com.wallet.entity.ReconciliationJobStatus;
+import com.wallet.entity.ReconciliationStatus;
 import com.wallet.service.ExternalDataService;
+import com.wallet.service.ReconciliationJob;
+import com.wallet.service.ReconciliationJobService;
 import com.wallet.service.ReconciliationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/reconciliation")
@@ -26,18 +46,107 @@ public class ReconciliationController {
     @Autowired
     private ReconciliationService reconciliationService;
 
+    @Autowired
+    private ReconciliationJobService reconciliationJobService;
+
     @Autowired
     private ExternalDataService externalDataService;
 
+    @Value("${wallet.reconciliation.range.max-days:92}")
+    private long maxRangeDays;
+
+    @Value("${wallet.reconciliation.records.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${wallet.reconciliation.report.wait-seconds:25}")
+    private long reportWaitSeconds;
+
     @GetMapping("/report")
-    public ResponseEntity<ReconciliationReportResponse> getReconciliationReport(
+    public CompletableFuture<ResponseEntity<ReconciliationReportResponse>> getReconciliationReport(
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
         
         logger.info("Generating reconciliation report for date: {}", date);
         
-        ReconciliationReportResponse report = reconciliationService.generateReconciliationReport(date);
+        // Runs on the bounded job executor, attaching to any job already in flight for the date. The request thread is
+        // released while it runs; a job that outlasts the wait is answered with 202 and the job to poll.
+        ReconciliationJob job = reconciliationJobService.submit(date);
+        UriComponentsBuilder records = recordsUrl();
+        ResponseEntity<ReconciliationReportResponse> pending = ResponseEntity.accepted().location(jobLocation(job)).build();
+        
+        return job.getResult()
+                .thenApply(report -> ResponseEntity.ok(withDetailsUrl(report, records)))
+                .completeOnTimeout(pending, reportWaitSeconds, TimeUnit.SECONDS);
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ReconciliationJobResponse> submitReconciliationJob(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
+        
+        logger.info("Submitting reconciliation job for date: {}", date);
+        
+        ReconciliationJob job = reconciliationJobService.submit(date);
+        
+        return ResponseEntity.accepted()
+                .location(jobLocation(job))
+                .body(reconciliationJobService.getJobStatus(job));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReconciliationJobResponse> getReconciliationJob(@PathVariable String jobId) {
+        return reconciliationJobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(reconciliationJobService.getJobStatus(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<ReconciliationReportResponse> getReconciliationJobResult(@PathVariable String jobId) {
+        Optional<ReconciliationJob> job = reconciliationJobService.findJob(jobId);
+        
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.get().getStatus() != ReconciliationJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         
-        return ResponseEntity.ok(report);
+        return ResponseEntity.ok(withDetailsUrl(job.get().getResult().join(), recordsUrl()));
+    }
+
+    @GetMapping("/records")
+    public ResponseEntity<ReconciliationRecordPage> getReconciliationRecords(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(required = false) Set<ReconciliationStatus> status,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= maxRangeDays
+                || limit < 1 || limit > maxPageSize
+                || (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok(reconciliationService.findRecords(from, to, status, minAmount, maxAmount, cursor, limit));
+    }
+
+    @GetMapping("/report/range")
+    public CompletableFuture<ResponseEntity<List<ReconciliationReportResponse>>> getRangeReconciliationReport(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+        
+        logger.info("Generating range reconciliation report from {} to {}", from, to);
+        
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        
+        UriComponentsBuilder records = recordsUrl();
+        return reconciliationJobService.submitRange(from, to)
+                .thenApply(reports -> ResponseEntity.ok(reports.stream()
+                        .map(report -> withDetailsUrl(report, records))
+                        .collect(Collectors.toList())));
     }
 
     @GetMapping("/report/export")
@@ -47,7 +156,16 @@ public class ReconciliationController {
         
         logger.info("Exporting reconciliation report to CSV for date: {}", date);
         
-        ReconciliationReportResponse report = reconciliationService.generateReconciliationReport(date);
+        // Exported from stored records only; a date still to be reconciled is handed to the job executor, as /report does.
+        Optional<ReconciliationSummary> stored = reconciliationJobService.findInFlight(date).isPresent()
+                ? Optional.empty() : reconciliationService.findStoredSummary(date);
+        if (stored.isEmpty()) {
+            ReconciliationJob job = reconciliationJobService.submit(date);
+            response.setStatus(HttpStatus.ACCEPTED.value());
+            response.setHeader(HttpHeaders.LOCATION, jobLocation(job).toString());
+            return;
+        }
+        ReconciliationSummary summary = stored.get();
         
         response.setContentType("text/csv");
         response.setHeader(HttpHeaders.CONTENT_DISPOSITION, 
@@ -56,32 +174,39 @@ public class ReconciliationController {
         try (var outputStream = response.getOutputStream()) {
             outputStream.write("Reconciliation Report\n".getBytes());
             outputStream.write(("Date: " + date + "\n").getBytes());
-            outputStream.write(("Total Records: " + report.getSummary().getTotalRecords() + "\n").getBytes());
-            outputStream.write(("Matched: " + report.getSummary().getMatchedRecords() + "\n").getBytes());
-            outputStream.write(("Missing Internal: " + report.getSummary().getMissingInternalRecords() + "\n").getBytes());
-            outputStream.write(("Missing External: " + report.getSummary().getMissingExternalRecords() + "\n").getBytes());
-            outputStream.write(("Amount Mismatch: " + report.getSummary().getAmountMismatchRecords() + "\n").getBytes());
+            outputStream.write(("Total Records: " + summary.getTotalRecords() + "\n").getBytes());
+            outputStream.write(("Matched: " + summary.getMatchedRecords() + "\n").getBytes());
+            outputStream.write(("Missing Internal: " + summary.getMissingInternalRecords() + "\n").getBytes());
+            outputStream.write(("Missing External: " + summary.getMissingExternalRecords() + "\n").getBytes());
+            outputStream.write(("Amount Mismatch: " + summary.getAmountMismatchRecords() + "\n").getBytes());
+            outputStream.write(("Fuzzy Matched: " + summary.getFuzzyMatchedRecords() + "\n").getBytes());
             outputStream.write("\n".getBytes());
             outputStream.write("Internal Transaction ID,External Transaction ID,Internal Amount,External Amount,Status,Notes\n".getBytes());
             
-            for (var detail : report.getDetails()) {
-                String line = String.format("%s,%s,%s,%s,%s,\"%s\"\n",
-                    detail.getInternalTransactionId() != null ? detail.getInternalTransactionId() : "",
-                    detail.getExternalTransactionId() != null ? detail.getExternalTransactionId() : "",
-                    detail.getInternalAmount() != null ? detail.getInternalAmount() : "",
-                    detail.getExternalAmount() != null ? detail.getExternalAmount() : "",
-                    detail.getStatus(),
-                    detail.getNotes() != null ? detail.getNotes().replace("\"", "\"\"") : ""
-                );
-                outputStream.write(line.getBytes());
-            }
+            String cursor = null;
+            do {
+                ReconciliationRecordPage page = reconciliationService.findRecords(date, date, null, null, null, cursor, maxPageSize);
+                for (var detail : page.getRecords()) {
+                    String line = String.format("%s,%s,%s,%s,%s,\"%s\"\n",
+                        detail.getInternalTransactionId() != null ? detail.getInternalTransactionId() : "",
+                        detail.getExternalTransactionId() != null ? detail.getExternalTransactionId() : "",
+                        detail.getInternalAmount() != null ? detail.getInternalAmount() : "",
+                        detail.getExternalAmount() != null ? detail.getExternalAmount() : "",
+                        detail.getStatus(),
+                        detail.getNotes() != null ? detail.getNotes().replace("\"", "\"\"") : ""
+                    );
+                    outputStream.write(line.getBytes());
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
         }
         
         logger.info("Successfully exported reconciliation report to CSV for date: {}", date);
     }
 
     @PostMapping("/upload-csv")
-    public ResponseEntity<String> uploadCsvFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<String> uploadCsvFile(@RequestParam("file") MultipartFile file,
+                                                @RequestParam(value = "source", defaultValue = "upload") String source) {
         logger.info("Received CSV file upload: {}", file.getOriginalFilename());
         
         if (file.isEmpty()) {
@@ -89,14 +214,15 @@ public class ReconciliationController {
         }
         
         if (!file.getContentType().equals("text/csv") && 
-            !file.getOriginalFilename().endsWith(".csv")) {
+            !file.getOriginalFilename().endsWith(".csv") && !file.getOriginalFilename().endsWith(".csv.gz")) {
             return ResponseEntity.badRequest().body("File must be CSV format");
         }
         
         try {
-            var records = externalDataService.processCSVFile(file.getInputStream());
+            var result = externalDataService.ingestCSVFile(source, file.getInputStream());
             
-            String message = String.format("Successfully processed CSV file with %d records", records.size());
+            String message = String.format("Successfully processed CSV file with %d records (%d new, %d malformed skipped)",
+                    result.getRecordsRead(), result.getRecordsStaged(), result.getRecordsSkipped());
             logger.info(message);
             
             return ResponseEntity.ok(message);
@@ -109,7 +235,8 @@ public class ReconciliationController {
     }
 
     @PostMapping("/upload-json")
-    public ResponseEntity<String> uploadJsonFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<String> uploadJsonFile(@RequestParam("file") MultipartFile file,
+                                                 @RequestParam(value = "source", defaultValue = "upload") String source) {
         logger.info("Received JSON file upload: {}", file.getOriginalFilename());
         
         if (file.isEmpty()) {
@@ -117,14 +244,16 @@ public class ReconciliationController {
         }
         
         if (!file.getContentType().equals("application/json") && 
-            !file.getOriginalFilename().endsWith(".json")) {
+            !file.getOriginalFilename().endsWith(".json") && !file.getOriginalFilename().endsWith(".json.gz")) {
             return ResponseEntity.badRequest().body("File must be JSON format");
         }
         
         try {
-            var records = externalDataService.processJSONFile(file.getInputStream());
+            var result = externalDataService.ingestJSONFile(source, file.getInputStream());
             
-            String message = String.format("Successfully processed JSON file with %d records", records.size());
+            String message = String.format("Successfully processed JSON file with %d records (%d new, %d malformed skipped%s)",
+                    result.getRecordsRead(), result.getRecordsStaged(), result.getRecordsSkipped(),
+                    result.isTruncated() ? ", input truncated" : "");
             logger.info(message);
             
             return ResponseEntity.ok(message);
@@ -135,4 +264,22 @@ public class ReconciliationController {
                     .body("Failed to process JSON file: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private URI jobLocation(ReconciliationJob job) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/reconciliation/jobs/{jobId}").buildAndExpand(job.getId()).toUri();
+    }
+
+    private UriComponentsBuilder recordsUrl() {
+        // Resolved on the request thread; the report may be completed on a job thread without the request bound.
+        return ServletUriComponentsBuilder.fromCurrentContextPath().path("/reconciliation/records");
+    }
+
+    private ReconciliationReportResponse withDetailsUrl(ReconciliationReportResponse report, UriComponentsBuilder records) {
+        report.setDetailsUrl(records.cloneBuilder()
+                .queryParam("from", report.getReconciliationDate())
+                .queryParam("to", report.getReconciliationDate())
+                .toUriString());
+        return report;
+    }
+}
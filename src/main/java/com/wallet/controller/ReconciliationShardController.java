@@ -0,0 +1,50 @@
+package com.wallet.controller;
+
+import com.wallet.dto.ReconciliationReportResponse;
+import com.wallet.dto.ReconciliationShardResponse;
+import com.wallet.entity.ReconciliationShard;
+import com.wallet.service.ReconciliationShardCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/admin/reconciliation/shards")
+public class ReconciliationShardController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationShardController.class);
+
+    @Autowired
+    private ReconciliationShardCoordinator shardCoordinator;
+
+    @GetMapping
+    public ResponseEntity<List<ReconciliationShardResponse>> getShards(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
+        return ResponseEntity.ok(toResponses(shardCoordinator.getShards(date)));
+    }
+
+    @PostMapping("/retry")
+    public ResponseEntity<List<ReconciliationShardResponse>> retryFailedShards(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
+        logger.info("Retry of failed reconciliation shards requested for date: {}", date);
+        return ResponseEntity.ok(toResponses(shardCoordinator.retryFailedShards(date)));
+    }
+
+    @PostMapping("/finalize")
+    public ResponseEntity<ReconciliationReportResponse> finalizeDate(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
+        logger.info("Finalization with failed shards requested for date: {}", date);
+        return ResponseEntity.ok(shardCoordinator.finalizeWithFailures(date));
+    }
+
+    private List<ReconciliationShardResponse> toResponses(List<ReconciliationShard> shards) {
+        return shards.stream().map(shardCoordinator::getShardStatus).collect(Collectors.toList());
+    }
+}
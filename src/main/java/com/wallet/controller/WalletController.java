@@ -3,7 +3,10 @@ package com.wallet.controller;
 import com.wallet.dto.TransactionRequest;
 import com.wallet.dto.TransactionResponse;
 import com.wallet.dto.WalletBalanceResponse;
+import com.wallet.dto.WalletStatsResponse;
+import com.wallet.entity.RollupGranularity;
 import com.wallet.service.WalletService;
+import com.wallet.service.WalletStatsService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +24,9 @@ public class WalletController {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private WalletStatsService walletStatsService;
+
     @GetMapping("/{customerId}/balance")
     public ResponseEntity<WalletBalanceResponse> getBalance(@PathVariable String customerId) {
         logger.info("Getting balance for customer: {}", customerId);
@@ -28,6 +34,21 @@ public class WalletController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{customerId}/stats")
+    public ResponseEntity<WalletStatsResponse> getStats(
+            @PathVariable String customerId,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam(defaultValue = "7") int periods) {
+        return ResponseEntity.ok(walletStatsService.getCustomerStats(customerId, granularity, periods));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<WalletStatsResponse> getGlobalStats(
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam(defaultValue = "7") int periods) {
+        return ResponseEntity.ok(walletStatsService.getGlobalStats(granularity, periods));
+    }
+
     @PostMapping("/{customerId}/topup")
     public ResponseEntity<TransactionResponse> topup(
             @PathVariable String customerId,
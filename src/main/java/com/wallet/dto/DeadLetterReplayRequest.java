@@ -0,0 +1,77 @@
+package com.wallet.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+public class DeadLetterReplayRequest {
+    
+    @NotBlank(message = "Queue is required")
+    @Pattern(regexp = "transaction|reconciliation", message = "Queue must be transaction or reconciliation")
+    private String queue;
+    
+    @Min(value = 1, message = "Rate must be at least 1 message per second")
+    @Max(value = 10000, message = "Rate must be at most 10000 messages per second")
+    private Integer ratePerSecond;
+    
+    @Min(value = 1, message = "Max messages must be at least 1")
+    private Long maxMessages;
+    
+    private String customerId;
+    
+    private String reason;
+    
+    private String routingKey;
+
+    public DeadLetterReplayRequest() {
+    }
+
+    public String getQueue() {
+        return queue;
+    }
+
+    public void setQueue(String queue) {
+        this.queue = queue;
+    }
+
+    public Integer getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(Integer ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public Long getMaxMessages() {
+        return maxMessages;
+    }
+
+    public void setMaxMessages(Long maxMessages) {
+        this.maxMessages = maxMessages;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public void setRoutingKey(String routingKey) {
+        this.routingKey = routingKey;
+    }
+}
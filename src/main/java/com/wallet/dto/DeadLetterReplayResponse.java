@@ -0,0 +1,127 @@
+package com.wallet.dto;
+
+import java.time.LocalDateTime;
+
+public class DeadLetterReplayResponse {
+    
+    private String jobId;
+    private String queue;
+    private String status;
+    private int ratePerSecond;
+    private long totalMessages;
+    private long examined;
+    private long replayed;
+    private long skipped;
+    private Double throughputPerSecond;
+    private Long etaSeconds;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public DeadLetterReplayResponse() {
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getQueue() {
+        return queue;
+    }
+
+    public void setQueue(String queue) {
+        this.queue = queue;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(int ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public long getTotalMessages() {
+        return totalMessages;
+    }
+
+    public void setTotalMessages(long totalMessages) {
+        this.totalMessages = totalMessages;
+    }
+
+    public long getExamined() {
+        return examined;
+    }
+
+    public void setExamined(long examined) {
+        this.examined = examined;
+    }
+
+    public long getReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(long replayed) {
+        this.replayed = replayed;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public Double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    public void setThroughputPerSecond(Double throughputPerSecond) {
+        this.throughputPerSecond = throughputPerSecond;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
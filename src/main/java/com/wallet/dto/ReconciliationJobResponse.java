@@ -0,0 +1,111 @@
+package com.wallet.dto;
+
+import com.wallet.entity.ReconciliationJobStatus;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class ReconciliationJobResponse {
+    
+    private String jobId;
+    private LocalDate date;
+    private ReconciliationJobStatus status;
+    private Long expectedRecords;
+    private long recordsProcessed;
+    private Double throughputPerSecond;
+    private Long etaSeconds;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public ReconciliationJobResponse() {
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public ReconciliationJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReconciliationJobStatus status) {
+        this.status = status;
+    }
+
+    public Long getExpectedRecords() {
+        return expectedRecords;
+    }
+
+    public void setExpectedRecords(Long expectedRecords) {
+        this.expectedRecords = expectedRecords;
+    }
+
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    public void setRecordsProcessed(long recordsProcessed) {
+        this.recordsProcessed = recordsProcessed;
+    }
+
+    public Double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    public void setThroughputPerSecond(Double throughputPerSecond) {
+        this.throughputPerSecond = throughputPerSecond;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,33 @@
+package com.wallet.dto;
+
+import com.wallet.dto.ReconciliationReportResponse.ReconciliationDetail;
+import java.util.List;
+
+public class ReconciliationRecordPage {
+    private List<ReconciliationDetail> records;
+    private String nextCursor;
+
+    public ReconciliationRecordPage() {
+    }
+
+    public ReconciliationRecordPage(List<ReconciliationDetail> records, String nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReconciliationDetail> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<ReconciliationDetail> records) {
+        this.records = records;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
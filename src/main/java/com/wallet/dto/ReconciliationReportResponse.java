@@ -9,6 +9,8 @@ public class ReconciliationReportResponse {
     private LocalDate reconciliationDate;
     private ReconciliationSummary summary;
     private List<ReconciliationDetail> details;
+    private String detailsUrl;
+    private List<Integer> failedShards;
 
     public ReconciliationReportResponse() {
     }
@@ -44,12 +46,29 @@ public class ReconciliationReportResponse {
         this.details = details;
     }
 
+    public String getDetailsUrl() {
+        return detailsUrl;
+    }
+
+    public void setDetailsUrl(String detailsUrl) {
+        this.detailsUrl = detailsUrl;
+    }
+
+    public List<Integer> getFailedShards() {
+        return failedShards;
+    }
+
+    public void setFailedShards(List<Integer> failedShards) {
+        this.failedShards = failedShards;
+    }
+
     public static class ReconciliationSummary {
         private int totalRecords;
         private int matchedRecords;
         private int missingInternalRecords;
         private int missingExternalRecords;
         private int amountMismatchRecords;
+        private int fuzzyMatchedRecords;
         private BigDecimal totalInternalAmount;
         private BigDecimal totalExternalAmount;
         private BigDecimal discrepancyAmount;
@@ -97,6 +116,14 @@ public class ReconciliationReportResponse {
             this.amountMismatchRecords = amountMismatchRecords;
         }
 
+        public int getFuzzyMatchedRecords() {
+            return fuzzyMatchedRecords;
+        }
+
+        public void setFuzzyMatchedRecords(int fuzzyMatchedRecords) {
+            this.fuzzyMatchedRecords = fuzzyMatchedRecords;
+        }
+
         public BigDecimal getTotalInternalAmount() {
             return totalInternalAmount;
         }
@@ -123,16 +150,26 @@ public class ReconciliationReportResponse {
     }
 
     public static class ReconciliationDetail {
+        private LocalDate reconciliationDate;
         private String internalTransactionId;
         private String externalTransactionId;
         private BigDecimal internalAmount;
         private BigDecimal externalAmount;
         private ReconciliationStatus status;
         private String notes;
+        private Double confidence;
 
         public ReconciliationDetail() {
         }
 
+        public LocalDate getReconciliationDate() {
+            return reconciliationDate;
+        }
+
+        public void setReconciliationDate(LocalDate reconciliationDate) {
+            this.reconciliationDate = reconciliationDate;
+        }
+
         public String getInternalTransactionId() {
             return internalTransactionId;
         }
@@ -180,5 +217,13 @@ public class ReconciliationReportResponse {
         public void setNotes(String notes) {
             this.notes = notes;
         }
+
+        public Double getConfidence() {
+            return confidence;
+        }
+
+        public void setConfidence(Double confidence) {
+            this.confidence = confidence;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.wallet.dto;
+
+import com.wallet.entity.ShardStatus;
+import java.time.LocalDateTime;
+
+public class ReconciliationShardResponse {
+    
+    private int shardIndex;
+    private int bucketStart;
+    private int bucketEnd;
+    private ShardStatus status;
+    private String owner;
+    private int attempts;
+    private LocalDateTime retryAfter;
+    private String lastError;
+    private Integer recordCount;
+    private LocalDateTime completedAt;
+
+    public ReconciliationShardResponse() {
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public void setShardIndex(int shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+
+    public int getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(int bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public int getBucketEnd() {
+        return bucketEnd;
+    }
+
+    public void setBucketEnd(int bucketEnd) {
+        this.bucketEnd = bucketEnd;
+    }
+
+    public ShardStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ShardStatus status) {
+        this.status = status;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(LocalDateTime retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Integer getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(Integer recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,108 @@
+package com.wallet.dto;
+
+import com.wallet.entity.RollupGranularity;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class WalletStatsResponse {
+    
+    private String customerId;
+    private RollupGranularity granularity;
+    private StatsBucket total;
+    private List<StatsBucket> buckets;
+
+    public WalletStatsResponse() {
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public StatsBucket getTotal() {
+        return total;
+    }
+
+    public void setTotal(StatsBucket total) {
+        this.total = total;
+    }
+
+    public List<StatsBucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<StatsBucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    public static class StatsBucket {
+        private LocalDateTime bucketStart;
+        private long transactionCount;
+        private BigDecimal topupVolume;
+        private BigDecimal consumeVolume;
+        private BigDecimal netVolume;
+
+        public StatsBucket() {
+        }
+
+        public StatsBucket(LocalDateTime bucketStart, long transactionCount, BigDecimal topupVolume, BigDecimal consumeVolume) {
+            this.bucketStart = bucketStart;
+            this.transactionCount = transactionCount;
+            this.topupVolume = topupVolume;
+            this.consumeVolume = consumeVolume;
+            this.netVolume = topupVolume.subtract(consumeVolume);
+        }
+
+        public LocalDateTime getBucketStart() {
+            return bucketStart;
+        }
+
+        public void setBucketStart(LocalDateTime bucketStart) {
+            this.bucketStart = bucketStart;
+        }
+
+        public long getTransactionCount() {
+            return transactionCount;
+        }
+
+        public void setTransactionCount(long transactionCount) {
+            this.transactionCount = transactionCount;
+        }
+
+        public BigDecimal getTopupVolume() {
+            return topupVolume;
+        }
+
+        public void setTopupVolume(BigDecimal topupVolume) {
+            this.topupVolume = topupVolume;
+        }
+
+        public BigDecimal getConsumeVolume() {
+            return consumeVolume;
+        }
+
+        public void setConsumeVolume(BigDecimal consumeVolume) {
+            this.consumeVolume = consumeVolume;
+        }
+
+        public BigDecimal getNetVolume() {
+            return netVolume;
+        }
+
+        public void setNetVolume(BigDecimal netVolume) {
+            this.netVolume = netVolume;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.wallet.entity;
+
+public enum DigestSide {
+    INTERNAL,
+    EXTERNAL
+}
@@ -0,0 +1,68 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "external_file_offsets")
+public class ExternalFileOffset {
+    
+    @Id
+    @Column(length = 255)
+    private String path;
+    
+    @Column(name = "byte_offset", nullable = false)
+    private long byteOffset;
+    
+    @Column(name = "last_modified", nullable = false)
+    private long lastModified;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public ExternalFileOffset() {
+    }
+    
+    public ExternalFileOffset(String path) {
+        this.path = path;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public long getByteOffset() {
+        return byteOffset;
+    }
+    
+    public void setByteOffset(long byteOffset) {
+        this.byteOffset = byteOffset;
+    }
+    
+    public long getLastModified() {
+        return lastModified;
+    }
+    
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,159 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "external_transactions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_external_transactions_source_txn",
+                                             columnNames = {"source", "transaction_id"}),
+       indexes = {
+           @Index(name = "idx_external_transactions_date", columnList = "transaction_date"),
+           @Index(name = "idx_external_transactions_date_txn", columnList = "transaction_date, transaction_id")
+       })
+public class ExternalTransaction {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String source;
+    
+    @Column(name = "transaction_id", nullable = false, length = 100)
+    private String transactionId;
+    
+    @Column(name = "customer_id", length = 100)
+    private String customerId;
+    
+    @Column(name = "shard_bucket", nullable = false)
+    private int shardBucket;
+    
+    @Column(name = "digest_bucket", nullable = false)
+    private int digestBucket;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(length = 20)
+    private String type;
+    
+    @Column(name = "transaction_timestamp", nullable = false)
+    private LocalDateTime transactionTimestamp;
+    
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+    
+    @Column(length = 255)
+    private String reference;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public ExternalTransaction() {
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public String getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public String getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+    
+    public int getShardBucket() {
+        return shardBucket;
+    }
+    
+    public void setShardBucket(int shardBucket) {
+        this.shardBucket = shardBucket;
+    }
+    
+    public int getDigestBucket() {
+        return digestBucket;
+    }
+    
+    public void setDigestBucket(int digestBucket) {
+        this.digestBucket = digestBucket;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public LocalDateTime getTransactionTimestamp() {
+        return transactionTimestamp;
+    }
+    
+    public void setTransactionTimestamp(LocalDateTime transactionTimestamp) {
+        this.transactionTimestamp = transactionTimestamp;
+    }
+    
+    public LocalDate getTransactionDate() {
+        return transactionDate;
+    }
+    
+    public void setTransactionDate(LocalDate transactionDate) {
+        this.transactionDate = transactionDate;
+    }
+    
+    public String getReference() {
+        return reference;
+    }
+    
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "processed_messages", indexes = {
+    @Index(name = "idx_processed_messages_processed_at", columnList = "processed_at")
+})
+public class ProcessedMessage {
+    
+    @Id
+    @Column(name = "message_key", length = 200)
+    private String messageKey;
+    
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+    
+    public ProcessedMessage() {
+    }
+    
+    // Getters and Setters
+    public String getMessageKey() {
+        return messageKey;
+    }
+    
+    public void setMessageKey(String messageKey) {
+        this.messageKey = messageKey;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,141 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_aggregates",
+       uniqueConstraints = @UniqueConstraint(name = "uk_reconciliation_aggregates_scope",
+                                             columnNames = {"reconciliation_date", "bucket_start", "bucket_end", "status"}))
+public class ReconciliationAggregate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "reconciliation_date", nullable = false)
+    private LocalDate reconciliationDate;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private int bucketStart;
+    
+    @Column(name = "bucket_end", nullable = false)
+    private int bucketEnd;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReconciliationStatus status;
+    
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+    
+    @Column(name = "internal_amount", nullable = false, precision = 25, scale = 2)
+    private BigDecimal internalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "external_amount", nullable = false, precision = 25, scale = 2)
+    private BigDecimal externalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public ReconciliationAggregate() {
+    }
+    
+    public ReconciliationAggregate(LocalDate reconciliationDate, int bucketStart, int bucketEnd, ReconciliationStatus status) {
+        this.reconciliationDate = reconciliationDate;
+        this.bucketStart = bucketStart;
+        this.bucketEnd = bucketEnd;
+        this.status = status;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public void add(long count, BigDecimal internal, BigDecimal external) {
+        recordCount += count;
+        if (internal != null) {
+            internalAmount = internalAmount.add(internal);
+        }
+        if (external != null) {
+            externalAmount = externalAmount.add(external);
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDate getReconciliationDate() {
+        return reconciliationDate;
+    }
+    
+    public void setReconciliationDate(LocalDate reconciliationDate) {
+        this.reconciliationDate = reconciliationDate;
+    }
+    
+    public int getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(int bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public int getBucketEnd() {
+        return bucketEnd;
+    }
+    
+    public void setBucketEnd(int bucketEnd) {
+        this.bucketEnd = bucketEnd;
+    }
+    
+    public ReconciliationStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ReconciliationStatus status) {
+        this.status = status;
+    }
+    
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    public void setRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+    }
+    
+    public BigDecimal getInternalAmount() {
+        return internalAmount;
+    }
+    
+    public void setInternalAmount(BigDecimal internalAmount) {
+        this.internalAmount = internalAmount;
+    }
+    
+    public BigDecimal getExternalAmount() {
+        return externalAmount;
+    }
+    
+    public void setExternalAmount(BigDecimal externalAmount) {
+        this.externalAmount = externalAmount;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
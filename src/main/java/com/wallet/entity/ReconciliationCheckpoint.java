@@ -0,0 +1,292 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_checkpoints",
+       uniqueConstraints = @UniqueConstraint(name = "uk_reconciliation_checkpoints_scope",
+                                             columnNames = {"reconciliation_date", "bucket_start", "bucket_end"}))
+public class ReconciliationCheckpoint {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "reconciliation_date", nullable = false)
+    private LocalDate reconciliationDate;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private int bucketStart;
+    
+    @Column(name = "bucket_end", nullable = false)
+    private int bucketEnd;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReconciliationPhase phase;
+    
+    @Column(name = "last_key", length = 100)
+    private String lastKey;
+    
+    @Column(name = "dirty_buckets", columnDefinition = "TEXT")
+    private String dirtyBuckets;
+    
+    @Version
+    private Long version;
+    
+    @Column(name = "processed_records", nullable = false)
+    private long processedRecords;
+    
+    @Column(name = "total_records", nullable = false)
+    private int totalRecords;
+    
+    @Column(name = "matched_records", nullable = false)
+    private int matchedRecords;
+    
+    @Column(name = "missing_internal_records", nullable = false)
+    private int missingInternalRecords;
+    
+    @Column(name = "missing_external_records", nullable = false)
+    private int missingExternalRecords;
+    
+    @Column(name = "amount_mismatch_records", nullable = false)
+    private int amountMismatchRecords;
+    
+    @Column(name = "fuzzy_matched_records", nullable = false)
+    private int fuzzyMatchedRecords;
+    
+    @Column(name = "total_internal_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalInternalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "total_external_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalExternalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    public ReconciliationCheckpoint() {
+    }
+    
+    public ReconciliationCheckpoint(LocalDate reconciliationDate, int bucketStart, int bucketEnd) {
+        this.reconciliationDate = reconciliationDate;
+        this.bucketStart = bucketStart;
+        this.bucketEnd = bucketEnd;
+        restart();
+    }
+    
+    public void restart() {
+        this.phase = ReconciliationPhase.INTERNAL;
+        this.lastKey = null;
+        this.dirtyBuckets = null;
+        this.processedRecords = 0;
+        this.totalRecords = 0;
+        this.matchedRecords = 0;
+        this.missingInternalRecords = 0;
+        this.missingExternalRecords = 0;
+        this.amountMismatchRecords = 0;
+        this.fuzzyMatchedRecords = 0;
+        this.totalInternalAmount = BigDecimal.ZERO;
+        this.totalExternalAmount = BigDecimal.ZERO;
+        this.startedAt = LocalDateTime.now();
+        this.completedAt = null;
+    }
+    
+    public void record(ReconciliationStatus status, int delta) {
+        totalRecords += delta;
+        switch (status) {
+            case MATCHED:
+                matchedRecords += delta;
+                break;
+            case MISSING_INTERNAL:
+                missingInternalRecords += delta;
+                break;
+            case MISSING_EXTERNAL:
+                missingExternalRecords += delta;
+                break;
+            case AMOUNT_MISMATCH:
+                amountMismatchRecords += delta;
+                break;
+            case FUZZY_MATCHED:
+                fuzzyMatchedRecords += delta;
+                break;
+            default:
+                break;
+        }
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDate getReconciliationDate() {
+        return reconciliationDate;
+    }
+    
+    public void setReconciliationDate(LocalDate reconciliationDate) {
+        this.reconciliationDate = reconciliationDate;
+    }
+    
+    public int getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(int bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public int getBucketEnd() {
+        return bucketEnd;
+    }
+    
+    public void setBucketEnd(int bucketEnd) {
+        this.bucketEnd = bucketEnd;
+    }
+    
+    public ReconciliationPhase getPhase() {
+        return phase;
+    }
+    
+    public void setPhase(ReconciliationPhase phase) {
+        this.phase = phase;
+    }
+    
+    public String getLastKey() {
+        return lastKey;
+    }
+    
+    public void setLastKey(String lastKey) {
+        this.lastKey = lastKey;
+    }
+    
+    public String getDirtyBuckets() {
+        return dirtyBuckets;
+    }
+    
+    public void setDirtyBuckets(String dirtyBuckets) {
+        this.dirtyBuckets = dirtyBuckets;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public long getProcessedRecords() {
+        return processedRecords;
+    }
+    
+    public void setProcessedRecords(long processedRecords) {
+        this.processedRecords = processedRecords;
+    }
+    
+    public int getTotalRecords() {
+        return totalRecords;
+    }
+    
+    public void setTotalRecords(int totalRecords) {
+        this.totalRecords = totalRecords;
+    }
+    
+    public int getMatchedRecords() {
+        return matchedRecords;
+    }
+    
+    public void setMatchedRecords(int matchedRecords) {
+        this.matchedRecords = matchedRecords;
+    }
+    
+    public int getMissingInternalRecords() {
+        return missingInternalRecords;
+    }
+    
+    public void setMissingInternalRecords(int missingInternalRecords) {
+        this.missingInternalRecords = missingInternalRecords;
+    }
+    
+    public int getMissingExternalRecords() {
+        return missingExternalRecords;
+    }
+    
+    public void setMissingExternalRecords(int missingExternalRecords) {
+        this.missingExternalRecords = missingExternalRecords;
+    }
+    
+    public int getAmountMismatchRecords() {
+        return amountMismatchRecords;
+    }
+    
+    public void setAmountMismatchRecords(int amountMismatchRecords) {
+        this.amountMismatchRecords = amountMismatchRecords;
+    }
+    
+    public int getFuzzyMatchedRecords() {
+        return fuzzyMatchedRecords;
+    }
+    
+    public void setFuzzyMatchedRecords(int fuzzyMatchedRecords) {
+        this.fuzzyMatchedRecords = fuzzyMatchedRecords;
+    }
+    
+    public BigDecimal getTotalInternalAmount() {
+        return totalInternalAmount;
+    }
+    
+    public void setTotalInternalAmount(BigDecimal totalInternalAmount) {
+        this.totalInternalAmount = totalInternalAmount;
+    }
+    
+    public BigDecimal getTotalExternalAmount() {
+        return totalExternalAmount;
+    }
+    
+    public void setTotalExternalAmount(BigDecimal totalExternalAmount) {
+        this.totalExternalAmount = totalExternalAmount;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,121 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "reconciliation_digests",
+       uniqueConstraints = @UniqueConstraint(name = "uk_reconciliation_digests_bucket",
+                                             columnNames = {"side", "digest_date", "digest_bucket"}))
+public class ReconciliationDigest {
+    
+    public static final int BUCKETS = 1024;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DigestSide side;
+    
+    @Column(name = "digest_date", nullable = false)
+    private LocalDate digestDate;
+    
+    @Column(name = "digest_bucket", nullable = false)
+    private int digestBucket;
+    
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+    
+    @Column(name = "amount_total", nullable = false, precision = 25, scale = 2)
+    private BigDecimal amountTotal;
+    
+    @Column(name = "digest_hash", nullable = false)
+    private long digestHash;
+    
+    public ReconciliationDigest() {
+    }
+    
+    public static int bucketOf(String transactionId) {
+        return Math.floorMod(transactionId.hashCode(), BUCKETS);
+    }
+    
+    public static long hashOf(String transactionId, BigDecimal amount) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(transactionId.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) '|');
+            sha.update(amount.stripTrailingZeros().toPlainString().getBytes(StandardCharsets.UTF_8));
+            byte[] hash = sha.digest();
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (hash[i] & 0xFF);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public DigestSide getSide() {
+        return side;
+    }
+    
+    public void setSide(DigestSide side) {
+        this.side = side;
+    }
+    
+    public LocalDate getDigestDate() {
+        return digestDate;
+    }
+    
+    public void setDigestDate(LocalDate digestDate) {
+        this.digestDate = digestDate;
+    }
+    
+    public int getDigestBucket() {
+        return digestBucket;
+    }
+    
+    public void setDigestBucket(int digestBucket) {
+        this.digestBucket = digestBucket;
+    }
+    
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    public void setRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+    }
+    
+    public BigDecimal getAmountTotal() {
+        return amountTotal;
+    }
+    
+    public void setAmountTotal(BigDecimal amountTotal) {
+        this.amountTotal = amountTotal;
+    }
+    
+    public long getDigestHash() {
+        return digestHash;
+    }
+    
+    public void setDigestHash(long digestHash) {
+        this.digestHash = digestHash;
+    }
+}
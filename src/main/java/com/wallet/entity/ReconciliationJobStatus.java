@@ -0,0 +1,8 @@
+package com.wallet.entity;
+
+public enum ReconciliationJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.wallet.entity;
+
+public enum ReconciliationNote {
+    AMOUNT_MISMATCH,
+    MISSING_EXTERNAL,
+    MISSING_INTERNAL,
+    FUZZY_MATCH
+}
@@ -0,0 +1,9 @@
+package com.wallet.entity;
+
+public enum ReconciliationPhase {
+    INTERNAL,
+    EXTERNAL,
+    FUZZY,
+    LEFTOVERS,
+    COMPLETED
+}
@@ -6,7 +6,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reconciliation_records")
+@Table(name = "reconciliation_records",
+       indexes = @Index(name = "idx_reconciliation_records_date_status_id", columnList = "reconciliation_date, status, id"))
 public class ReconciliationRecord {
     
     @Id
@@ -32,9 +33,16 @@ public class ReconciliationRecord {
     @Column(nullable = false)
     private ReconciliationStatus status;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "note_code", length = 30)
+    private ReconciliationNote noteCode;
+    
     @Column(columnDefinition = "TEXT")
     private String notes;
     
+    @Column
+    private Double confidence;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
@@ -115,6 +123,14 @@ public class ReconciliationRecord {
         this.status = status;
     }
     
+    public ReconciliationNote getNoteCode() {
+        return noteCode;
+    }
+    
+    public void setNoteCode(ReconciliationNote noteCode) {
+        this.noteCode = noteCode;
+    }
+    
     public String getNotes() {
         return notes;
     }
@@ -123,6 +139,14 @@ public class ReconciliationRecord {
         this.notes = notes;
     }
     
+    public Double getConfidence() {
+        return confidence;
+    }
+    
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
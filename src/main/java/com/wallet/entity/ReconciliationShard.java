@@ -0,0 +1,187 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_shards",
+       uniqueConstraints = @UniqueConstraint(name = "uk_reconciliation_shards_date_index",
+                                             columnNames = {"reconciliation_date", "shard_index"}),
+       indexes = @Index(name = "idx_reconciliation_shards_status", columnList = "status"))
+public class ReconciliationShard {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "reconciliation_date", nullable = false)
+    private LocalDate reconciliationDate;
+    
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private int bucketStart;
+    
+    @Column(name = "bucket_end", nullable = false)
+    private int bucketEnd;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ShardStatus status = ShardStatus.PENDING;
+    
+    @Column(length = 100)
+    private String owner;
+    
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "retry_after")
+    private LocalDateTime retryAfter;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    @Column(name = "record_count")
+    private Integer recordCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    public ReconciliationShard() {
+    }
+    
+    public ReconciliationShard(LocalDate reconciliationDate, int shardIndex, int bucketStart, int bucketEnd) {
+        this.reconciliationDate = reconciliationDate;
+        this.shardIndex = shardIndex;
+        this.bucketStart = bucketStart;
+        this.bucketEnd = bucketEnd;
+        this.status = ShardStatus.PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDate getReconciliationDate() {
+        return reconciliationDate;
+    }
+    
+    public void setReconciliationDate(LocalDate reconciliationDate) {
+        this.reconciliationDate = reconciliationDate;
+    }
+    
+    public int getShardIndex() {
+        return shardIndex;
+    }
+    
+    public void setShardIndex(int shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+    
+    public int getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(int bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public int getBucketEnd() {
+        return bucketEnd;
+    }
+    
+    public void setBucketEnd(int bucketEnd) {
+        this.bucketEnd = bucketEnd;
+    }
+    
+    public ShardStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ShardStatus status) {
+        this.status = status;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+    
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getRetryAfter() {
+        return retryAfter;
+    }
+    
+    public void setRetryAfter(LocalDateTime retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public Integer getRecordCount() {
+        return recordCount;
+    }
+    
+    public void setRecordCount(Integer recordCount) {
+        this.recordCount = recordCount;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -4,5 +4,6 @@ public enum ReconciliationStatus {
     MATCHED,
     MISSING_INTERNAL,
     MISSING_EXTERNAL,
-    AMOUNT_MISMATCH
+    AMOUNT_MISMATCH,
+    FUZZY_MATCHED
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.wallet.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime bucketOf(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    public LocalDateTime minus(LocalDateTime bucketStart, long periods) {
+        return bucketStart.minus(periods, unit);
+    }
+
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+}
@@ -0,0 +1,9 @@
+package com.wallet.entity;
+
+public enum ShardStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    FINALIZED
+}
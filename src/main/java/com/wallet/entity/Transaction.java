@@ -5,7 +5,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+       indexes = @Index(name = "idx_transactions_created_at", columnList = "created_at"))
 public class Transaction {
     
     @Id
@@ -15,6 +16,9 @@ public class Transaction {
     @Column(name = "transaction_id", nullable = false, unique = true, length = 100)
     private String transactionId;
     
+    @Column(name = "digest_bucket", nullable = false)
+    private int digestBucket;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id", nullable = false)
     private Wallet wallet;
@@ -51,6 +55,7 @@ public class Transaction {
     public Transaction(String transactionId, Wallet wallet, TransactionType type, 
                       BigDecimal amount, BigDecimal balanceBefore, BigDecimal balanceAfter) {
         this.transactionId = transactionId;
+        this.digestBucket = ReconciliationDigest.bucketOf(transactionId);
         this.wallet = wallet;
         this.type = type;
         this.amount = amount;
@@ -63,6 +68,7 @@ public class Transaction {
     
     @PrePersist
     protected void onCreate() {
+        digestBucket = ReconciliationDigest.bucketOf(transactionId);
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
@@ -89,6 +95,14 @@ public class Transaction {
         this.transactionId = transactionId;
     }
     
+    public int getDigestBucket() {
+        return digestBucket;
+    }
+    
+    public void setDigestBucket(int digestBucket) {
+        this.digestBucket = digestBucket;
+    }
+    
     public Wallet getWallet() {
         return wallet;
     }
@@ -0,0 +1,108 @@
+package com.wallet.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "transaction_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_transaction_rollups_bucket",
+                                             columnNames = {"scope", "granularity", "bucket_start"}))
+public class TransactionRollup {
+    
+    public static final String GLOBAL_SCOPE = "*";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String scope;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+    
+    @Column(name = "topup_volume", nullable = false, precision = 25, scale = 2)
+    private BigDecimal topupVolume = BigDecimal.ZERO;
+    
+    @Column(name = "consume_volume", nullable = false, precision = 25, scale = 2)
+    private BigDecimal consumeVolume = BigDecimal.ZERO;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public TransactionRollup() {
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getScope() {
+        return scope;
+    }
+    
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+    
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+    
+    public BigDecimal getTopupVolume() {
+        return topupVolume;
+    }
+    
+    public void setTopupVolume(BigDecimal topupVolume) {
+        this.topupVolume = topupVolume;
+    }
+    
+    public BigDecimal getConsumeVolume() {
+        return consumeVolume;
+    }
+    
+    public void setConsumeVolume(BigDecimal consumeVolume) {
+        this.consumeVolume = consumeVolume;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -10,6 +10,8 @@ import java.util.List;
 @Table(name = "wallets")
 public class Wallet {
     
+    public static final int SHARD_BUCKETS = 1024;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -20,6 +22,9 @@ public class Wallet {
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
     
+    @Column(name = "shard_bucket", nullable = false)
+    private int shardBucket;
+    
     @Version
     private Long version;
     
@@ -37,6 +42,7 @@ public class Wallet {
     
     public Wallet(String customerId) {
         this.customerId = customerId;
+        this.shardBucket = shardBucketOf(customerId);
         this.balance = BigDecimal.ZERO;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
@@ -44,6 +50,7 @@ public class Wallet {
     
     @PrePersist
     protected void onCreate() {
+        shardBucket = shardBucketOf(customerId);
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
@@ -53,6 +60,10 @@ public class Wallet {
         updatedAt = LocalDateTime.now();
     }
     
+    public static int shardBucketOf(String customerId) {
+        return customerId == null ? 0 : Math.floorMod(customerId.hashCode(), SHARD_BUCKETS);
+    }
+    
     public void topup(BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Topup amount must be positive");
@@ -87,6 +98,14 @@ public class Wallet {
         this.customerId = customerId;
     }
     
+    public int getShardBucket() {
+        return shardBucket;
+    }
+    
+    public void setShardBucket(int shardBucket) {
+        this.shardBucket = shardBucket;
+    }
+    
     public BigDecimal getBalance() {
         return balance;
     }
@@ -0,0 +1,80 @@
+package com.wallet.messaging;
+
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailMessage;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationReportMessage;
+import com.wallet.service.TransactionMessagingService;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+@Profile("!embedded")
+public class AmqpWalletEventBus implements WalletEventBus {
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private TransactionMessageCodec messageCodec;
+
+    @Autowired(required = false)
+    private TransactionBatchPublisher batchPublisher;
+
+    @Value("${wallet.rabbitmq.exchanges.wallet-exchange}")
+    private String walletExchange;
+
+    @Value("${wallet.rabbitmq.routing-keys.transaction}")
+    private String transactionRoutingKey;
+
+    @Value("${wallet.rabbitmq.routing-keys.reconciliation}")
+    private String reconciliationRoutingKey;
+
+    @Value("${wallet.rabbitmq.routing-keys.reconciliation-details}")
+    private String reconciliationDetailsRoutingKey;
+
+    @Value("${wallet.rabbitmq.partitions.enabled:false}")
+    private boolean partitioned;
+
+    @Value("${wallet.rabbitmq.partitions.count:8}")
+    private int partitionCount;
+
+    @Override
+    public void publishTransaction(TransactionMessage message) {
+        // The codec produces the final body, so the template's JSON converter is bypassed.
+        Message encoded;
+        try {
+            encoded = messageCodec.encode(message);
+        } catch (IOException e) {
+            throw new AmqpIOException(e);
+        }
+        if (batchPublisher != null) {
+            batchPublisher.send(walletExchange, routingKeyOf(message.getCustomerId()), encoded);
+        } else {
+            rabbitTemplate.send(walletExchange, routingKeyOf(message.getCustomerId()), encoded);
+        }
+    }
+
+    @Override
+    public void publishReconciliationReport(ReconciliationReportMessage message) {
+        // The template's JSON converter is the only encoding step.
+        rabbitTemplate.convertAndSend(walletExchange, reconciliationRoutingKey, message);
+    }
+
+    @Override
+    public void publishReconciliationDetails(ReconciliationDetailMessage message) {
+        rabbitTemplate.convertAndSend(walletExchange, reconciliationDetailsRoutingKey, message);
+    }
+
+    private String routingKeyOf(String customerId) {
+        return partitioned
+                ? transactionRoutingKey + "." + TransactionMessagingService.partitionOf(customerId, partitionCount)
+                : transactionRoutingKey;
+    }
+}
@@ -0,0 +1,132 @@
+package com.wallet.messaging;
+
+import com.wallet.dto.DeadLetterReplayRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class DeadLetterReplayJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private final String id;
+    private final DeadLetterReplayRequest request;
+    private final int ratePerSecond;
+    private final LocalDateTime startedAt;
+
+    private volatile Status status = Status.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile boolean cancelRequested;
+    private volatile long totalMessages;
+    private volatile long examined;
+    private volatile long replayed;
+    private volatile long skipped;
+    private volatile String error;
+
+    public DeadLetterReplayJob(DeadLetterReplayRequest request, int ratePerSecond) {
+        this.id = UUID.randomUUID().toString();
+        this.request = request;
+        this.ratePerSecond = ratePerSecond;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    void started(long totalMessages) {
+        this.totalMessages = totalMessages;
+    }
+
+    void examined(boolean replayed) {
+        examined++;
+        if (replayed) {
+            this.replayed++;
+        } else {
+            skipped++;
+        }
+    }
+
+    void finished() {
+        finishedAt = LocalDateTime.now();
+        status = cancelRequested ? Status.CANCELLED : Status.COMPLETED;
+    }
+
+    void failed(Throwable cause) {
+        finishedAt = LocalDateTime.now();
+        error = cause.getMessage();
+        status = Status.FAILED;
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public Double getThroughputPerSecond() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return replayed * 1000.0 / millis;
+    }
+
+    public Long getEtaSeconds() {
+        if (status != Status.RUNNING) {
+            return null;
+        }
+        // Skipped messages cost nothing, so the rate limit bounds how long the rest can take.
+        return (long) Math.ceil(Math.max(0, totalMessages - examined) / (double) ratePerSecond);
+    }
+
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public DeadLetterReplayRequest getRequest() {
+        return request;
+    }
+
+    public int getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getTotalMessages() {
+        return totalMessages;
+    }
+
+    public long getExamined() {
+        return examined;
+    }
+
+    public long getReplayed() {
+        return replayed;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,251 @@
+package com.wallet.messaging;
+
+import com.rabbitmq.client.GetResponse;
+import com.wallet.dto.DeadLetterReplayRequest;
+import com.wallet.dto.DeadLetterReplayResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+@Profile("!embedded")
+public class DeadLetterReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    private static final List<String> RESET_HEADERS = List.of("x-death", "x-first-death-exchange",
+            "x-first-death-queue", "x-first-death-reason", "x-last-death-exchange", "x-last-death-queue",
+            "x-last-death-reason", RetryTierRecoverer.RETRY_TIER_HEADER, RetryTierRecoverer.RETRY_ATTEMPT_HEADER,
+            TransactionMessageConsumer.ORIGINAL_ROUTING_KEY_HEADER);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.rabbitmq.exchanges.wallet-exchange}")
+    private String walletExchange;
+
+    @Value("${wallet.rabbitmq.queues.transaction-processing}")
+    private String transactionQueue;
+
+    @Value("${wallet.rabbitmq.queues.reconciliation-processing}")
+    private String reconciliationQueue;
+
+    @Value("${wallet.rabbitmq.routing-keys.transaction}")
+    private String transactionRoutingKey;
+
+    @Value("${wallet.rabbitmq.routing-keys.reconciliation}")
+    private String reconciliationRoutingKey;
+
+    @Value("${wallet.rabbitmq.replay.default-rate-per-second:50}")
+    private int defaultRatePerSecond;
+
+    @Value("${wallet.rabbitmq.replay.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+    private final Map<String, DeadLetterReplayJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, DeadLetterReplayJob> inFlight = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "dlq-replay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public DeadLetterReplayJob submit(DeadLetterReplayRequest request) {
+        // One replay per queue at a time; a second request attaches to the one already running.
+        return inFlight.computeIfAbsent(request.getQueue(), key -> {
+            int rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond;
+            DeadLetterReplayJob job = new DeadLetterReplayJob(request, rate);
+            jobs.put(job.getId(), job);
+            executor.execute(() -> run(job));
+            logger.info("Started dead-letter replay {} for {} at {} messages/s", job.getId(), key, rate);
+            return job;
+        });
+    }
+
+    public Optional<DeadLetterReplayJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public void cancel(DeadLetterReplayJob job) {
+        job.cancel();
+    }
+
+    public DeadLetterReplayResponse getJobStatus(DeadLetterReplayJob job) {
+        DeadLetterReplayResponse response = new DeadLetterReplayResponse();
+        response.setJobId(job.getId());
+        response.setQueue(job.getRequest().getQueue());
+        response.setStatus(job.getStatus().name());
+        response.setRatePerSecond(job.getRatePerSecond());
+        response.setTotalMessages(job.getTotalMessages());
+        response.setExamined(job.getExamined());
+        response.setReplayed(job.getReplayed());
+        response.setSkipped(job.getSkipped());
+        response.setThroughputPerSecond(job.getThroughputPerSecond());
+        response.setEtaSeconds(job.getEtaSeconds());
+        response.setStartedAt(job.getStartedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        response.setError(job.getError());
+        return response;
+    }
+
+    private void run(DeadLetterReplayJob job) {
+        DeadLetterReplayRequest request = job.getRequest();
+        String deadLetterQueue = sourceQueue(request.getQueue()) + ".dlq";
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(deadLetterQueue);
+            // Only the messages present at the start are examined; skipped ones go to the back of the queue.
+            long total = info != null ? info.getMessageCount() : 0;
+            job.started(total);
+
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / job.getRatePerSecond();
+            long nextSlot = System.nanoTime();
+            while (job.getExamined() < total && !job.isCancelRequested()
+                    && (request.getMaxMessages() == null || job.getReplayed() < request.getMaxMessages())) {
+                long wait = nextSlot - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Boolean replayed = rabbitTemplate.execute(channel -> {
+                    GetResponse response = channel.basicGet(deadLetterQueue, false);
+                    if (response == null) {
+                        return null;
+                    }
+                    MessageProperties properties = propertiesConverter.toMessageProperties(
+                            response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+                    boolean matches = matches(request, properties);
+                    if (matches) {
+                        rabbitTemplate.send(walletExchange, originalRoutingKey(request.getQueue(), properties),
+                                new Message(response.getBody(), resetForReplay(properties, job)));
+                    } else {
+                        rabbitTemplate.send("", deadLetterQueue, new Message(response.getBody(), properties));
+                    }
+                    channel.basicAck(response.getEnvelope().getDeliveryTag(), false);
+                    return matches;
+                });
+                if (replayed == null) {
+                    break;
+                }
+                job.examined(replayed);
+                if (replayed) {
+                    meterRegistry.counter("wallet.messaging.dlq.replayed", "queue", request.getQueue()).increment();
+                    nextSlot += intervalNanos;
+                }
+            }
+            job.finished();
+            logger.info("Dead-letter replay {} for {} {}: {} replayed, {} skipped of {}", job.getId(),
+                       request.getQueue(), job.getStatus(), job.getReplayed(), job.getSkipped(), total);
+        } catch (Exception e) {
+            logger.error("Dead-letter replay {} for {} failed", job.getId(), request.getQueue(), e);
+            job.failed(e);
+        } finally {
+            inFlight.remove(request.getQueue(), job);
+        }
+    }
+
+    private boolean matches(DeadLetterReplayRequest request, MessageProperties properties) {
+        if (request.getCustomerId() != null
+                && !request.getCustomerId().equals(String.valueOf(properties.getHeaders().get("customerId")))) {
+            return false;
+        }
+        if (request.getReason() != null && !request.getReason().equals(reasonOf(properties))) {
+            return false;
+        }
+        if (request.getRoutingKey() != null
+                && !request.getRoutingKey().equals(originalRoutingKey(request.getQueue(), properties))) {
+            return false;
+        }
+        return true;
+    }
+
+    private String reasonOf(MessageProperties properties) {
+        // Events dead-lettered one by one out of a batched delivery are published, not rejected by the broker.
+        if (properties.getHeaders().containsKey(TransactionMessageConsumer.ORIGINAL_ROUTING_KEY_HEADER)) {
+            return "republished";
+        }
+        // The newest death comes first; older entries are the expiries in the retry tiers on the way here.
+        List<Map<String, ?>> deaths = properties.getXDeathHeader();
+        if (deaths != null && !deaths.isEmpty() && deaths.get(0).get("reason") != null) {
+            return deaths.get(0).get("reason").toString();
+        }
+        Object reason = properties.getHeaders().get("x-last-death-reason");
+        return reason != null ? reason.toString() : "republished";
+    }
+
+    private String originalRoutingKey(String queue, MessageProperties properties) {
+        Object original = properties.getHeaders().get(TransactionMessageConsumer.ORIGINAL_ROUTING_KEY_HEADER);
+        if (original != null) {
+            return original.toString();
+        }
+        List<Map<String, ?>> deaths = properties.getXDeathHeader();
+        if (deaths != null && !deaths.isEmpty()) {
+            // The oldest entry records where the message was first rejected, before any retry tier.
+            Object routingKeys = deaths.get(deaths.size() - 1).get("routing-keys");
+            if (routingKeys instanceof List<?> keys && !keys.isEmpty()) {
+                return keys.get(0).toString();
+            }
+        }
+        return "reconciliation".equals(queue) ? reconciliationRoutingKey : transactionRoutingKey;
+    }
+
+    private MessageProperties resetForReplay(MessageProperties properties, DeadLetterReplayJob job) {
+        // Replayed messages get a full set of retry tiers again.
+        RESET_HEADERS.forEach(properties.getHeaders()::remove);
+        properties.setHeader("x-replay-job", job.getId());
+        return properties;
+    }
+
+    private String sourceQueue(String queue) {
+        return "reconciliation".equals(queue) ? reconciliationQueue : transactionQueue;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(DeadLetterReplayJob::cancel);
+        executor.shutdown();
+    }
+}
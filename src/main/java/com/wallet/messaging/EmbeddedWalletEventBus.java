@@ -0,0 +1,152 @@
+package com.wallet.messaging;
+
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailMessage;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationReportMessage;
+import com.wallet.service.TransactionMessagingService;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+@Profile("embedded")
+public class EmbeddedWalletEventBus implements WalletEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedWalletEventBus.class);
+
+    private static final int IDLE_SPINS = 100;
+
+    @Autowired
+    private TransactionEventHandler transactionEventHandler;
+
+    @Autowired
+    private ReconciliationMessageConsumer reconciliationMessageConsumer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.messaging.embedded.partitions:4}")
+    private int partitionCount;
+
+    @Value("${wallet.messaging.embedded.ring-size:65536}")
+    private int ringSize;
+
+    @Value("${wallet.messaging.embedded.batch-size:256}")
+    private int batchSize;
+
+    @Value("${wallet.messaging.embedded.idle-park-us:50}")
+    private long idleParkMicros;
+
+    private final List<RingBuffer<Object>> rings = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private Counter delivered;
+    private Counter duplicates;
+    private Counter failed;
+
+    @PostConstruct
+    void start() {
+        delivered = meterRegistry.counter("wallet.messaging.embedded.events", "outcome", "processed");
+        duplicates = meterRegistry.counter("wallet.messaging.embedded.events", "outcome", "duplicate");
+        failed = meterRegistry.counter("wallet.messaging.embedded.events", "outcome", "failed");
+        Gauge.builder("wallet.messaging.embedded.backlog", this, EmbeddedWalletEventBus::backlog)
+                .description("Events published to the embedded bus and not yet handled")
+                .register(meterRegistry);
+
+        // One ring and one worker per partition keeps a wallet's events in order, as the partitioned queues do.
+        for (int partition = 0; partition < partitionCount; partition++) {
+            RingBuffer<Object> ring = new RingBuffer<>(ringSize);
+            Thread worker = new Thread(() -> run(ring), "embedded-bus-" + partition);
+            worker.setDaemon(true);
+            rings.add(ring);
+            workers.add(worker);
+            worker.start();
+        }
+        logger.info("Embedded event bus started with {} partitions of {} slots", partitionCount, ringSize);
+    }
+
+    @Override
+    public void publishTransaction(TransactionMessage message) {
+        rings.get(TransactionMessagingService.partitionOf(message.getCustomerId(), partitionCount)).publish(message);
+    }
+
+    @Override
+    public void publishReconciliationReport(ReconciliationReportMessage message) {
+        rings.get(0).publish(message);
+    }
+
+    @Override
+    public void publishReconciliationDetails(ReconciliationDetailMessage message) {
+        // Reports and detail streams share partition 0, so a stream's chunks arrive in order.
+        rings.get(0).publish(message);
+    }
+
+    public long backlog() {
+        long backlog = 0;
+        for (RingBuffer<Object> ring : rings) {
+            backlog += ring.backlog();
+        }
+        return backlog;
+    }
+
+    private void run(RingBuffer<Object> ring) {
+        int idle = 0;
+        while (running || ring.backlog() > 0) {
+            if (ring.drain(this::deliver, batchSize) > 0) {
+                idle = 0;
+            } else if (++idle < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(idleParkMicros));
+            }
+        }
+    }
+
+    private void deliver(Object event) {
+        // There is no broker to redeliver to, so a failed event is logged and counted rather than retried.
+        try {
+            if (event instanceof TransactionMessage transaction) {
+                if (transactionEventHandler.handle(transaction)) {
+                    delivered.increment();
+                } else {
+                    duplicates.increment();
+                }
+            } else if (event instanceof ReconciliationReportMessage report) {
+                reconciliationMessageConsumer.processReconciliationReport(report);
+                delivered.increment();
+            } else if (event instanceof ReconciliationDetailMessage details) {
+                reconciliationMessageConsumer.processReconciliationDetails(details);
+                delivered.increment();
+            }
+        } catch (Exception e) {
+            failed.increment();
+            logger.error("Embedded bus failed to handle event {}", event, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Workers drain what is already published before they exit.
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (backlog() > 0) {
+            logger.warn("Embedded event bus stopped with {} events unhandled", backlog());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.wallet.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class MessageDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageDeduplicator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.messaging.dedup.window-seconds:600}")
+    private long windowSeconds;
+
+    @Value("${wallet.messaging.dedup.segments:6}")
+    private int segmentCount;
+
+    @Value("${wallet.messaging.dedup.max-entries:1000000}")
+    private int maxEntries;
+
+    @Value("${wallet.messaging.dedup.persistent.enabled:false}")
+    private boolean persistent;
+
+    @Value("${wallet.messaging.dedup.persistent.retention-hours:168}")
+    private long retentionHours;
+
+    // Newest segment first. Readers take the array without locking; rotation swaps in a new array.
+    private volatile Segment[] segments;
+    private volatile long nextRotationNanos;
+    private long rotationNanos;
+    private int segmentCapacity;
+
+    private Counter hits;
+    private Counter persistentHits;
+    private Counter misses;
+    private Counter evicted;
+
+    @PostConstruct
+    void init() {
+        segmentCount = Math.max(2, segmentCount);
+        rotationNanos = TimeUnit.SECONDS.toNanos(windowSeconds) / segmentCount;
+        segmentCapacity = Math.max(1, maxEntries / segmentCount);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+        nextRotationNanos = System.nanoTime() + rotationNanos;
+
+        Gauge.builder("wallet.messaging.dedup.entries", this, MessageDeduplicator::size)
+                .description("Message ids held by the in-memory deduplication window")
+                .register(meterRegistry);
+        hits = meterRegistry.counter("wallet.messaging.dedup.lookups", "result", "hit");
+        persistentHits = meterRegistry.counter("wallet.messaging.dedup.lookups", "result", "persistent-hit");
+        misses = meterRegistry.counter("wallet.messaging.dedup.lookups", "result", "miss");
+        evicted = meterRegistry.counter("wallet.messaging.dedup.evicted");
+    }
+
+    public boolean isDuplicate(String scope, String messageId) {
+        String key = keyOf(scope, messageId);
+        for (Segment segment : current()) {
+            if (segment.keys.contains(key)) {
+                hits.increment();
+                return true;
+            }
+        }
+        if (persistent && isPersisted(key)) {
+            // Pulled back into memory so redeliveries in a burst stop hitting the table.
+            remember(key);
+            persistentHits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    public void markProcessed(String scope, String messageId) {
+        String key = keyOf(scope, messageId);
+        remember(key);
+        if (persistent) {
+            persist(key);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size.get();
+        }
+        return size;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.messaging.dedup.persistent.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM processed_messages WHERE processed_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+            if (purged > 0) {
+                logger.info("Purged {} expired processed message ids", purged);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Failed to purge expired processed message ids", e);
+        }
+    }
+
+    private void remember(String key) {
+        Segment[] current = current();
+        Segment newest = current[0];
+        if (newest.keys.add(key) && newest.size.incrementAndGet() >= segmentCapacity) {
+            // A burst fills the newest segment early; rotating then drops the oldest so memory stays bounded.
+            rotate(current);
+        }
+    }
+
+    private Segment[] current() {
+        Segment[] current = segments;
+        if (System.nanoTime() - nextRotationNanos >= 0) {
+            current = rotate(current);
+        }
+        return current;
+    }
+
+    private synchronized Segment[] rotate(Segment[] expected) {
+        if (segments != expected) {
+            return segments;
+        }
+        Segment[] rotated = new Segment[expected.length];
+        rotated[0] = new Segment();
+        System.arraycopy(expected, 0, rotated, 1, expected.length - 1);
+        evicted.increment(expected[expected.length - 1].size.get());
+        nextRotationNanos = System.nanoTime() + rotationNanos;
+        segments = rotated;
+        return rotated;
+    }
+
+    private boolean isPersisted(String key) {
+        try {
+            Integer found = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM processed_messages WHERE message_key = ?", Integer.class, key);
+            return found != null && found > 0;
+        } catch (DataAccessException e) {
+            logger.warn("Dedup table lookup failed for {}, treating it as new", key, e);
+            return false;
+        }
+    }
+
+    private void persist(String key) {
+        try {
+            jdbcTemplate.update("INSERT INTO processed_messages (message_key, processed_at) VALUES (?, ?)",
+                    key, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Message {} was already recorded as processed", key);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to record processed message {}", key, e);
+        }
+    }
+
+    private String keyOf(String scope, String messageId) {
+        return scope + ":" + messageId;
+    }
+
+    private static final class Segment {
+        private final Set<String> keys = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger size = new AtomicInteger();
+    }
+}
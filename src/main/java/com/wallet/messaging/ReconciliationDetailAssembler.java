@@ -0,0 +1,152 @@
+package com.wallet.messaging;
+
+import com.wallet.dto.ReconciliationReportResponse.ReconciliationDetail;
+import com.wallet.entity.ReconciliationStatus;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class ReconciliationDetailAssembler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationDetailAssembler.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.reconciliation.detail-stream.stream-timeout-minutes:30}")
+    private long streamTimeoutMinutes;
+
+    private final Map<String, StreamState> streams = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("wallet.reconciliation.details.open-streams", this, ReconciliationDetailAssembler::openStreams)
+                .description("Reconciliation detail streams still waiting for chunks or a manifest")
+                .register(meterRegistry);
+    }
+
+    private long openStreams() {
+        return streams.values().stream().filter(state -> !state.completed).count();
+    }
+
+    public void accept(ReconciliationDetailMessage message) {
+        StreamState state = streams.computeIfAbsent(message.getStreamId(), id -> new StreamState(message));
+        synchronized (state) {
+            if (state.completed) {
+                return;
+            }
+            state.lastSeenNanos = System.nanoTime();
+            if (ReconciliationDetailMessage.MANIFEST.equals(message.getType())) {
+                state.manifest = message;
+            } else if (message.getSequence() >= state.nextSequence) {
+                // Chunks can overtake each other across listener threads or after a redelivery; later ones wait here.
+                state.pending.putIfAbsent(message.getSequence(), message);
+            } else {
+                meterRegistry.counter("wallet.reconciliation.details.chunks", "outcome", "duplicate").increment();
+            }
+
+            ReconciliationDetailMessage next;
+            while ((next = state.pending.remove(state.nextSequence)) != null) {
+                processChunk(state, next);
+                state.nextSequence++;
+            }
+
+            if (state.manifest != null && state.nextSequence >= state.manifest.getChunkCount()) {
+                complete(state);
+            }
+        }
+    }
+
+    private void processChunk(StreamState state, ReconciliationDetailMessage chunk) {
+        int exceptions = 0;
+        for (ReconciliationDetail detail : chunk.getDetails()) {
+            state.statusCounts.merge(detail.getStatus().name(), 1L, Long::sum);
+            state.recordCount++;
+            if (detail.getStatus() != ReconciliationStatus.MATCHED) {
+                exceptions++;
+            }
+        }
+        meterRegistry.counter("wallet.reconciliation.details.chunks", "outcome", "processed").increment();
+        logger.debug("Processed reconciliation detail chunk {} of stream {} for date: {} with {} exceptions",
+                    chunk.getSequence(), chunk.getStreamId(), chunk.getReconciliationDate(), exceptions);
+    }
+
+    private void complete(StreamState state) {
+        // The state stays until eviction so that redelivered chunks of a finished stream are recognised and dropped.
+        state.completed = true;
+
+        ReconciliationDetailMessage manifest = state.manifest;
+        boolean consistent = Objects.equals(manifest.getRecordCount(), state.recordCount)
+                && Objects.equals(manifest.getStatusCounts(), state.statusCounts);
+        meterRegistry.counter("wallet.reconciliation.details.streams",
+                "outcome", consistent ? "completed" : "mismatched").increment();
+
+        if (!consistent) {
+            logger.warn("Reconciliation detail stream {} for date: {} received {} records {} but its manifest lists {} {}",
+                       state.streamId, state.reconciliationDate, state.recordCount, state.statusCounts,
+                       manifest.getRecordCount(), manifest.getStatusCounts());
+            return;
+        }
+        logger.info("Reconciliation detail stream {} for buckets [{}, {}) on date: {} complete with {} records {}{}",
+                   state.streamId, state.bucketStart, state.bucketEnd, state.reconciliationDate,
+                   state.recordCount, state.statusCounts,
+                   manifest.isResumed() ? " (resumed run, earlier chunks were sent by the interrupted run)" : "");
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictStaleStreams() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(streamTimeoutMinutes);
+        streams.values().removeIf(state -> {
+            synchronized (state) {
+                if (state.lastSeenNanos - cutoff > 0) {
+                    return false;
+                }
+                if (state.completed) {
+                    return true;
+                }
+                state.completed = true;
+            }
+            meterRegistry.counter("wallet.reconciliation.details.streams", "outcome", "incomplete").increment();
+            logger.warn("Dropping reconciliation detail stream {} for date: {} after {} chunks; {}",
+                       state.streamId, state.reconciliationDate, state.nextSequence,
+                       state.manifest == null ? "no manifest arrived"
+                               : "manifest expects " + state.manifest.getChunkCount() + " chunks");
+            return true;
+        });
+    }
+
+    private static class StreamState {
+        private final String streamId;
+        private final String reconciliationDate;
+        private final int bucketStart;
+        private final int bucketEnd;
+        private final TreeMap<Integer, ReconciliationDetailMessage> pending = new TreeMap<>();
+        private final Map<String, Long> statusCounts = new TreeMap<>();
+        private ReconciliationDetailMessage manifest;
+        private int nextSequence;
+        private long recordCount;
+        private long lastSeenNanos = System.nanoTime();
+        private volatile boolean completed;
+
+        StreamState(ReconciliationDetailMessage first) {
+            this.streamId = first.getStreamId();
+            this.reconciliationDate = first.getReconciliationDate();
+            this.bucketStart = first.getBucketStart();
+            this.bucketEnd = first.getBucketEnd();
+        }
+    }
+}
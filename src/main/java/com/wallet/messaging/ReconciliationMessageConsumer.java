@@ -1,6 +1,6 @@
 package com.wallet.messaging;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailMessage;
 import com.wallet.service.ReconciliationMessagingService.ReconciliationReportMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,29 +14,49 @@ public class ReconciliationMessageConsumer {
     private static final Logger logger = LoggerFactory.getLogger(ReconciliationMessageConsumer.class);
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ReconciliationDetailAssembler detailAssembler;
 
-    @RabbitListener(queues = "${wallet.rabbitmq.queues.reconciliation-processing}")
-    public void processReconciliationReport(String messageJson) {
+    @RabbitListener(queues = "${wallet.rabbitmq.queues.reconciliation-processing}",
+                    containerFactory = "reconciliationListenerContainerFactory")
+    public void processReconciliationReport(ReconciliationReportMessage message) {
         try {
-            logger.info("Received reconciliation report message: {}", messageJson);
-            
-            ReconciliationReportMessage message = objectMapper.readValue(messageJson, ReconciliationReportMessage.class);
+            logger.debug("Received reconciliation report message for date: {}", message.getReconciliationDate());
             
             processReconciliationMessage(message);
             
             logger.info("Successfully processed reconciliation report for date: {}", message.getReconciliationDate());
             
         } catch (Exception e) {
-            logger.error("Failed to process reconciliation message: {}", messageJson, e);
+            logger.error("Failed to process reconciliation message for date: {}", message.getReconciliationDate(), e);
             throw new RuntimeException("Failed to process reconciliation message", e);
         }
     }
 
+    @RabbitListener(queues = "${wallet.rabbitmq.queues.reconciliation-details}",
+                    containerFactory = "reconciliationListenerContainerFactory")
+    public void processReconciliationDetails(ReconciliationDetailMessage message) {
+        try {
+            logger.debug("Received reconciliation detail {} {} of stream {} for date: {}",
+                        message.getType(), message.getSequence(), message.getStreamId(), message.getReconciliationDate());
+
+            detailAssembler.accept(message);
+
+        } catch (Exception e) {
+            logger.error("Failed to process reconciliation detail {} of stream {}",
+                        message.getType(), message.getStreamId(), e);
+            throw new RuntimeException("Failed to process reconciliation detail message", e);
+        }
+    }
+
     private void processReconciliationMessage(ReconciliationReportMessage message) {
         logger.info("Processing reconciliation report for date: {} with {} total records", 
                    message.getReconciliationDate(), message.getTotalRecords());
         
+        if (message.getFailedShards() != null && !message.getFailedShards().isEmpty()) {
+            logger.error("Reconciliation for date: {} is incomplete, shards {} failed and are not in the totals", 
+                        message.getReconciliationDate(), message.getFailedShards());
+        }
+        
         if (message.getAmountMismatchRecords() > 0) {
             logger.warn("Found {} amount mismatches in reconciliation for date: {}", 
                        message.getAmountMismatchRecords(), message.getReconciliationDate());
@@ -52,6 +72,11 @@ public class ReconciliationMessageConsumer {
                        message.getMissingExternalRecords(), message.getReconciliationDate());
         }
         
+        if (message.getFuzzyMatchedRecords() > 0) {
+            logger.info("Found {} fuzzy matched records in reconciliation for date: {}", 
+                       message.getFuzzyMatchedRecords(), message.getReconciliationDate());
+        }
+        
         if (message.getMatchedRecords() == message.getTotalRecords()) {
             logger.info("Perfect reconciliation - all {} records matched for date: {}", 
                        message.getTotalRecords(), message.getReconciliationDate());
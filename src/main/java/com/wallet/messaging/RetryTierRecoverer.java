@@ -0,0 +1,110 @@
+package com.wallet.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.MessagePropertiesBuilder;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Profile("!embedded")
+public class RetryTierRecoverer implements MessageRecoverer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryTierRecoverer.class);
+
+    public static final String RETRY_TIER_HEADER = "x-retry-tier";
+    public static final String RETRY_ATTEMPT_HEADER = "x-retry-attempt";
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.rabbitmq.exchanges.wallet-exchange}")
+    private String walletExchange;
+
+    @Value("${wallet.rabbitmq.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.rabbitmq.retry.attempts:3}")
+    private int attempts;
+
+    @Value("${wallet.rabbitmq.retry.initial-delay-ms:1000}")
+    private long initialDelayMs;
+
+    @Value("${wallet.rabbitmq.retry.multiplier:5.0}")
+    private double multiplier;
+
+    @Value("${wallet.rabbitmq.retry.max-delay-ms:300000}")
+    private long maxDelayMs;
+
+    public List<Long> tierDelays() {
+        List<Long> delays = new ArrayList<>();
+        double delay = initialDelayMs;
+        for (int tier = 0; tier < attempts; tier++) {
+            delays.add(Math.min(maxDelayMs, Math.round(delay)));
+            delay *= multiplier;
+        }
+        return delays;
+    }
+
+    public String retryExchange() {
+        return walletExchange + ".retry";
+    }
+
+    public String tierQueue(int tier) {
+        return walletExchange + ".retry." + tier;
+    }
+
+    public boolean scheduleRetry(Message message, Throwable cause) {
+        int attempt = attemptOf(message);
+        if (!enabled || attempt >= attempts) {
+            return false;
+        }
+
+        MessageProperties properties = MessagePropertiesBuilder.fromClonedProperties(message.getMessageProperties())
+                .setHeader(RETRY_TIER_HEADER, attempt)
+                .setHeader(RETRY_ATTEMPT_HEADER, attempt + 1)
+                .build();
+        // Published with the routing key it was received on, so the tier queue dead-letters it back to the same queue.
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        try {
+            rabbitTemplate.send(retryExchange(), routingKey, new Message(message.getBody(), properties));
+        } catch (AmqpException e) {
+            logger.error("Failed to schedule retry {} for message {}", attempt + 1, routingKey, e);
+            return false;
+        }
+        meterRegistry.counter("wallet.messaging.retries", "tier", String.valueOf(attempt)).increment();
+        logger.warn("Scheduled retry {} of {} for message on {} in {} ms: {}", attempt + 1, attempts, routingKey,
+                   tierDelays().get(attempt), cause != null ? cause.getMessage() : "unknown error");
+        return true;
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        if (!scheduleRetry(message, cause)) {
+            // Rejected without requeue, the queue's own dead-letter exchange moves it to the DLQ.
+            throw new ListenerExecutionFailedException("Retries exhausted",
+                    new AmqpRejectAndDontRequeueException(cause), message);
+        }
+    }
+
+    private int attemptOf(Message message) {
+        Object attempt = message.getMessageProperties().getHeaders().get(RETRY_ATTEMPT_HEADER);
+        return attempt instanceof Number ? ((Number) attempt).intValue() : 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.wallet.messaging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+final class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    // Sequence last written to each slot; a slot is readable once it holds the sequence the consumer expects next.
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    RingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    void publish(E event) {
+        long sequence = claimed.incrementAndGet();
+        // A full ring pushes back on the producer rather than growing.
+        while (sequence - consumed.get() > slots.length()) {
+            LockSupport.parkNanos(1000);
+        }
+        int index = (int) sequence & mask;
+        slots.lazySet(index, event);
+        published.set(index, sequence);
+    }
+
+    int drain(Consumer<E> handler, int maxEvents) {
+        long next = consumed.get() + 1;
+        int drained = 0;
+        try {
+            while (drained < maxEvents) {
+                int index = (int) next & mask;
+                if (published.get(index) != next) {
+                    break;
+                }
+                E event = slots.get(index);
+                slots.lazySet(index, null);
+                next++;
+                drained++;
+                handler.accept(event);
+            }
+        } finally {
+            if (drained > 0) {
+                consumed.set(next - 1);
+            }
+        }
+        return drained;
+    }
+
+    long backlog() {
+        return Math.max(0, claimed.get() - consumed.get());
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
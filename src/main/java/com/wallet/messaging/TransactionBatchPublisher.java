@@ -0,0 +1,78 @@
+package com.wallet.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Profile("!embedded")
+@ConditionalOnProperty(name = "wallet.rabbitmq.publisher.batch.enabled", havingValue = "true")
+public class TransactionBatchPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBatchPublisher.class);
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Value("${wallet.rabbitmq.publisher.batch.max-events:100}")
+    private int maxEvents;
+
+    @Value("${wallet.rabbitmq.publisher.batch.max-bytes:65536}")
+    private int maxBytes;
+
+    @Value("${wallet.rabbitmq.publisher.batch.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${wallet.rabbitmq.publisher.batch.compress:false}")
+    private boolean compress;
+
+    private final Map<String, BatchingRabbitTemplate> templates = new ConcurrentHashMap<>();
+    private ThreadPoolTaskScheduler scheduler;
+
+    @PostConstruct
+    void init() {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("transaction-batch-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+    }
+
+    public void send(String exchange, String routingKey, Message message) {
+        // A batching template flushes whenever the routing key changes, so each partition key gets its own; that also
+        // keeps a wallet's events in publish order inside one batch.
+        templates.computeIfAbsent(exchange + "/" + routingKey, key -> createTemplate())
+                .send(exchange, routingKey, message);
+    }
+
+    private BatchingRabbitTemplate createTemplate() {
+        BatchingRabbitTemplate template = new BatchingRabbitTemplate(connectionFactory,
+                new SimpleBatchingStrategy(maxEvents, maxBytes, lingerMs), scheduler);
+        template.setMandatory(true);
+        if (compress) {
+            template.setBeforePublishPostProcessors(new GZipPostProcessor());
+        }
+        return template;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        templates.values().forEach(BatchingRabbitTemplate::flush);
+        scheduler.shutdown();
+        logger.info("Flushed {} transaction event batchers", templates.size());
+    }
+}
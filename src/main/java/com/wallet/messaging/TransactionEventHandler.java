@@ -0,0 +1,60 @@
+package com.wallet.messaging;
+
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import com.wallet.service.WalletStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TransactionEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionEventHandler.class);
+
+    private static final String DEDUP_SCOPE = "transaction";
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    @Autowired
+    private WalletStatsService walletStatsService;
+
+    public boolean handle(TransactionMessage message) {
+        if (deduplicator.isDuplicate(DEDUP_SCOPE, message.getTransactionId())) {
+            logger.debug("Skipping redelivered transaction message {}", message.getTransactionId());
+            return false;
+        }
+        processTransactionMessage(message);
+        deduplicator.markProcessed(DEDUP_SCOPE, message.getTransactionId());
+        return true;
+    }
+
+    private void processTransactionMessage(TransactionMessage message) {
+        logger.debug("Processing transaction message for: {} of type: {} with amount: {}", 
+                    message.getTransactionId(), message.getType(), message.getAmount());
+        
+        switch (message.getType()) {
+            case "TOPUP":
+                processTopupMessage(message);
+                break;
+            case "CONSUME":
+                processConsumeMessage(message);
+                break;
+            default:
+                logger.warn("Unknown transaction type: {}", message.getType());
+        }
+    }
+
+    private void processTopupMessage(TransactionMessage message) {
+        logger.debug("Processing topup message for customer: {} with amount: {}", 
+                   message.getCustomerId(), message.getAmount());
+        walletStatsService.record(message);
+    }
+
+    private void processConsumeMessage(TransactionMessage message) {
+        logger.debug("Processing consume message for customer: {} with amount: {}", 
+                   message.getCustomerId(), message.getAmount());
+        walletStatsService.record(message);
+    }
+}
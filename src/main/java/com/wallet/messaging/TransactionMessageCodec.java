@@ -0,0 +1,192 @@
+package com.wallet.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Component
+public class TransactionMessageCodec {
+
+    public static final String JSON_CONTENT_TYPE = MessageProperties.CONTENT_TYPE_JSON;
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.wallet.transaction.v1+binary";
+
+    private static final int BINARY_VERSION = 1;
+    private static final int MAX_POOLED_BUFFER = 64 * 1024;
+
+    private static final int HAS_CUSTOMER = 1;
+    private static final int HAS_BALANCE_BEFORE = 2;
+    private static final int HAS_BALANCE_AFTER = 4;
+    private static final int HAS_STATUS = 8;
+    private static final int HAS_REFERENCE = 16;
+    private static final int HAS_TIMESTAMP = 32;
+
+    private static final ThreadLocal<PooledBuffer> BUFFERS = ThreadLocal.withInitial(PooledBuffer::new);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${wallet.rabbitmq.codec.format:json}")
+    private String format;
+
+    public Message encode(TransactionMessage message) throws IOException {
+        boolean binary = "binary".equalsIgnoreCase(format);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(binary ? BINARY_CONTENT_TYPE : JSON_CONTENT_TYPE);
+        if (!binary) {
+            properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        }
+        properties.setMessageId(message.getTransactionId());
+        properties.setHeader("customerId", message.getCustomerId());
+        return new Message(binary ? encodeBinary(message) : encodeJson(message), properties);
+    }
+
+    public byte[] encodeJson(TransactionMessage message) throws IOException {
+        PooledBuffer buffer = buffer();
+        objectMapper.writeValue(buffer, message);
+        return buffer.toByteArray();
+    }
+
+    public byte[] encodeBinary(TransactionMessage message) throws IOException {
+        PooledBuffer buffer = buffer();
+        DataOutputStream out = new DataOutputStream(buffer);
+        int flags = (message.getCustomerId() != null ? HAS_CUSTOMER : 0)
+                | (message.getBalanceBefore() != null ? HAS_BALANCE_BEFORE : 0)
+                | (message.getBalanceAfter() != null ? HAS_BALANCE_AFTER : 0)
+                | (message.getStatus() != null ? HAS_STATUS : 0)
+                | (message.getReference() != null ? HAS_REFERENCE : 0)
+                | (message.getTimestamp() != null ? HAS_TIMESTAMP : 0);
+
+        out.writeByte(BINARY_VERSION);
+        out.writeByte(flags);
+        out.writeUTF(message.getTransactionId());
+        out.writeUTF(message.getType());
+        writeDecimal(out, message.getAmount());
+        if (message.getCustomerId() != null) {
+            out.writeUTF(message.getCustomerId());
+        }
+        if (message.getBalanceBefore() != null) {
+            writeDecimal(out, message.getBalanceBefore());
+        }
+        if (message.getBalanceAfter() != null) {
+            writeDecimal(out, message.getBalanceAfter());
+        }
+        if (message.getStatus() != null) {
+            out.writeUTF(message.getStatus());
+        }
+        if (message.getReference() != null) {
+            out.writeUTF(message.getReference());
+        }
+        if (message.getTimestamp() != null) {
+            out.writeLong(message.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(message.getTimestamp().getNano());
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    public TransactionMessage decode(Message message) throws IOException {
+        String contentType = message.getMessageProperties().getContentType();
+        if (BINARY_CONTENT_TYPE.equals(contentType)) {
+            return decodeBinary(message.getBody());
+        }
+        return decodeJson(message.getBody());
+    }
+
+    public TransactionMessage decodeJson(byte[] body) throws IOException {
+        // Messages published before the codec carry the JSON document as an encoded string; unwrap those once.
+        int first = 0;
+        while (first < body.length && Character.isWhitespace(body[first])) {
+            first++;
+        }
+        if (first < body.length && body[first] == '"') {
+            return objectMapper.readValue(objectMapper.readValue(body, String.class), TransactionMessage.class);
+        }
+        return objectMapper.readValue(body, TransactionMessage.class);
+    }
+
+    public TransactionMessage decodeBinary(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        int version = in.readUnsignedByte();
+        if (version != BINARY_VERSION) {
+            throw new IOException("Unsupported transaction message version: " + version);
+        }
+        int flags = in.readUnsignedByte();
+
+        TransactionMessage message = new TransactionMessage();
+        message.setTransactionId(in.readUTF());
+        message.setType(in.readUTF());
+        message.setAmount(readDecimal(in));
+        if ((flags & HAS_CUSTOMER) != 0) {
+            message.setCustomerId(in.readUTF());
+        }
+        if ((flags & HAS_BALANCE_BEFORE) != 0) {
+            message.setBalanceBefore(readDecimal(in));
+        }
+        if ((flags & HAS_BALANCE_AFTER) != 0) {
+            message.setBalanceAfter(readDecimal(in));
+        }
+        if ((flags & HAS_STATUS) != 0) {
+            message.setStatus(in.readUTF());
+        }
+        if ((flags & HAS_REFERENCE) != 0) {
+            message.setReference(in.readUTF());
+        }
+        if ((flags & HAS_TIMESTAMP) != 0) {
+            message.setTimestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+        }
+        return message;
+    }
+
+    private void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        if (value.scale() != (byte) value.scale() || unscaled.length > 255) {
+            throw new IOException("Amount out of range for binary encoding: " + value);
+        }
+        out.writeByte(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private PooledBuffer buffer() {
+        PooledBuffer buffer = BUFFERS.get();
+        // An occasional huge message should not pin its buffer to the thread for good.
+        if (buffer.capacity() > MAX_POOLED_BUFFER) {
+            buffer = new PooledBuffer();
+            BUFFERS.set(buffer);
+        }
+        buffer.reset();
+        return buffer;
+    }
+
+    private static class PooledBuffer extends ByteArrayOutputStream {
+        PooledBuffer() {
+            super(512);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
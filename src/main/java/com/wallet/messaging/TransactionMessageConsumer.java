@@ -1,61 +1,195 @@
 package com.wallet.messaging;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
 import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.MessagePropertiesBuilder;
+import org.springframework.amqp.core.QueueInformation;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Component
+@Profile("!embedded")
 public class TransactionMessageConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionMessageConsumer.class);
 
+    static final String ORIGINAL_ROUTING_KEY_HEADER = "x-original-routing-key";
+
+    @Autowired
+    private TransactionMessageCodec messageCodec;
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private TransactionEventHandler eventHandler;
+
     @Autowired
-    private ObjectMapper objectMapper;
+    private RetryTierRecoverer retryTierRecoverer;
+
+    @Value("${wallet.rabbitmq.exchanges.wallet-exchange}")
+    private String walletExchange;
+
+    @Value("${wallet.rabbitmq.queues.transaction-processing}")
+    private String transactionQueue;
+
+    @Value("${wallet.rabbitmq.partitions.enabled:false}")
+    private boolean partitioned;
+
+    @Value("${wallet.rabbitmq.partitions.count:8}")
+    private int partitionCount;
+
+    private final AtomicLong lag = new AtomicLong();
+    private Timer batchTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("wallet.messaging.transaction.lag", lag, AtomicLong::get)
+                .description("Messages waiting in the transaction queue and its partitions")
+                .register(meterRegistry);
+        batchTimer = meterRegistry.timer("wallet.messaging.transaction.batch");
+    }
+
+    @RabbitListener(queues = "${wallet.rabbitmq.queues.transaction-processing}",
+                    containerFactory = "transactionBatchListenerContainerFactory")
+    public void processTransactions(List<Message> messages, Channel channel) throws IOException {
+        long start = System.nanoTime();
+        int failed = 0;
+        int duplicates = 0;
+        int retried = 0;
+
+        // Events from a batched publish are unpacked into fragments that share the delivery tag of their AMQP message.
+        Map<Long, Integer> fragments = new HashMap<>();
+        for (Message message : messages) {
+            fragments.merge(message.getMessageProperties().getDeliveryTag(), 1, Integer::sum);
+        }
+
+        Set<Long> processedTags = new HashSet<>();
+        Set<Long> nackedTags = new HashSet<>();
+        for (Message message : messages) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            if (nackedTags.contains(deliveryTag)) {
+                continue;
+            }
+            try {
+                if (!eventHandler.handle(readMessage(message))) {
+                    duplicates++;
+                }
+                processedTags.add(deliveryTag);
+            } catch (Exception e) {
+                if (retryTierRecoverer.scheduleRetry(message, e)) {
+                    processedTags.add(deliveryTag);
+                    retried++;
+                    continue;
+                }
+                // One bad message goes to the DLQ on its own; the rest of the batch is still acked.
+                logger.error("Failed to process transaction message {}, dead-lettering it", deliveryTag, e);
+                logger.debug("Dead-lettered transaction payload: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+                if (fragments.get(deliveryTag) == 1 || !deadLetterFragment(message)) {
+                    channel.basicNack(deliveryTag, false, false);
+                    nackedTags.add(deliveryTag);
+                }
+                failed++;
+            }
+        }
+
+        long lastProcessedTag = -1;
+        for (long tag : processedTags) {
+            if (!nackedTags.contains(tag)) {
+                lastProcessedTag = Math.max(lastProcessedTag, tag);
+            }
+        }
+        if (lastProcessedTag >= 0) {
+            channel.basicAck(lastProcessedTag, true);
+        }
 
-    @RabbitListener(queues = "${wallet.rabbitmq.queues.transaction-processing}")
-    public void processTransaction(String messageJson) {
+        long elapsed = System.nanoTime() - start;
+        batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("wallet.messaging.transaction.messages", "outcome", "processed").increment(messages.size() - failed - duplicates - retried);
+        meterRegistry.counter("wallet.messaging.transaction.messages", "outcome", "retried").increment(retried);
+        meterRegistry.counter("wallet.messaging.transaction.messages", "outcome", "duplicate").increment(duplicates);
+        meterRegistry.counter("wallet.messaging.transaction.messages", "outcome", "dead-lettered").increment(failed);
+        logger.info("Processed batch of {} transaction messages ({} duplicates, {} retried, {} dead-lettered) in {} ms",
+                   messages.size(), duplicates, retried, failed, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.rabbitmq.listener.transaction.lag-poll-ms:10000}")
+    public void refreshLag() {
         try {
-            logger.info("Received transaction message: {}", messageJson);
-            
-            TransactionMessage message = objectMapper.readValue(messageJson, TransactionMessage.class);
-            
-            processTransactionMessage(message);
-            
-            logger.info("Successfully processed transaction: {}", message.getTransactionId());
-            
+            // Partitioned events go to the .p<n> queues; the base queue only drains what was published before.
+            long depth = depthOf(transactionQueue);
+            if (partitioned) {
+                for (int partition = 0; partition < partitionCount; partition++) {
+                    depth += depthOf(transactionQueue + ".p" + partition);
+                }
+            }
+            lag.set(depth);
         } catch (Exception e) {
-            logger.error("Failed to process transaction message: {}", messageJson, e);
-            throw new RuntimeException("Failed to process transaction message", e);
+            logger.debug("Could not read depth of queue {}: {}", transactionQueue, e.getMessage());
         }
     }
 
-    private void processTransactionMessage(TransactionMessage message) {
-        logger.debug("Processing transaction message for: {} of type: {} with amount: {}", 
-                    message.getTransactionId(), message.getType(), message.getAmount());
-        
-        switch (message.getType()) {
-            case "TOPUP":
-                processTopupMessage(message);
-                break;
-            case "CONSUME":
-                processConsumeMessage(message);
-                break;
-            default:
-                logger.warn("Unknown transaction type: {}", message.getType());
-        }
+    private long depthOf(String queue) {
+        QueueInformation info = amqpAdmin.getQueueInfo(queue);
+        return info != null ? info.getMessageCount() : 0;
     }
 
-    private void processTopupMessage(TransactionMessage message) {
-        logger.info("Processing topup message for customer: {} with amount: {}", 
-                   message.getCustomerId(), message.getAmount());
+    private boolean deadLetterFragment(Message fragment) {
+        // Nacking the delivery would dead-letter every event in the batch, so only the failed one is sent to the DLQ.
+        MessageProperties properties = MessagePropertiesBuilder.fromClonedProperties(fragment.getMessageProperties())
+                .setHeader(ORIGINAL_ROUTING_KEY_HEADER, fragment.getMessageProperties().getReceivedRoutingKey())
+                .build();
+        try {
+            properties.setMessageId(messageCodec.decode(fragment).getTransactionId());
+        } catch (Exception e) {
+            logger.debug("Dead-lettering an undecodable batch fragment without a message id");
+        }
+        try {
+            rabbitTemplate.send(walletExchange + ".dlx", "dead.transaction", new Message(fragment.getBody(), properties));
+            return true;
+        } catch (AmqpException e) {
+            logger.error("Failed to dead-letter batch fragment, dead-lettering the whole batch", e);
+            return false;
+        }
     }
 
-    private void processConsumeMessage(TransactionMessage message) {
-        logger.info("Processing consume message for customer: {} with amount: {}", 
-                   message.getCustomerId(), message.getAmount());
+    private TransactionMessage readMessage(Message message) throws IOException {
+        TransactionMessage transaction = messageCodec.decode(message);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received transaction message: {} ({})", transaction.getTransactionId(),
+                        message.getMessageProperties().getContentType());
+        }
+        return transaction;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.wallet.messaging;
+
+import com.wallet.service.LeaseService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+@Profile("!embedded")
+@ConditionalOnProperty(name = "wallet.rabbitmq.partitions.enabled", havingValue = "true")
+public class TransactionPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionManager.class);
+
+    private static final String NODE_LEASE_PREFIX = "transaction-consumer-node:";
+    private static final String PARTITION_LEASE_PREFIX = "transaction-partition:";
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private TransactionMessageConsumer transactionMessageConsumer;
+
+    @Autowired
+    @Qualifier("transactionBatchListenerContainerFactory")
+    private SimpleRabbitListenerContainerFactory containerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.rabbitmq.queues.transaction-processing}")
+    private String transactionQueue;
+
+    @Value("${wallet.rabbitmq.partitions.count:8}")
+    private int partitionCount;
+
+    @Value("${wallet.rabbitmq.partitions.lease-ttl-seconds:30}")
+    private long leaseTtlSeconds;
+
+    private final TreeMap<Integer, SimpleMessageListenerContainer> owned = new TreeMap<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("wallet.messaging.transaction.partitions.owned", owned, Map::size)
+                .description("Transaction partitions consumed by this node")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.rabbitmq.partitions.rebalance-interval-ms:10000}")
+    public synchronized void rebalance() {
+        // Every node heartbeats a lease of its own; the live ones split the partitions evenly between them.
+        leaseService.tryAcquire(NODE_LEASE_PREFIX + leaseService.getNodeId(), leaseTtl());
+        int liveNodes = Math.max(1, leaseService.countLive(NODE_LEASE_PREFIX));
+        int fairShare = (partitionCount + liveNodes - 1) / liveNodes;
+
+        owned.keySet().removeIf(partition -> {
+            if (leaseService.renew(partitionLease(partition), leaseTtl())) {
+                return false;
+            }
+            logger.warn("Lost lease on transaction partition {}, stopping its consumer", partition);
+            owned.get(partition).stop();
+            return true;
+        });
+
+        // Surplus partitions are stopped before their lease is released, so the next owner never overlaps with us.
+        while (owned.size() > fairShare) {
+            int partition = owned.lastKey();
+            owned.remove(partition).stop();
+            leaseService.release(partitionLease(partition));
+            logger.info("Released transaction partition {} ({} live nodes)", partition, liveNodes);
+        }
+
+        for (int partition = 0; partition < partitionCount && owned.size() < fairShare; partition++) {
+            if (!owned.containsKey(partition) && leaseService.tryAcquire(partitionLease(partition), leaseTtl())) {
+                owned.put(partition, start(partition));
+                logger.info("Acquired transaction partition {} ({} live nodes)", partition, liveNodes);
+            }
+        }
+    }
+
+    private SimpleMessageListenerContainer start(int partition) {
+        SimpleMessageListenerContainer container = containerFactory.createListenerContainer();
+        container.setQueueNames(transactionQueue + ".p" + partition);
+        // One consumer thread per partition is what keeps a wallet's events in order.
+        container.setConcurrentConsumers(1);
+        container.setMaxConcurrentConsumers(1);
+        container.setMessageListener((ChannelAwareBatchMessageListener) (messages, channel) -> {
+            try {
+                transactionMessageConsumer.processTransactions(messages, channel);
+            } catch (IOException e) {
+                throw new AmqpIOException(e);
+            }
+        });
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+
+    private String partitionLease(int partition) {
+        return PARTITION_LEASE_PREFIX + partition;
+    }
+
+    private Duration leaseTtl() {
+        return Duration.ofSeconds(leaseTtlSeconds);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        owned.forEach((partition, container) -> {
+            container.stop();
+            leaseService.release(partitionLease(partition));
+        });
+        owned.clear();
+        leaseService.release(NODE_LEASE_PREFIX + leaseService.getNodeId());
+    }
+}
@@ -0,0 +1,14 @@
+package com.wallet.messaging;
+
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailMessage;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationReportMessage;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+
+public interface WalletEventBus {
+
+    void publishTransaction(TransactionMessage message);
+
+    void publishReconciliationReport(ReconciliationReportMessage message);
+
+    void publishReconciliationDetails(ReconciliationDetailMessage message);
+}
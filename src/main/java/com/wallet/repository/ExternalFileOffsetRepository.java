@@ -0,0 +1,9 @@
+package com.wallet.repository;
+
+import com.wallet.entity.ExternalFileOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExternalFileOffsetRepository extends JpaRepository<ExternalFileOffset, String> {
+}
@@ -0,0 +1,36 @@
+package com.wallet.repository;
+
+import com.wallet.entity.ExternalTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ExternalTransactionRepository extends JpaRepository<ExternalTransaction, Long> {
+
+    List<ExternalTransaction> findByTransactionDate(LocalDate transactionDate);
+
+    long countByTransactionDate(LocalDate transactionDate);
+
+    @Query("SELECT e FROM ExternalTransaction e WHERE e.transactionDate = :date AND e.transactionId IN :transactionIds " +
+           "ORDER BY e.id")
+    List<ExternalTransaction> findByTransactionIds(@Param("date") LocalDate date,
+                                                   @Param("transactionIds") Collection<String> transactionIds);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT e FROM ExternalTransaction e WHERE e.transactionDate >= :startDate AND e.transactionDate <= :endDate " +
+           "AND e.transactionTimestamp >= :start AND e.transactionTimestamp < :end ORDER BY e.transactionTimestamp")
+    Stream<ExternalTransaction> streamInWindow(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
+}
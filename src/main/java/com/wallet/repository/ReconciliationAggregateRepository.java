@@ -0,0 +1,37 @@
+package com.wallet.repository;
+
+import com.wallet.entity.ReconciliationAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReconciliationAggregateRepository extends JpaRepository<ReconciliationAggregate, Long> {
+
+    List<ReconciliationAggregate> findByReconciliationDateAndBucketStartAndBucketEnd(LocalDate reconciliationDate,
+                                                                                     int bucketStart,
+                                                                                     int bucketEnd);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReconciliationAggregate a WHERE a.reconciliationDate = :date")
+    int deleteByReconciliationDate(@Param("date") LocalDate date);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReconciliationAggregate a WHERE a.reconciliationDate = :date " +
+           "AND a.bucketStart = :bucketStart AND a.bucketEnd = :bucketEnd")
+    int deleteByScope(@Param("date") LocalDate date,
+                      @Param("bucketStart") int bucketStart,
+                      @Param("bucketEnd") int bucketEnd);
+
+    @Query("SELECT a.status, SUM(a.recordCount), SUM(a.internalAmount), SUM(a.externalAmount) FROM ReconciliationAggregate a " +
+           "WHERE a.reconciliationDate = :date GROUP BY a.status")
+    List<Object[]> summarizeByStatus(@Param("date") LocalDate date);
+}
@@ -0,0 +1,33 @@
+package com.wallet.repository;
+
+import com.wallet.entity.ReconciliationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, Long> {
+
+    Optional<ReconciliationCheckpoint> findByReconciliationDateAndBucketStartAndBucketEnd(LocalDate reconciliationDate,
+                                                                                         int bucketStart,
+                                                                                         int bucketEnd);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReconciliationCheckpoint c WHERE c.reconciliationDate = :date")
+    int deleteByReconciliationDate(@Param("date") LocalDate date);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReconciliationCheckpoint c WHERE c.reconciliationDate = :date " +
+           "AND (c.bucketStart <> :bucketStart OR c.bucketEnd <> :bucketEnd)")
+    int deleteOtherScopes(@Param("date") LocalDate date,
+                          @Param("bucketStart") int bucketStart,
+                          @Param("bucketEnd") int bucketEnd);
+}
@@ -0,0 +1,15 @@
+package com.wallet.repository;
+
+import com.wallet.entity.DigestSide;
+import com.wallet.entity.ReconciliationDigest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReconciliationDigestRepository extends JpaRepository<ReconciliationDigest, Long> {
+
+    List<ReconciliationDigest> findBySideAndDigestDate(DigestSide side, LocalDate digestDate);
+}
@@ -0,0 +1,30 @@
+package com.wallet.repository;
+
+import com.wallet.entity.ReconciliationNote;
+import com.wallet.entity.ReconciliationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface ReconciliationRecordView {
+
+    Long getId();
+
+    LocalDate getReconciliationDate();
+
+    String getInternalTransactionId();
+
+    String getExternalTransactionId();
+
+    BigDecimal getInternalAmount();
+
+    BigDecimal getExternalAmount();
+
+    ReconciliationStatus getStatus();
+
+    ReconciliationNote getNoteCode();
+
+    String getNotes();
+
+    Double getConfidence();
+}
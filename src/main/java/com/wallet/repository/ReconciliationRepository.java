@@ -2,12 +2,17 @@ package com.wallet.repository;
 
 import com.wallet.entity.ReconciliationRecord;
 import com.wallet.entity.ReconciliationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,10 +22,76 @@ public interface ReconciliationRepository extends JpaRepository<ReconciliationRe
 
     List<ReconciliationRecord> findByReconciliationDateAndStatus(LocalDate date, ReconciliationStatus status);
 
+    List<ReconciliationRecord> findByReconciliationDateAndStatusIn(LocalDate date, Collection<ReconciliationStatus> statuses);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReconciliationRecord r WHERE r.reconciliationDate = :date")
+    int deleteByReconciliationDate(@Param("date") LocalDate date);
+
     @Query("SELECT r FROM ReconciliationRecord r WHERE r.reconciliationDate >= :startDate AND r.reconciliationDate <= :endDate")
     List<ReconciliationRecord> findByDateRange(@Param("startDate") LocalDate startDate,
                                               @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT r.status, COUNT(r), SUM(r.internalAmount), SUM(r.externalAmount) FROM ReconciliationRecord r " +
+           "WHERE r.reconciliationDate = :date GROUP BY r.status")
+    List<Object[]> summarizeByStatus(@Param("date") LocalDate date);
+
+    @Query("SELECT r.id AS id, r.reconciliationDate AS reconciliationDate, " +
+           "r.internalTransactionId AS internalTransactionId, r.externalTransactionId AS externalTransactionId, " +
+           "r.internalAmount AS internalAmount, r.externalAmount AS externalAmount, r.status AS status, " +
+           "r.noteCode AS noteCode, r.notes AS notes, r.confidence AS confidence FROM ReconciliationRecord r " +
+           "WHERE r.reconciliationDate >= :from AND r.reconciliationDate <= :to AND r.status IN :statuses " +
+           "AND (:minAmount IS NULL OR COALESCE(r.internalAmount, r.externalAmount) >= :minAmount) " +
+           "AND (:maxAmount IS NULL OR COALESCE(r.internalAmount, r.externalAmount) <= :maxAmount) " +
+           "AND (r.reconciliationDate > :afterDate OR (r.reconciliationDate = :afterDate " +
+           "AND (r.status > :afterStatus OR (r.status = :afterStatus AND r.id > :afterId)))) " +
+           "ORDER BY r.reconciliationDate, r.status, r.id")
+    List<ReconciliationRecordView> findPage(@Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("statuses") Collection<ReconciliationStatus> statuses,
+                                            @Param("minAmount") BigDecimal minAmount,
+                                            @Param("maxAmount") BigDecimal maxAmount,
+                                            @Param("afterDate") LocalDate afterDate,
+                                            @Param("afterStatus") ReconciliationStatus afterStatus,
+                                            @Param("afterId") long afterId,
+                                            Pageable pageable);
+
+    @Query("SELECT r FROM ReconciliationRecord r WHERE r.reconciliationDate = :date " +
+           "AND r.status = com.wallet.entity.ReconciliationStatus.MISSING_EXTERNAL AND r.id > :afterId " +
+           "AND EXISTS (SELECT t.id FROM Transaction t JOIN t.wallet w WHERE t.transactionId = r.internalTransactionId " +
+           "AND w.shardBucket >= :bucketStart AND w.shardBucket < :bucketEnd) ORDER BY r.id")
+    List<ReconciliationRecord> findMissingExternalPage(@Param("date") LocalDate date,
+                                                       @Param("bucketStart") int bucketStart,
+                                                       @Param("bucketEnd") int bucketEnd,
+                                                       @Param("afterId") long afterId,
+                                                       Pageable pageable);
+
+    @Query("SELECT r FROM ReconciliationRecord r WHERE r.reconciliationDate = :date " +
+           "AND r.status = com.wallet.entity.ReconciliationStatus.MISSING_INTERNAL AND r.id > :afterId " +
+           "AND EXISTS (SELECT e.id FROM ExternalTransaction e WHERE e.transactionDate = r.reconciliationDate " +
+           "AND e.transactionId = r.externalTransactionId " +
+           "AND e.shardBucket >= :bucketStart AND e.shardBucket < :bucketEnd " +
+           "AND NOT EXISTS (SELECT f.id FROM ExternalTransaction f WHERE f.transactionDate = e.transactionDate " +
+           "AND f.transactionId = e.transactionId AND f.id < e.id)) ORDER BY r.id")
+    List<ReconciliationRecord> findMissingInternalPage(@Param("date") LocalDate date,
+                                                       @Param("bucketStart") int bucketStart,
+                                                       @Param("bucketEnd") int bucketEnd,
+                                                       @Param("afterId") long afterId,
+                                                       Pageable pageable);
+
+    @Query("SELECT r FROM ReconciliationRecord r WHERE r.reconciliationDate = :date " +
+           "AND r.status = com.wallet.entity.ReconciliationStatus.MISSING_INTERNAL " +
+           "AND EXISTS (SELECT e.id FROM ExternalTransaction e WHERE e.transactionDate = r.reconciliationDate " +
+           "AND e.transactionId = r.externalTransactionId AND e.customerId IN :customerIds " +
+           "AND e.shardBucket >= :bucketStart AND e.shardBucket < :bucketEnd " +
+           "AND NOT EXISTS (SELECT f.id FROM ExternalTransaction f WHERE f.transactionDate = e.transactionDate " +
+           "AND f.transactionId = e.transactionId AND f.id < e.id))")
+    List<ReconciliationRecord> findMissingInternalForCustomers(@Param("date") LocalDate date,
+                                                               @Param("bucketStart") int bucketStart,
+                                                               @Param("bucketEnd") int bucketEnd,
+                                                               @Param("customerIds") Collection<String> customerIds);
+
     boolean existsByInternalTransactionId(String transactionId);
 
     boolean existsByExternalTransactionId(String transactionId);
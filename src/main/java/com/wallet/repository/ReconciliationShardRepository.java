@@ -0,0 +1,109 @@
+package com.wallet.repository;
+
+import com.wallet.entity.ReconciliationShard;
+import com.wallet.entity.ShardStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReconciliationShardRepository extends JpaRepository<ReconciliationShard, Long> {
+
+    boolean existsByReconciliationDate(LocalDate reconciliationDate);
+
+    List<ReconciliationShard> findByReconciliationDateOrderByShardIndex(LocalDate reconciliationDate);
+
+    @Query("SELECT s FROM ReconciliationShard s WHERE (s.status = :pending AND (s.retryAfter IS NULL OR s.retryAfter <= :now)) " +
+           "OR (s.status = :running AND s.leaseExpiresAt < :now) ORDER BY s.reconciliationDate, s.shardIndex")
+    List<ReconciliationShard> findClaimable(@Param("pending") ShardStatus pending,
+                                            @Param("running") ShardStatus running,
+                                            @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationShard s SET s.owner = :owner, s.status = :running, s.leaseExpiresAt = :expiresAt, " +
+           "s.attempts = s.attempts + 1 WHERE s.id = :id " +
+           "AND ((s.status = :pending AND (s.retryAfter IS NULL OR s.retryAfter <= :now)) " +
+           "OR (s.status = :running AND s.leaseExpiresAt < :now))")
+    int claim(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("now") LocalDateTime now,
+              @Param("pending") ShardStatus pending,
+              @Param("running") ShardStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationShard s SET s.leaseExpiresAt = :expiresAt " +
+           "WHERE s.id = :id AND s.owner = :owner AND s.status = :running")
+    int renew(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("running") ShardStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationShard s SET s.status = :status, s.recordCount = :recordCount, s.completedAt = :completedAt " +
+           "WHERE s.id = :id AND s.owner = :owner AND s.status = :running")
+    int complete(@Param("id") Long id,
+                 @Param("owner") String owner,
+                 @Param("recordCount") Integer recordCount,
+                 @Param("completedAt") LocalDateTime completedAt,
+                 @Param("status") ShardStatus status,
+                 @Param("running") ShardStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationShard s SET s.status = :status, s.owner = null, s.leaseExpiresAt = null " +
+           "WHERE s.id = :id AND s.owner = :owner AND s.status = :running")
+    int release(@Param("id") Long id,
+                @Param("owner") String owner,
+                @Param("status") ShardStatus status,
+                @Param("running") ShardStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationShard s SET s.status = :pending, s.owner = null, s.leaseExpiresAt = null, " +
+           "s.retryAfter = :retryAfter, s.lastError = :lastError " +
+           "WHERE s.id = :id AND s.owner = :owner AND s.status = :running")
+    int releaseForRetry(@Param("id") Long id,
+                        @Param("owner") String owner,
+                        @Param("retryAfter") LocalDateTime retryAfter,
+                        @Param("lastError") String lastError,
+                        @Param("pending") ShardStatus pending,
+                        @Param("running") ShardStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationShard s SET s.status = :pending, s.attempts = 0, s.retryAfter = null " +
+           "WHERE s.reconciliationDate = :date AND s.status = :failed")
+    int resetFailed(@Param("date") LocalDate date,
+                    @Param("failed") ShardStatus failed,
+                    @Param("pending") ShardStatus pending);
+
+    // A date whose failed shards were retried after a forced finalize has FINALIZED shards next to the newly COMPLETED ones.
+    @Query("SELECT s.reconciliationDate FROM ReconciliationShard s GROUP BY s.reconciliationDate " +
+           "HAVING SUM(CASE WHEN s.status = :completed OR s.status = :finalized THEN 1 ELSE 0 END) = COUNT(s) " +
+           "AND SUM(CASE WHEN s.status = :completed THEN 1 ELSE 0 END) > 0")
+    List<LocalDate> findDatesReadyToFinalize(@Param("completed") ShardStatus completed,
+                                             @Param("finalized") ShardStatus finalized);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReconciliationShard s WHERE s.reconciliationDate = :date")
+    int deleteByReconciliationDate(@Param("date") LocalDate date);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationShard s SET s.status = :finalized WHERE s.reconciliationDate = :date AND s.status = :completed")
+    int markFinalized(@Param("date") LocalDate date,
+                      @Param("completed") ShardStatus completed,
+                      @Param("finalized") ShardStatus finalized);
+}
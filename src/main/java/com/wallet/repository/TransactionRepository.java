@@ -6,12 +6,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -28,6 +34,64 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByDateRange(@Param("startDate") LocalDateTime startDate, 
                                      @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.wallet WHERE t.createdAt >= :start AND t.createdAt < :end")
+    List<Transaction> findInWindow(@Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end);
+
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.createdAt >= :start AND t.createdAt < :end")
+    long countInWindow(@Param("start") LocalDateTime start,
+                       @Param("end") LocalDateTime end);
+
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.wallet w WHERE t.transactionId IN :transactionIds " +
+           "AND t.createdAt >= :start AND t.createdAt < :end " +
+           "AND w.shardBucket >= :bucketStart AND w.shardBucket < :bucketEnd")
+    List<Transaction> findByTransactionIdsForBuckets(@Param("transactionIds") Collection<String> transactionIds,
+                                                     @Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end,
+                                                     @Param("bucketStart") int bucketStart,
+                                                     @Param("bucketEnd") int bucketEnd);
+
+    @Query("SELECT COUNT(t), SUM(t.amount) FROM Transaction t JOIN t.wallet w " +
+           "WHERE t.createdAt >= :start AND t.createdAt < :end " +
+           "AND w.shardBucket >= :bucketStart AND w.shardBucket < :bucketEnd AND t.digestBucket NOT IN :digestBuckets")
+    List<Object[]> summarizeOutsideDigestBuckets(@Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end,
+                                                 @Param("bucketStart") int bucketStart,
+                                                 @Param("bucketEnd") int bucketEnd,
+                                                 @Param("digestBuckets") Collection<Integer> digestBuckets);
+
+    @Query("SELECT t.transactionId, t.amount, e.amount FROM Transaction t, ExternalTransaction e " +
+           "WHERE t.createdAt >= :start AND t.createdAt < :end AND t.transactionId > :afterId " +
+           "AND (:minAmount IS NULL OR t.amount >= :minAmount) AND (:maxAmount IS NULL OR t.amount <= :maxAmount) " +
+           "AND e.transactionDate = :date AND e.transactionId = t.transactionId AND e.amount = t.amount " +
+           "AND e.id = (SELECT MIN(f.id) FROM ExternalTransaction f WHERE f.transactionDate = :date " +
+           "AND f.transactionId = t.transactionId) ORDER BY t.transactionId")
+    List<Object[]> findMatchedPairs(@Param("date") LocalDate date,
+                                    @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end,
+                                    @Param("afterId") String afterId,
+                                    @Param("minAmount") BigDecimal minAmount,
+                                    @Param("maxAmount") BigDecimal maxAmount,
+                                    Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.wallet WHERE t.createdAt >= :start AND t.createdAt < :end " +
+           "AND t.transactionId > :afterId ORDER BY t.transactionId")
+    List<Transaction> findPageInWindow(@Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end,
+                                       @Param("afterId") String afterId,
+                                       Pageable pageable);
+
+    @Query("SELECT t.transactionId FROM Transaction t WHERE t.transactionId IN :transactionIds " +
+           "AND t.createdAt >= :start AND t.createdAt < :end")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds,
+                                            @Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.wallet WHERE t.createdAt >= :start AND t.createdAt < :end ORDER BY t.createdAt")
+    Stream<Transaction> streamInWindow(@Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
+
     @Query("SELECT t FROM Transaction t WHERE t.type = :type AND t.createdAt >= :startDate AND t.createdAt <= :endDate")
     List<Transaction> findByTypeAndDateRange(@Param("type") TransactionType type,
                                            @Param("startDate") LocalDateTime startDate,
@@ -0,0 +1,16 @@
+package com.wallet.repository;
+
+import com.wallet.entity.RollupGranularity;
+import com.wallet.entity.TransactionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, Long> {
+
+    List<TransactionRollup> findByScopeAndGranularityAndBucketStartGreaterThanEqualOrderByBucketStart(
+            String scope, RollupGranularity granularity, LocalDateTime from);
+}
@@ -0,0 +1,505 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.ReconciliationAggregate;
+import com.wallet.entity.ReconciliationCheckpoint;
+import com.wallet.entity.ReconciliationPhase;
+import com.wallet.entity.ReconciliationRecord;
+import com.wallet.entity.ReconciliationStatus;
+import com.wallet.entity.Transaction;
+import com.wallet.entity.Wallet;
+import com.wallet.repository.ReconciliationAggregateRepository;
+import com.wallet.repository.ReconciliationCheckpointRepository;
+import com.wallet.repository.ReconciliationRepository;
+import com.wallet.repository.ReconciliationShardRepository;
+import com.wallet.repository.TransactionRepository;
+import com.wallet.service.FuzzyMatcher.FuzzyMatch;
+import com.wallet.service.ReconciliationDigestService.DigestComparison;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+@Component
+public class ChunkedReconciliationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedReconciliationRunner.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ReconciliationRepository reconciliationRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ReconciliationAggregateRepository aggregateRepository;
+
+    @Autowired
+    private ReconciliationShardRepository shardRepository;
+
+    @Autowired
+    private ExternalDataService externalDataService;
+
+    @Autowired
+    private ColumnarBatchLoader columnarBatchLoader;
+
+    @Autowired
+    private ReconciliationMatcher reconciliationMatcher;
+
+    @Autowired
+    private FuzzyMatcher fuzzyMatcher;
+
+    @Autowired
+    private ReconciliationDigestService digestService;
+
+    @Autowired
+    private ReconciliationMessagingService messagingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${wallet.reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${wallet.reconciliation.digest.enabled:true}")
+    private boolean digestEnabled;
+
+    @Value("${wallet.reconciliation.storage.compact:true}")
+    private boolean compactStorage;
+
+    public ReconciliationCheckpoint run(LocalDate date, int bucketStart, int bucketEnd,
+                                        boolean restartCompleted, BooleanSupplier chunkGuard) {
+        return run(date, bucketStart, bucketEnd, restartCompleted, chunkGuard, ReconciliationProgressListener.NONE);
+    }
+
+    public ReconciliationCheckpoint run(LocalDate date, int bucketStart, int bucketEnd, boolean restartCompleted,
+                                        BooleanSupplier chunkGuard, ReconciliationProgressListener listener) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        boolean[] resumed = {false};
+        ReconciliationCheckpoint checkpoint = transactionTemplate.execute(
+                status -> begin(date, bucketStart, bucketEnd, restartCompleted, resumed));
+        if (checkpoint.getPhase() == ReconciliationPhase.COMPLETED) {
+            return checkpoint;
+        }
+
+        // Detail records go out as each chunk commits, so consumers see them while matching is still running.
+        ReconciliationDetailStream details = messagingService.openDetailStream(date, bucketStart, bucketEnd, resumed[0]);
+        while (checkpoint.getPhase() != ReconciliationPhase.COMPLETED) {
+            ReconciliationCheckpoint current = checkpoint;
+            List<ReconciliationRecord> produced = new ArrayList<>();
+            checkpoint = transactionTemplate.execute(status -> {
+                produced.clear();
+                step(current, produced);
+                if (!chunkGuard.getAsBoolean()) {
+                    throw new IllegalStateException(String.format(
+                            "Reconciliation of buckets [%d, %d) for %s lost ownership", bucketStart, bucketEnd, date));
+                }
+                // The version check rejects a chunk if another run advanced the same checkpoint meanwhile.
+                return checkpointRepository.save(current);
+            });
+            details.add(produced);
+            listener.onProgress(checkpoint.getProcessedRecords());
+        }
+        details.finish();
+
+        logger.info("Reconciliation of buckets [{}, {}) for date: {} completed with {} records",
+                   bucketStart, bucketEnd, date, checkpoint.getTotalRecords());
+        return checkpoint;
+    }
+
+    private ReconciliationCheckpoint begin(LocalDate date, int bucketStart, int bucketEnd, boolean restartCompleted,
+                                           boolean[] resumed) {
+        ReconciliationCheckpoint checkpoint = checkpointRepository
+                .findByReconciliationDateAndBucketStartAndBucketEnd(date, bucketStart, bucketEnd)
+                .orElse(null);
+
+        if (checkpoint != null && checkpoint.getPhase() != ReconciliationPhase.COMPLETED) {
+            logger.info("Resuming reconciliation of buckets [{}, {}) for date: {} at phase {} after key {}",
+                       bucketStart, bucketEnd, date, checkpoint.getPhase(), checkpoint.getLastKey());
+            resumed[0] = true;
+            return checkpoint;
+        }
+        if (checkpoint != null && !restartCompleted) {
+            return checkpoint;
+        }
+
+        boolean fullDay = bucketStart == 0 && bucketEnd == Wallet.SHARD_BUCKETS;
+        if (fullDay) {
+            clearDay(date);
+        } else {
+            aggregateRepository.deleteByScope(date, bucketStart, bucketEnd);
+        }
+
+        if (checkpoint == null) {
+            checkpoint = new ReconciliationCheckpoint(date, bucketStart, bucketEnd);
+        } else {
+            checkpoint.restart();
+        }
+        if (digestEnabled) {
+            // Shard runs share digests refreshed once when the date's shards were planned.
+            if (fullDay) {
+                digestService.refreshInternal(date);
+            }
+            applyDigests(checkpoint, fullDay);
+        }
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private void applyDigests(ReconciliationCheckpoint checkpoint, boolean fullDay) {
+        LocalDate date = checkpoint.getReconciliationDate();
+        DigestComparison comparison = digestService.compare(date);
+        checkpoint.setDirtyBuckets(comparison.getDirtyBuckets().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+
+        // Buckets whose digests agree hold the same transactions with the same amounts on both sides,
+        // so they are counted as matched without loading a single record.
+        long cleanRecords = comparison.getCleanRecords();
+        BigDecimal cleanAmount = comparison.getCleanAmount();
+        if (!fullDay) {
+            // Digest buckets split the day by transaction id and shards split it by customer,
+            // so a shard counts only its own customers' share of the clean buckets.
+            Object[] clean = transactionRepository.summarizeOutsideDigestBuckets(
+                    date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                    checkpoint.getBucketStart(), checkpoint.getBucketEnd(), digestFilter(checkpoint)).get(0);
+            cleanRecords = ((Number) clean[0]).longValue();
+            cleanAmount = clean[1] != null ? (BigDecimal) clean[1] : BigDecimal.ZERO;
+        }
+
+        checkpoint.record(ReconciliationStatus.MATCHED, (int) cleanRecords);
+        checkpoint.setTotalInternalAmount(cleanAmount);
+        checkpoint.setTotalExternalAmount(cleanAmount);
+        checkpoint.setProcessedRecords(cleanRecords * 2);
+        if (cleanRecords > 0) {
+            Map<ReconciliationStatus, ReconciliationAggregate> aggregates = aggregates(checkpoint);
+            aggregateOf(aggregates, checkpoint, ReconciliationStatus.MATCHED).add(cleanRecords, cleanAmount, cleanAmount);
+            aggregateRepository.saveAll(aggregates.values());
+        }
+
+        if (comparison.getDirtyBuckets().isEmpty()) {
+            complete(checkpoint);
+        }
+        logger.info("Digest check of buckets [{}, {}) for date: {} found {} matching records and {} digest buckets to reconcile",
+                   checkpoint.getBucketStart(), checkpoint.getBucketEnd(), date, cleanRecords,
+                   comparison.getDirtyBuckets().size());
+    }
+
+    private void step(ReconciliationCheckpoint checkpoint, List<ReconciliationRecord> produced) {
+        switch (checkpoint.getPhase()) {
+            case INTERNAL:
+                reconcileInternalChunk(checkpoint, produced);
+                break;
+            case EXTERNAL:
+                reconcileExternalChunk(checkpoint);
+                break;
+            case FUZZY:
+                reconcileLeftovers(checkpoint, produced);
+                break;
+            case LEFTOVERS:
+                streamLeftovers(checkpoint, produced);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void reconcileInternalChunk(ReconciliationCheckpoint checkpoint, List<ReconciliationRecord> produced) {
+        LocalDate date = checkpoint.getReconciliationDate();
+        IdDictionary ids = new IdDictionary(batchSize);
+        IdDictionary customers = new IdDictionary(batchSize);
+        ColumnarBatch chunk = columnarBatchLoader.loadInternalChunk(
+                date, checkpoint.getBucketStart(), checkpoint.getBucketEnd(),
+                digestFilter(checkpoint), afterKey(checkpoint), batchSize, ids, customers);
+
+        if (chunk.size() == 0) {
+            advance(checkpoint, ReconciliationPhase.EXTERNAL);
+            return;
+        }
+
+        List<String> transactionIds = new ArrayList<>(chunk.size());
+        for (int row = 0; row < chunk.size(); row++) {
+            transactionIds.add(chunk.transactionId(row));
+        }
+        // Both sides intern into the same dictionaries, so matching compares int codes instead of strings.
+        ColumnarBatch externals = columnarBatchLoader.loadExternalByIds(date, transactionIds, ids, customers);
+
+        // Unmatched internals are stored as missing now and revisited by the fuzzy pass once every chunk is done.
+        List<ReconciliationRecord> records = reconciliationMatcher.matchExact(date, chunk, externals);
+        save(checkpoint, records);
+        // Missing records may still pair up in the fuzzy pass, so they are streamed only once that settles them.
+        for (ReconciliationRecord record : records) {
+            if (!isMissing(record)) {
+                produced.add(record);
+            }
+        }
+
+        checkpoint.setTotalInternalAmount(checkpoint.getTotalInternalAmount().add(chunk.totalAmount()));
+        checkpoint.setProcessedRecords(checkpoint.getProcessedRecords() + chunk.size());
+        checkpoint.setLastKey(chunk.transactionId(chunk.size() - 1));
+    }
+
+    private void reconcileExternalChunk(ReconciliationCheckpoint checkpoint) {
+        LocalDate date = checkpoint.getReconciliationDate();
+        ColumnarBatch chunk = columnarBatchLoader.loadExternalChunk(
+                date, checkpoint.getBucketStart(), checkpoint.getBucketEnd(),
+                digestFilter(checkpoint), afterKey(checkpoint), batchSize,
+                new IdDictionary(batchSize), new IdDictionary(batchSize));
+
+        if (chunk.size() == 0) {
+            advance(checkpoint, ReconciliationPhase.FUZZY);
+            return;
+        }
+
+        // The same transaction reported by several sources is reconciled once; the keyset skips the rest.
+        int[] distinct = chunk.distinctRows();
+        List<String> transactionIds = new ArrayList<>(distinct.length);
+        for (int row : distinct) {
+            transactionIds.add(chunk.transactionId(row));
+        }
+
+        // An external row with an internal counterpart was settled by the shard owning that internal, wherever it is.
+        Set<String> known = new HashSet<>(transactionRepository.findExistingTransactionIds(
+                transactionIds, date.atStartOfDay(), date.plusDays(1).atStartOfDay()));
+
+        List<ReconciliationRecord> missing = new ArrayList<>();
+        for (int row : distinct) {
+            if (!known.contains(chunk.transactionId(row))) {
+                missing.add(reconciliationMatcher.missingInternalRecord(date, chunk.transactionId(row), chunk.amount(row)));
+            }
+        }
+        save(checkpoint, missing);
+
+        checkpoint.setTotalExternalAmount(checkpoint.getTotalExternalAmount().add(chunk.totalAmount(distinct)));
+        checkpoint.setProcessedRecords(checkpoint.getProcessedRecords() + distinct.length);
+        checkpoint.setLastKey(chunk.transactionId(chunk.size() - 1));
+    }
+
+    private void reconcileLeftovers(ReconciliationCheckpoint checkpoint, List<ReconciliationRecord> produced) {
+        boolean pairable = checkpoint.getMissingInternalRecords() > 0 && checkpoint.getMissingExternalRecords() > 0;
+        boolean streamed = messagingService.isDetailStreamEnabled()
+                && checkpoint.getMissingInternalRecords() + checkpoint.getMissingExternalRecords() > 0;
+        if (!pairable && !streamed) {
+            complete(checkpoint);
+            return;
+        }
+
+        // Pages through this run's own missing internals by record id; each page only loads the leftovers of its
+        // customers from the other side, so the pass stays bounded by batch size however many leftovers there are.
+        LocalDate date = checkpoint.getReconciliationDate();
+        List<ReconciliationRecord> page = reconciliationRepository.findMissingExternalPage(
+                date, checkpoint.getBucketStart(), checkpoint.getBucketEnd(), afterId(checkpoint),
+                PageRequest.of(0, batchSize));
+        if (page.isEmpty()) {
+            logger.info("Fuzzy pass for buckets [{}, {}) on date: {} paired {} leftover records",
+                       checkpoint.getBucketStart(), checkpoint.getBucketEnd(), date, checkpoint.getFuzzyMatchedRecords());
+            if (streamed) {
+                advance(checkpoint, ReconciliationPhase.LEFTOVERS);
+            } else {
+                complete(checkpoint);
+            }
+            return;
+        }
+
+        Map<String, ReconciliationRecord> missingExternal = new LinkedHashMap<>();
+        for (ReconciliationRecord record : page) {
+            missingExternal.put(record.getInternalTransactionId(), record);
+        }
+        List<ReconciliationRecord> replaced = new ArrayList<>();
+        List<ReconciliationRecord> records = new ArrayList<>();
+
+        if (pairable) {
+            List<Transaction> internals = transactionRepository.findByTransactionIdsForBuckets(
+                    missingExternal.keySet(), date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                    checkpoint.getBucketStart(), checkpoint.getBucketEnd());
+            Set<String> customerIds = internals.stream()
+                    .map(internal -> internal.getWallet().getCustomerId())
+                    .collect(Collectors.toSet());
+
+            Map<String, ReconciliationRecord> missingInternal = new HashMap<>();
+            for (ReconciliationRecord record : reconciliationRepository.findMissingInternalForCustomers(
+                    date, checkpoint.getBucketStart(), checkpoint.getBucketEnd(), customerIds)) {
+                missingInternal.put(record.getExternalTransactionId(), record);
+            }
+            Map<String, ExternalTransactionRecord> externals = new LinkedHashMap<>();
+            for (List<String> ids : partition(new ArrayList<>(missingInternal.keySet()))) {
+                for (ExternalTransactionRecord external : externalDataService.getExternalTransactions(date, ids)) {
+                    externals.putIfAbsent(external.getTransactionId(), external);
+                }
+            }
+
+            for (FuzzyMatch match : fuzzyMatcher.match(internals, new ArrayList<>(externals.values()))) {
+                replaced.add(missingExternal.remove(match.getInternal().getTransactionId()));
+                replaced.add(missingInternal.remove(match.getExternal().getTransactionId()));
+                records.add(reconciliationMatcher.fuzzyMatchedRecord(date, match));
+            }
+            remove(checkpoint, replaced);
+            save(checkpoint, records);
+        }
+
+        // Every internal leftover is visited once, so whatever this page did not pair stays missing.
+        produced.addAll(records);
+        produced.addAll(missingExternal.values());
+        checkpoint.setLastKey(String.valueOf(page.get(page.size() - 1).getId()));
+    }
+
+    private void streamLeftovers(ReconciliationCheckpoint checkpoint, List<ReconciliationRecord> produced) {
+        // Missing externals are final once the fuzzy pass is through; they are only read back for the detail stream.
+        List<ReconciliationRecord> page = reconciliationRepository.findMissingInternalPage(
+                checkpoint.getReconciliationDate(), checkpoint.getBucketStart(), checkpoint.getBucketEnd(),
+                afterId(checkpoint), PageRequest.of(0, batchSize));
+        if (page.isEmpty()) {
+            complete(checkpoint);
+            return;
+        }
+        produced.addAll(page);
+        checkpoint.setLastKey(String.valueOf(page.get(page.size() - 1).getId()));
+    }
+
+    public void replaceDay(LocalDate date, List<ReconciliationRecord> records) {
+        clearDay(date);
+        store(date, 0, Wallet.SHARD_BUCKETS, records);
+    }
+
+    public void clearForShardPlan(LocalDate date) {
+        // Shard scopes add up to the whole day, so a full-day run's results must not stay next to them.
+        reconciliationRepository.deleteByReconciliationDate(date);
+        aggregateRepository.deleteByReconciliationDate(date);
+        checkpointRepository.deleteByReconciliationDate(date);
+    }
+
+    private void clearDay(LocalDate date) {
+        // A full-day run replaces whatever an earlier run stored for the date, and supersedes its shard plan
+        // so that a shard still pending or retried later cannot add its scope on top of this one.
+        reconciliationRepository.deleteByReconciliationDate(date);
+        aggregateRepository.deleteByReconciliationDate(date);
+        checkpointRepository.deleteOtherScopes(date, 0, Wallet.SHARD_BUCKETS);
+        shardRepository.deleteByReconciliationDate(date);
+    }
+
+    private void save(ReconciliationCheckpoint checkpoint, List<ReconciliationRecord> records) {
+        for (ReconciliationRecord record : records) {
+            checkpoint.record(record.getStatus(), 1);
+        }
+        store(checkpoint.getReconciliationDate(), checkpoint.getBucketStart(), checkpoint.getBucketEnd(), records);
+    }
+
+    private void store(LocalDate date, int bucketStart, int bucketEnd, List<ReconciliationRecord> records) {
+        Map<ReconciliationStatus, ReconciliationAggregate> aggregates = aggregates(date, bucketStart, bucketEnd);
+        List<ReconciliationRecord> stored = new ArrayList<>();
+        for (ReconciliationRecord record : records) {
+            aggregateOf(aggregates, date, bucketStart, bucketEnd, record.getStatus())
+                    .add(1, record.getInternalAmount(), record.getExternalAmount());
+            // Compact storage keeps only exceptions; matched pairs are counted here and rebuilt from source data on demand.
+            if (!compactStorage || record.getStatus() != ReconciliationStatus.MATCHED) {
+                stored.add(record);
+            }
+        }
+        aggregateRepository.saveAll(aggregates.values());
+        reconciliationRepository.saveAll(stored);
+    }
+
+    private void remove(ReconciliationCheckpoint checkpoint, List<ReconciliationRecord> records) {
+        Map<ReconciliationStatus, ReconciliationAggregate> aggregates = aggregates(checkpoint);
+        for (ReconciliationRecord record : records) {
+            checkpoint.record(record.getStatus(), -1);
+            aggregateOf(aggregates, checkpoint, record.getStatus()).add(-1,
+                    record.getInternalAmount() != null ? record.getInternalAmount().negate() : null,
+                    record.getExternalAmount() != null ? record.getExternalAmount().negate() : null);
+        }
+        aggregateRepository.saveAll(aggregates.values());
+        reconciliationRepository.deleteAll(records);
+    }
+
+    private Map<ReconciliationStatus, ReconciliationAggregate> aggregates(ReconciliationCheckpoint checkpoint) {
+        return aggregates(checkpoint.getReconciliationDate(), checkpoint.getBucketStart(), checkpoint.getBucketEnd());
+    }
+
+    private Map<ReconciliationStatus, ReconciliationAggregate> aggregates(LocalDate date, int bucketStart, int bucketEnd) {
+        Map<ReconciliationStatus, ReconciliationAggregate> aggregates = new EnumMap<>(ReconciliationStatus.class);
+        for (ReconciliationAggregate aggregate : aggregateRepository.findByReconciliationDateAndBucketStartAndBucketEnd(
+                date, bucketStart, bucketEnd)) {
+            aggregates.put(aggregate.getStatus(), aggregate);
+        }
+        return aggregates;
+    }
+
+    private ReconciliationAggregate aggregateOf(Map<ReconciliationStatus, ReconciliationAggregate> aggregates,
+                                                ReconciliationCheckpoint checkpoint, ReconciliationStatus status) {
+        return aggregateOf(aggregates, checkpoint.getReconciliationDate(), checkpoint.getBucketStart(),
+                           checkpoint.getBucketEnd(), status);
+    }
+
+    private ReconciliationAggregate aggregateOf(Map<ReconciliationStatus, ReconciliationAggregate> aggregates,
+                                                LocalDate date, int bucketStart, int bucketEnd,
+                                                ReconciliationStatus status) {
+        return aggregates.computeIfAbsent(status, key -> new ReconciliationAggregate(date, bucketStart, bucketEnd, key));
+    }
+
+    private boolean isMissing(ReconciliationRecord record) {
+        return record.getStatus() == ReconciliationStatus.MISSING_INTERNAL
+                || record.getStatus() == ReconciliationStatus.MISSING_EXTERNAL;
+    }
+
+    private void advance(ReconciliationCheckpoint checkpoint, ReconciliationPhase phase) {
+        checkpoint.setPhase(phase);
+        checkpoint.setLastKey(null);
+    }
+
+    private void complete(ReconciliationCheckpoint checkpoint) {
+        advance(checkpoint, ReconciliationPhase.COMPLETED);
+        checkpoint.setCompletedAt(LocalDateTime.now());
+    }
+
+    private List<Integer> digestFilter(ReconciliationCheckpoint checkpoint) {
+        if (checkpoint.getDirtyBuckets() == null) {
+            return null;
+        }
+        // An empty IN list is not valid SQL; no transaction carries the placeholder bucket.
+        if (checkpoint.getDirtyBuckets().isEmpty()) {
+            return List.of(-1);
+        }
+        return Arrays.stream(checkpoint.getDirtyBuckets().split(","))
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    private String afterKey(ReconciliationCheckpoint checkpoint) {
+        return checkpoint.getLastKey() != null ? checkpoint.getLastKey() : "";
+    }
+
+    private long afterId(ReconciliationCheckpoint checkpoint) {
+        return checkpoint.getLastKey() != null ? Long.parseLong(checkpoint.getLastKey()) : 0;
+    }
+
+    private List<List<String>> partition(List<String> ids) {
+        List<List<String>> partitions = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            partitions.add(ids.subList(i, Math.min(i + batchSize, ids.size())));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,124 @@
+package com.wallet.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+public final class ColumnarBatch {
+
+    private static final int AMOUNT_SCALE = 2;
+
+    private final IdDictionary ids;
+    private final IdDictionary customers;
+    private int size;
+    private int[] idCodes;
+    private int[] customerCodes;
+    private long[] amounts;
+    private int[] timestamps;
+    private long baseEpochSecond;
+    private int[] rowByCode;
+
+    public ColumnarBatch(IdDictionary ids, IdDictionary customers, int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        this.ids = ids;
+        this.customers = customers;
+        this.idCodes = new int[capacity];
+        this.customerCodes = new int[capacity];
+        this.amounts = new long[capacity];
+        this.timestamps = new int[capacity];
+    }
+
+    public void add(String transactionId, BigDecimal amount, LocalDateTime timestamp, String customerId) {
+        if (size == idCodes.length) {
+            int capacity = size * 2;
+            idCodes = Arrays.copyOf(idCodes, capacity);
+            customerCodes = Arrays.copyOf(customerCodes, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+
+        idCodes[size] = ids.intern(transactionId);
+        customerCodes[size] = customerId != null ? customers.intern(customerId) : -1;
+        amounts[size] = amount.movePointRight(AMOUNT_SCALE).longValueExact();
+        // Seconds relative to the first row: a batch spans a day or two, and matching never looks below a second.
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+        if (size == 0) {
+            baseEpochSecond = epochSecond;
+        }
+        timestamps[size] = Math.toIntExact(epochSecond - baseEpochSecond);
+        size++;
+        rowByCode = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int idCode(int row) {
+        return idCodes[row];
+    }
+
+    public String transactionId(int row) {
+        return ids.get(idCodes[row]);
+    }
+
+    public String customerId(int row) {
+        return customerCodes[row] >= 0 ? customers.get(customerCodes[row]) : null;
+    }
+
+    public long amountMinor(int row) {
+        return amounts[row];
+    }
+
+    public BigDecimal amount(int row) {
+        return BigDecimal.valueOf(amounts[row], AMOUNT_SCALE);
+    }
+
+    public long epochSecond(int row) {
+        return baseEpochSecond + timestamps[row];
+    }
+
+    public LocalDateTime timestamp(int row) {
+        return LocalDateTime.ofEpochSecond(epochSecond(row), 0, ZoneOffset.UTC);
+    }
+
+    public BigDecimal totalAmount() {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            total = Math.addExact(total, amounts[row]);
+        }
+        return BigDecimal.valueOf(total, AMOUNT_SCALE);
+    }
+
+    public BigDecimal totalAmount(int[] rows) {
+        long total = 0;
+        for (int row : rows) {
+            total = Math.addExact(total, amounts[row]);
+        }
+        return BigDecimal.valueOf(total, AMOUNT_SCALE);
+    }
+
+    public int rowOf(int idCode) {
+        // Codes are dense in the shared dictionary, so the index is a direct lookup rather than a hash probe.
+        if (rowByCode == null) {
+            rowByCode = new int[ids.size()];
+            Arrays.fill(rowByCode, -1);
+            for (int row = size - 1; row >= 0; row--) {
+                rowByCode[idCodes[row]] = row;
+            }
+        }
+        return idCode < rowByCode.length ? rowByCode[idCode] : -1;
+    }
+
+    public int[] distinctRows() {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (rowOf(idCodes[row]) == row) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+}
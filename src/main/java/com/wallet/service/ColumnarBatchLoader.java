@@ -0,0 +1,92 @@
+package com.wallet.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+
+@Component
+public class ColumnarBatchLoader {
+
+    private static final String INTERNAL_CHUNK =
+            "SELECT t.transaction_id, t.amount, t.created_at, w.customer_id FROM transactions t " +
+            "JOIN wallets w ON w.id = t.wallet_id " +
+            "WHERE t.created_at >= :start AND t.created_at < :end " +
+            "AND w.shard_bucket >= :bucketStart AND w.shard_bucket < :bucketEnd AND t.transaction_id > :afterId%s " +
+            "ORDER BY t.transaction_id LIMIT :limit";
+
+    // A transaction reported by several sources belongs to the shard of the row staged first, so it is counted once.
+    private static final String EXTERNAL_CHUNK =
+            "SELECT e.transaction_id, e.amount, e.transaction_timestamp, e.customer_id FROM external_transactions e " +
+            "WHERE e.transaction_date = :date AND e.shard_bucket >= :bucketStart AND e.shard_bucket < :bucketEnd " +
+            "AND e.transaction_id > :afterId%s AND NOT EXISTS (SELECT 1 FROM external_transactions f " +
+            "WHERE f.transaction_date = e.transaction_date AND f.transaction_id = e.transaction_id AND f.id < e.id) " +
+            "ORDER BY e.transaction_id, e.id LIMIT :limit";
+
+    private static final String EXTERNAL_BY_IDS =
+            "SELECT transaction_id, amount, transaction_timestamp, customer_id FROM external_transactions " +
+            "WHERE transaction_date = :date AND transaction_id IN (:transactionIds) ORDER BY id";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public ColumnarBatch loadInternalChunk(LocalDate date, int bucketStart, int bucketEnd,
+                                           Collection<Integer> digestBuckets, String afterId, int limit,
+                                           IdDictionary ids, IdDictionary customers) {
+        MapSqlParameterSource params = scope(bucketStart, bucketEnd, digestBuckets)
+                .addValue("start", Timestamp.valueOf(date.atStartOfDay()))
+                .addValue("end", Timestamp.valueOf(date.plusDays(1).atStartOfDay()))
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return load(String.format(INTERNAL_CHUNK, digestFilter("t.digest_bucket", digestBuckets)), params, limit, ids, customers);
+    }
+
+    public ColumnarBatch loadExternalChunk(LocalDate date, int bucketStart, int bucketEnd,
+                                           Collection<Integer> digestBuckets, String afterId, int limit,
+                                           IdDictionary ids, IdDictionary customers) {
+        MapSqlParameterSource params = scope(bucketStart, bucketEnd, digestBuckets)
+                .addValue("date", date)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return load(String.format(EXTERNAL_CHUNK, digestFilter("e.digest_bucket", digestBuckets)), params, limit, ids, customers);
+    }
+
+    public ColumnarBatch loadExternalByIds(LocalDate date, Collection<String> transactionIds,
+                                           IdDictionary ids, IdDictionary customers) {
+        if (transactionIds.isEmpty()) {
+            return new ColumnarBatch(ids, customers, 0);
+        }
+        // The bank's customer may differ from the wallet's, so the rows are found by id wherever they are bucketed.
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("date", date)
+                .addValue("transactionIds", transactionIds);
+        return load(EXTERNAL_BY_IDS, params, transactionIds.size(), ids, customers);
+    }
+
+    private ColumnarBatch load(String sql, MapSqlParameterSource params, int expectedRows,
+                               IdDictionary ids, IdDictionary customers) {
+        ColumnarBatch batch = new ColumnarBatch(ids, customers, expectedRows);
+        namedParameterJdbcTemplate.query(sql, params, rs -> {
+            batch.add(rs.getString(1), rs.getBigDecimal(2), rs.getTimestamp(3).toLocalDateTime(), rs.getString(4));
+        });
+        return batch;
+    }
+
+    private MapSqlParameterSource scope(int bucketStart, int bucketEnd, Collection<Integer> digestBuckets) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("bucketStart", bucketStart)
+                .addValue("bucketEnd", bucketEnd);
+        if (digestBuckets != null) {
+            params.addValue("digestBuckets", digestBuckets);
+        }
+        return params;
+    }
+
+    private String digestFilter(String column, Collection<Integer> digestBuckets) {
+        return digestBuckets != null ? " AND " + column + " IN (:digestBuckets)" : "";
+    }
+}
@@ -1,22 +1,33 @@
 package com.wallet.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
 import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.ExternalFileOffset;
+import com.wallet.entity.ExternalTransaction;
+import com.wallet.repository.ExternalFileOffsetRepository;
+import com.wallet.repository.ExternalTransactionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ExternalDataService {
@@ -25,71 +36,162 @@ public class ExternalDataService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ExternalJsonStreamReader jsonStreamReader;
+
+    @Autowired
+    private ExternalTransactionStagingService stagingService;
+
+    @Autowired
+    private ExternalTransactionRepository externalTransactionRepository;
+
+    @Autowired
+    private ExternalFileCache fileCache;
+
+    @Autowired
+    private ExternalFileOffsetRepository fileOffsetRepository;
+
+    @Autowired
+    private ExternalInputDecoder inputDecoder;
+
+    @Value("${wallet.external.local-directory:data}")
+    private String localDirectory;
+
+    @Value("${wallet.external.batch-size:500}")
+    private int ingestBatchSize;
+
+    private final Map<String, Object> fileLocks = new ConcurrentHashMap<>();
 
     public List<ExternalTransactionRecord> getExternalTransactions(LocalDate date) {
         logger.info("Fetching external transactions for date: {}", date);
         
-        List<ExternalTransactionRecord> transactions = new ArrayList<>();
-        
         try {
-            List<ExternalTransactionRecord> csvRecords = loadFromCsv(date);
-            transactions.addAll(csvRecords);
-            
-            List<ExternalTransactionRecord> jsonRecords = loadFromJson(date);
-            transactions.addAll(jsonRecords);
-            
+            stageLocalFiles(date);
         } catch (Exception e) {
-            logger.error("Failed to load external transactions for date: {}", date, e);
+            logger.error("Failed to stage local files for date: {}", date, e);
         }
         
+        List<ExternalTransactionRecord> transactions = externalTransactionRepository.findByTransactionDate(date).stream()
+                .map(this::toRecord)
+                .collect(Collectors.toList());
+        
         logger.info("Loaded {} external transactions for date: {}", transactions.size(), date);
         return transactions;
     }
 
+    public List<ExternalTransactionRecord> getExternalTransactions(LocalDate date, Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return externalTransactionRepository.findByTransactionIds(date, transactionIds).stream()
+                .map(this::toRecord)
+                .collect(Collectors.toList());
+    }
+
+    public ExternalRecordReadResult stageLocalFiles(LocalDate date) throws IOException, CsvException {
+        return stageLocalFiles(date, ExternalFetchDeadline.NONE);
+    }
+
+    public ExternalRecordReadResult stageLocalFiles(LocalDate date, ExternalFetchDeadline deadline) throws IOException, CsvException {
+        // A broken CSV file must not keep the JSON file of the same day from being staged, so both are tried first.
+        ExternalRecordReadResult result = new ExternalRecordReadResult();
+        Exception failure = null;
+        for (String extension : List.of("csv", "json")) {
+            try {
+                result.merge(stageLocalFile(date, extension, deadline));
+            } catch (IOException | CsvException e) {
+                logger.error("Failed to load {} file for date: {}", extension.toUpperCase(), date, e);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw (CsvException) failure;
+        }
+        return result;
+    }
+
+    public Stream<ExternalTransactionRecord> streamExternalTransactions(LocalDateTime start, LocalDateTime end) {
+        return externalTransactionRepository
+                .streamInWindow(start.toLocalDate(), end.toLocalDate(), start, end)
+                .map(this::toRecord);
+    }
+
+    public ExternalRecordReadResult ingestCSVFile(String source, InputStream inputStream) throws IOException, CsvException {
+        return stagingService.stage(source, sink -> readInput(source, inputStream, this::streamCSVFile, sink));
+    }
+
+    public ExternalRecordReadResult ingestJSONFile(String source, InputStream inputStream) throws IOException, CsvException {
+        return stagingService.stage(source, sink -> readInput(source, inputStream, this::streamJSONFile, sink));
+    }
+
     public List<ExternalTransactionRecord> processCSVFile(InputStream inputStream) throws IOException, CsvException {
+        List<ExternalTransactionRecord> records = new ArrayList<>();
+        streamCSVFile(inputStream, records::addAll);
+        return records;
+    }
+
+    public ExternalRecordReadResult streamCSVFile(InputStream inputStream,
+                                                  Consumer<List<ExternalTransactionRecord>> sink) throws IOException, CsvException {
         logger.info("Processing CSV file for external transactions");
         
-        List<ExternalTransactionRecord> records = new ArrayList<>();
+        ExternalRecordReadResult result = new ExternalRecordReadResult();
+        ExternalRecordBatcher batcher = new ExternalRecordBatcher(ingestBatchSize, sink);
         
         try (CSVReader reader = new CSVReader(new InputStreamReader(inputStream))) {
-            List<String[]> rows = reader.readAll();
-            
-            boolean hasHeader = rows.size() > 0 && !isNumeric(rows.get(0)[2]);
-            int startIndex = hasHeader ? 1 : 0;
+            String[] row;
+            long rowNumber = 0;
             
-            for (int i = startIndex; i < rows.size(); i++) {
-                String[] row = rows.get(i);
-                if (row.length >= 6) {
-                    try {
-                        ExternalTransactionRecord record = new ExternalTransactionRecord(
-                            row[0].trim(), // transactionId
-                            row[1].trim(), // customerId
-                            new BigDecimal(row[2].trim()), // amount
-                            row[3].trim(), // type
-                            LocalDateTime.parse(row[4].trim(), DATE_FORMATTER), // timestamp
-                            row[5].trim() // reference
-                        );
-                        records.add(record);
-                    } catch (Exception e) {
-                        logger.warn("Failed to parse CSV row {}: {}", i + 1, Arrays.toString(row), e);
-                    }
+            while ((row = reader.readNext()) != null) {
+                rowNumber++;
+                if (rowNumber == 1 && row.length > 2 && !isNumeric(row[2])) {
+                    continue;
+                }
+                if (row.length < 6) {
+                    continue;
+                }
+                try {
+                    ExternalTransactionRecord record = new ExternalTransactionRecord(
+                        row[0].trim(), // transactionId
+                        row[1].trim(), // customerId
+                        new BigDecimal(row[2].trim()), // amount
+                        row[3].trim(), // type
+                        LocalDateTime.parse(row[4].trim(), DATE_FORMATTER), // timestamp
+                        row[5].trim() // reference
+                    );
+                    result.recordRead();
+                    batcher.add(record);
+                } catch (Exception e) {
+                    logger.warn("Failed to parse CSV row {}: {}", rowNumber, Arrays.toString(row), e);
+                    result.recordSkipped();
                 }
             }
         }
         
-        logger.info("Processed {} records from CSV file", records.size());
-        return records;
+        batcher.flush();
+        logger.info("Processed {} records from CSV file, skipped {} malformed records",
+                   result.getRecordsRead(), result.getRecordsSkipped());
+        return result;
     }
 
     public List<ExternalTransactionRecord> processJSONFile(InputStream inputStream) throws IOException {
+        List<ExternalTransactionRecord> records = new ArrayList<>();
+        streamJSONFile(inputStream, records::addAll);
+        return records;
+    }
+
+    public ExternalRecordReadResult streamJSONFile(InputStream inputStream,
+                                                   Consumer<List<ExternalTransactionRecord>> sink) throws IOException {
         logger.info("Processing JSON file for external transactions");
         
-        ExternalTransactionRecord[] recordsArray = objectMapper.readValue(inputStream, ExternalTransactionRecord[].class);
-        List<ExternalTransactionRecord> records = Arrays.asList(recordsArray);
+        ExternalRecordReadResult result = jsonStreamReader.read(inputStream, ingestBatchSize, sink);
         
-        logger.info("Processed {} records from JSON file", records.size());
-        return records;
+        logger.info("Processed {} records from JSON file, skipped {} malformed records",
+                   result.getRecordsRead(), result.getRecordsSkipped());
+        return result;
     }
 
     public void exportReconciliationReportToCSV(List<ExternalTransactionRecord> records, OutputStream outputStream) throws IOException {
@@ -113,40 +215,129 @@ public class ExternalDataService {
         logger.info("Successfully exported records to CSV");
     }
 
-    private List<ExternalTransactionRecord> loadFromCsv(LocalDate date) {
-        String filename = String.format("external_transactions_%s.csv", date);
-        File file = new File("data/" + filename);
+    private ExternalRecordReadResult stageLocalFile(LocalDate date, String extension,
+                                                    ExternalFetchDeadline deadline) throws IOException, CsvException {
+        String filename = String.format("external_transactions_%s.%s", date, extension);
+        ExternalRecordReadResult result = new ExternalRecordReadResult();
+        boolean found = false;
         
-        if (!file.exists()) {
-            logger.debug("CSV file not found for date: {}", date);
-            return new ArrayList<>();
+        for (File file : List.of(new File(localDirectory, filename), new File(localDirectory, filename + ".gz"))) {
+            if (file.exists()) {
+                found = true;
+                result.merge(ingestLocalFile(file, deadline));
+            }
         }
         
-        try (FileInputStream fis = new FileInputStream(file)) {
-            return processCSVFile(fis);
-        } catch (Exception e) {
-            logger.error("Failed to load CSV file for date: {}", date, e);
-            return new ArrayList<>();
+        if (!found) {
+            logger.debug("{} file not found for date: {}", extension.toUpperCase(), date);
         }
+        return result;
     }
 
-    private List<ExternalTransactionRecord> loadFromJson(LocalDate date) {
-        String filename = String.format("external_transactions_%s.json", date);
-        File file = new File("data/" + filename);
-        
-        if (!file.exists()) {
-            logger.debug("JSON file not found for date: {}", date);
-            return new ArrayList<>();
+    public ExternalRecordReadResult ingestLocalFile(File file) throws IOException, CsvException {
+        return ingestLocalFile(file, ExternalFetchDeadline.NONE);
+    }
+
+    public ExternalRecordReadResult ingestLocalFile(File file, ExternalFetchDeadline deadline) throws IOException, CsvException {
+        String path = file.getPath();
+        synchronized (fileLocks.computeIfAbsent(path, key -> new Object())) {
+            ExternalFileOffset offset = fileOffsetRepository.findById(path).orElseGet(() -> new ExternalFileOffset(path));
+            long size = file.length();
+            long modified = file.lastModified();
+            if (offset.getByteOffset() == size && offset.getLastModified() == modified) {
+                logger.debug("{} already ingested up to byte {}", file, size);
+                return new ExternalRecordReadResult();
+            }
+
+            LocalFileReader fileReader = file.getName().contains(".csv") ? this::streamCSVFile : this::streamJSONFile;
+            // Plain CSV files are append-only, so only the rows after the stored offset are new. A shrunk or
+            // rewritten file, a compressed one and any change to a JSON file is read from the start again;
+            // staging drops rows it already has.
+            boolean appendOnly = file.getName().endsWith(".csv") && !inputDecoder.isCompressed(file);
+            long start = appendOnly && offset.getByteOffset() < size ? offset.getByteOffset() : 0;
+            long end = appendOnly ? lastLineEnd(file, start, size) : size;
+            if (end == start) {
+                return new ExternalRecordReadResult();
+            }
+
+            String source = "file:" + file.getName();
+            ExternalRecordReadResult result;
+            if (start == 0 && end == size) {
+                // Unchanged files replay their parsed records from the cache instead of being parsed again.
+                result = stagingService.stage(source, sink -> fileCache.read(file, cacheSink -> {
+                    try (FileInputStream fis = new FileInputStream(file)) {
+                        return readInput(file.getName(), fis, fileReader, cacheSink);
+                    }
+                }, sink), deadline);
+            } else {
+                logger.info("Ingesting bytes {}-{} appended to {}", start, end, file);
+                result = stagingService.stage(source, sink -> {
+                    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                        raf.seek(start);
+                        return readInput(file.getName(), new RangeInputStream(Channels.newInputStream(raf.getChannel()), end - start),
+                                fileReader, sink);
+                    }
+                }, deadline);
+            }
+
+            result.addBytesRead(end - start);
+            offset.setByteOffset(end);
+            offset.setLastModified(modified);
+            fileOffsetRepository.save(offset);
+            return result;
         }
-        
-        try (FileInputStream fis = new FileInputStream(file)) {
-            return processJSONFile(fis);
-        } catch (Exception e) {
-            logger.error("Failed to load JSON file for date: {}", date, e);
-            return new ArrayList<>();
+    }
+
+    private ExternalRecordReadResult readInput(String label, InputStream raw, LocalFileReader reader,
+                                               Consumer<List<ExternalTransactionRecord>> sink) throws IOException, CsvException {
+        // Decompression runs on its own thread ahead of the parser; the sink's time is staging, not parsing.
+        long[] stagingNanos = new long[1];
+        Consumer<List<ExternalTransactionRecord>> timedSink = batch -> {
+            long start = System.nanoTime();
+            sink.accept(batch);
+            stagingNanos[0] += System.nanoTime() - start;
+        };
+
+        try (CountingInputStream in = new CountingInputStream(inputDecoder.open(raw, label))) {
+            long start = System.nanoTime();
+            ExternalRecordReadResult result = reader.read(in, timedSink);
+            inputDecoder.recordStage("parse", label, in.getCount(), System.nanoTime() - start - stagingNanos[0]);
+            inputDecoder.recordStage("stage", label, in.getCount(), stagingNanos[0]);
+            return result;
+        }
+    }
+
+    private long lastLineEnd(File file, long start, long size) throws IOException {
+        // A writer may be half-way through the last row; everything up to the last newline is complete.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] block = new byte[8192];
+            long position = size;
+            while (position > start) {
+                int length = (int) Math.min(block.length, position - start);
+                position -= length;
+                raf.seek(position);
+                raf.readFully(block, 0, length);
+                for (int i = length - 1; i >= 0; i--) {
+                    if (block[i] == '\n') {
+                        return position + i + 1;
+                    }
+                }
+            }
+            return start;
         }
     }
 
+    private ExternalTransactionRecord toRecord(ExternalTransaction transaction) {
+        return new ExternalTransactionRecord(
+            transaction.getTransactionId(),
+            transaction.getCustomerId(),
+            transaction.getAmount(),
+            transaction.getType(),
+            transaction.getTransactionTimestamp(),
+            transaction.getReference()
+        );
+    }
+
     private boolean isNumeric(String str) {
         try {
             Double.parseDouble(str);
@@ -165,4 +356,43 @@ public class ExternalDataService {
         }
         return value;
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface LocalFileReader {
+        ExternalRecordReadResult read(InputStream inputStream, Consumer<List<ExternalTransactionRecord>> sink)
+                throws IOException, CsvException;
+    }
+
+    private static class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wallet.service;
+
+import java.util.concurrent.CancellationException;
+
+public class ExternalFetchDeadline {
+
+    public static final ExternalFetchDeadline NONE = new ExternalFetchDeadline(null);
+
+    private final String source;
+    private Thread worker;
+    private boolean finished;
+    private volatile boolean cancelled;
+
+    private ExternalFetchDeadline(String source) {
+        this.source = source;
+    }
+
+    static ExternalFetchDeadline start(String source) {
+        ExternalFetchDeadline deadline = new ExternalFetchDeadline(source);
+        deadline.worker = Thread.currentThread();
+        return deadline;
+    }
+
+    public void check() {
+        if (cancelled) {
+            throw new CancellationException("Source " + source + " passed its deadline");
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        if (!finished) {
+            // Wakes a source blocked on I/O; staging then rolls back instead of committing the late rows.
+            worker.interrupt();
+        }
+    }
+
+    void finish() {
+        synchronized (this) {
+            finished = true;
+        }
+        // An interrupt that arrived after the source returned must not reach the pool thread's next task.
+        Thread.interrupted();
+    }
+}
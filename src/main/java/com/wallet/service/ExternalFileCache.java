@@ -0,0 +1,329 @@
+package com.wallet.service;
+
+import com.opencsv.exceptions.CsvException;
+import com.wallet.dto.ExternalTransactionRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Component
+public class ExternalFileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalFileCache.class);
+
+    public static final String SIDECAR_SUFFIX = ".parsed";
+
+    private static final int MAGIC = 0x57584331;
+    private static final int END_OF_RECORDS = 0x80;
+    private static final int HAS_CUSTOMER = 1;
+    private static final int HAS_TYPE = 2;
+    private static final int HAS_TIMESTAMP = 4;
+    private static final int HAS_REFERENCE = 8;
+
+    @Value("${wallet.external.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.external.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${wallet.external.batch-size:500}")
+    private int batchSize;
+
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public ExternalRecordReadResult read(File file, ExternalRecordProducer parser,
+                                         Consumer<List<ExternalTransactionRecord>> sink) throws IOException, CsvException {
+        if (!enabled) {
+            return parser.produce(sink);
+        }
+
+        String key = file.getCanonicalPath();
+        long size = file.length();
+        long modified = file.lastModified();
+
+        byte[] cached = lookup(key, size, modified);
+        if (cached != null) {
+            logger.debug("Replaying parsed records for {} from memory", file);
+            return replay(new ByteArrayInputStream(cached), sink);
+        }
+
+        Path sidecar = sidecarOf(file);
+        if (isCurrent(sidecar, size, modified)) {
+            ExternalRecordReadResult result = replaySidecar(key, sidecar, sink);
+            if (result != null) {
+                logger.debug("Replayed parsed records for {} from {}", file, sidecar);
+                return result;
+            }
+        }
+
+        return parseAndCache(file, key, size, modified, parser, sink);
+    }
+
+    private ExternalRecordReadResult replaySidecar(String key, Path sidecar,
+                                                   Consumer<List<ExternalTransactionRecord>> sink) throws IOException {
+        // The whole sidecar is decoded before the first batch reaches the sink, so a truncated or corrupt one
+        // falls back to parsing the file instead of leaving a partial import behind.
+        byte[] encoded = null;
+        try {
+            if (Files.size(sidecar) <= maxBytes) {
+                encoded = Files.readAllBytes(sidecar);
+                decode(new ByteArrayInputStream(encoded), record -> { });
+            } else {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(sidecar))) {
+                    decode(in, record -> { });
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Discarding unreadable parsed sidecar {}", sidecar, e);
+            evict(key);
+            try {
+                Files.deleteIfExists(sidecar);
+            } catch (IOException deleteFailure) {
+                logger.warn("Failed to delete unreadable parsed sidecar {}", sidecar, deleteFailure);
+            }
+            return null;
+        }
+
+        if (encoded != null) {
+            store(key, encoded);
+            return replay(new ByteArrayInputStream(encoded), sink);
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(sidecar))) {
+            return replay(in, sink);
+        }
+    }
+
+    private ExternalRecordReadResult parseAndCache(File file, String key, long size, long modified,
+                                                   ExternalRecordProducer parser,
+                                                   Consumer<List<ExternalTransactionRecord>> sink) throws IOException, CsvException {
+        Path sidecar = sidecarOf(file);
+        Path temp;
+        DataOutputStream out;
+        try {
+            temp = Files.createTempFile(sidecar.toAbsolutePath().getParent(), sidecar.getFileName().toString(), ".tmp");
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeLong(size);
+            out.writeLong(modified);
+        } catch (IOException e) {
+            logger.warn("Cannot write parsed sidecar for {}, parsing without cache", file, e);
+            return parser.produce(sink);
+        }
+
+        // Encoding trouble only costs the cache entry; the records still reach the sink.
+        boolean[] cacheable = {true};
+        try {
+            ExternalRecordReadResult result = parser.produce(batch -> {
+                if (cacheable[0]) {
+                    try {
+                        for (ExternalTransactionRecord record : batch) {
+                            write(out, record);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        logger.warn("Failed to encode parsed records for {}, not caching it", file, e);
+                        cacheable[0] = false;
+                    }
+                }
+                sink.accept(batch);
+            });
+
+            try {
+                if (cacheable[0]) {
+                    out.writeByte(END_OF_RECORDS);
+                    out.writeLong(result.getRecordsRead());
+                    out.writeLong(result.getRecordsSkipped());
+                    out.writeBoolean(result.isTruncated());
+                }
+                out.close();
+                // A file that changed while it was being parsed is not cached; the next read parses it again.
+                if (cacheable[0] && file.length() == size && file.lastModified() == modified) {
+                    Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    cache(key, sidecar);
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to write parsed sidecar for {}", file, e);
+            }
+            return result;
+        } finally {
+            closeQuietly(out);
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private synchronized byte[] lookup(String key, long size, long modified) {
+        byte[] encoded = entries.get(key);
+        if (encoded == null) {
+            return null;
+        }
+        if (!matches(new ByteArrayInputStream(encoded), size, modified)) {
+            cachedBytes -= encoded.length;
+            entries.remove(key);
+            return null;
+        }
+        return encoded;
+    }
+
+    private void cache(String key, Path sidecar) {
+        try {
+            if (Files.size(sidecar) <= maxBytes) {
+                store(key, Files.readAllBytes(sidecar));
+            }
+        } catch (IOException e) {
+            logger.debug("Could not load parsed sidecar {} into memory", sidecar, e);
+        }
+    }
+
+    private synchronized void evict(String key) {
+        byte[] encoded = entries.remove(key);
+        if (encoded != null) {
+            cachedBytes -= encoded.length;
+        }
+    }
+
+    private synchronized void store(String key, byte[] encoded) {
+        byte[] previous = entries.put(key, encoded);
+        if (previous != null) {
+            cachedBytes -= previous.length;
+        }
+        cachedBytes += encoded.length;
+
+        Iterator<byte[]> eldest = entries.values().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    private boolean isCurrent(Path sidecar, long size, long modified) {
+        if (!Files.exists(sidecar)) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(sidecar)) {
+            if (matches(in, size, modified)) {
+                return true;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read parsed sidecar {}", sidecar, e);
+            return false;
+        }
+
+        logger.info("Discarding stale parsed sidecar {}", sidecar);
+        try {
+            Files.deleteIfExists(sidecar);
+        } catch (IOException e) {
+            logger.warn("Failed to delete stale parsed sidecar {}", sidecar, e);
+        }
+        return false;
+    }
+
+    private boolean matches(InputStream encoded, long size, long modified) {
+        try {
+            DataInputStream in = new DataInputStream(encoded);
+            return in.readInt() == MAGIC && in.readLong() == size && in.readLong() == modified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path sidecarOf(File file) {
+        return file.toPath().resolveSibling(file.getName() + SIDECAR_SUFFIX);
+    }
+
+    private ExternalRecordReadResult replay(InputStream encoded, Consumer<List<ExternalTransactionRecord>> sink) throws IOException {
+        ExternalRecordBatcher batcher = new ExternalRecordBatcher(batchSize, sink);
+        ExternalRecordReadResult result = decode(encoded, batcher::add);
+        batcher.flush();
+        return result;
+    }
+
+    private ExternalRecordReadResult decode(InputStream encoded, Consumer<ExternalTransactionRecord> records) throws IOException {
+        DataInputStream in = new DataInputStream(encoded);
+        in.readInt();
+        in.readLong();
+        in.readLong();
+
+        int flags;
+        while ((flags = in.readUnsignedByte()) != END_OF_RECORDS) {
+            records.accept(read(in, flags));
+        }
+
+        ExternalRecordReadResult result = new ExternalRecordReadResult();
+        result.setRecordsRead(in.readLong());
+        result.setRecordsSkipped(in.readLong());
+        result.setTruncated(in.readBoolean());
+        return result;
+    }
+
+    private void write(DataOutputStream out, ExternalTransactionRecord record) throws IOException {
+        int flags = (record.getCustomerId() != null ? HAS_CUSTOMER : 0)
+                | (record.getType() != null ? HAS_TYPE : 0)
+                | (record.getTimestamp() != null ? HAS_TIMESTAMP : 0)
+                | (record.getReference() != null ? HAS_REFERENCE : 0);
+        byte[] unscaled = record.getAmount().unscaledValue().toByteArray();
+
+        out.writeByte(flags);
+        out.writeUTF(record.getTransactionId());
+        out.writeInt(record.getAmount().scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+        if (record.getCustomerId() != null) {
+            out.writeUTF(record.getCustomerId());
+        }
+        if (record.getType() != null) {
+            out.writeUTF(record.getType());
+        }
+        if (record.getTimestamp() != null) {
+            out.writeLong(record.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(record.getTimestamp().getNano());
+        }
+        if (record.getReference() != null) {
+            out.writeUTF(record.getReference());
+        }
+    }
+
+    private ExternalTransactionRecord read(DataInputStream in, int flags) throws IOException {
+        String transactionId = in.readUTF();
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        BigDecimal amount = new BigDecimal(new BigInteger(unscaled), scale);
+        String customerId = (flags & HAS_CUSTOMER) != 0 ? in.readUTF() : null;
+        String type = (flags & HAS_TYPE) != 0 ? in.readUTF() : null;
+        LocalDateTime timestamp = (flags & HAS_TIMESTAMP) != 0
+                ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                : null;
+        String reference = (flags & HAS_REFERENCE) != 0 ? in.readUTF() : null;
+        return new ExternalTransactionRecord(transactionId, customerId, amount, type, timestamp, reference);
+    }
+
+    private void closeQuietly(DataOutputStream out) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close parsed sidecar stream", e);
+        }
+    }
+}
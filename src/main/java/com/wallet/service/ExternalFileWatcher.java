@@ -0,0 +1,136 @@
+package com.wallet.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Component
+public class ExternalFileWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalFileWatcher.class);
+
+    // Sidecars (.parsed) and their temp files (.tmp) live in the same directory and never match.
+    private static final Pattern EXTERNAL_FILE = Pattern.compile("external_transactions_\\d{4}-\\d{2}-\\d{2}\\.(csv|json)(\\.gz)?");
+
+    @Autowired
+    private ExternalDataService externalDataService;
+
+    @Value("${wallet.external.watch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.external.local-directory:data}")
+    private String localDirectory;
+
+    @Value("${wallet.external.watch.quiet-period-ms:1000}")
+    private long quietPeriodMs;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path directory = Paths.get(localDirectory);
+        Files.createDirectories(directory);
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = new Thread(() -> watch(directory), "external-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Watching {} for external transaction files", directory.toAbsolutePath());
+    }
+
+    private void watch(Path directory) {
+        // Files that arrived while the node was down are caught up first; stored offsets make this cheap.
+        Map<Path, Long> pending = new LinkedHashMap<>();
+        scan(directory, pending);
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.poll(quietPeriodMs, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scan(directory, pending);
+                        } else {
+                            Path name = (Path) event.context();
+                            if (EXTERNAL_FILE.matcher(name.toString()).matches()) {
+                                pending.put(directory.resolve(name), System.nanoTime());
+                            }
+                        }
+                    }
+                    key.reset();
+                }
+                ingestQuietFiles(pending);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ingestQuietFiles(Map<Path, Long> pending) {
+        // A file is read once it has stopped changing for the quiet period, so a burst of appends is one ingest.
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(quietPeriodMs);
+        Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            if (entry.getValue() - cutoff > 0) {
+                continue;
+            }
+            entries.remove();
+            File file = entry.getKey().toFile();
+            if (!file.isFile()) {
+                continue;
+            }
+            try {
+                externalDataService.ingestLocalFile(file);
+            } catch (Exception e) {
+                logger.error("Failed to ingest external file {}", file, e);
+            }
+        }
+    }
+
+    private void scan(Path directory, Map<Path, Long> pending) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (EXTERNAL_FILE.matcher(file.getFileName().toString()).matches()) {
+                    pending.put(file, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(quietPeriodMs));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to scan {} for external transaction files", directory, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (thread != null) {
+            thread.interrupt();
+            watchService.close();
+        }
+    }
+}
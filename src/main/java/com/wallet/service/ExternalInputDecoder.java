@@ -0,0 +1,199 @@
+package com.wallet.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+@Component
+public class ExternalInputDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalInputDecoder.class);
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.external.decompress.threads:2}")
+    private int threads;
+
+    @Value("${wallet.external.decompress.chunk-size:65536}")
+    private int chunkSize;
+
+    @Value("${wallet.external.decompress.queue-chunks:16}")
+    private int queueChunks;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "external-decompress-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public boolean isCompressed(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    public InputStream open(InputStream raw, String label) throws IOException {
+        // Content decides, not the file name: partners send gzip under .csv names and plain text under .gz ones.
+        BufferedInputStream in = new BufferedInputStream(raw, chunkSize);
+        in.mark(2);
+        boolean compressed = in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        in.reset();
+        if (!compressed) {
+            return in;
+        }
+
+        DecompressedInputStream decompressed = new DecompressedInputStream(queueChunks);
+        executor.execute(() -> decompress(in, decompressed, label));
+        return decompressed;
+    }
+
+    public void recordStage(String stage, String label, long bytes, long nanos) {
+        meterRegistry.counter("wallet.external.stage.bytes", "stage", stage).increment(bytes);
+        meterRegistry.timer("wallet.external.stage.duration", "stage", stage).record(nanos, TimeUnit.NANOSECONDS);
+        logger.info("Stage {} for {}: {} bytes in {} ms ({} MB/s)", stage, label, bytes,
+                   TimeUnit.NANOSECONDS.toMillis(nanos), String.format("%.1f", megabytesPerSecond(bytes, nanos)));
+    }
+
+    private void decompress(InputStream source, DecompressedInputStream target, String label) {
+        CountingInputStream compressed = new CountingInputStream(source);
+        long inflated = 0;
+        long busyNanos = 0;
+        // Only time spent inflating counts; waiting for the parser to drain the queue is the parse stage's cost.
+        try (GZIPInputStream gzip = new GZIPInputStream(compressed, chunkSize)) {
+            while (true) {
+                byte[] chunk = new byte[chunkSize];
+                long start = System.nanoTime();
+                int length = gzip.readNBytes(chunk, 0, chunk.length);
+                busyNanos += System.nanoTime() - start;
+                if (length == 0) {
+                    break;
+                }
+                inflated += length;
+                if (!target.offer(length == chunk.length ? chunk : Arrays.copyOf(chunk, length))) {
+                    return;
+                }
+                if (length < chunk.length) {
+                    break;
+                }
+            }
+            logger.debug("Inflated {} compressed bytes of {} into {} bytes", compressed.getCount(), label, inflated);
+            recordStage("decompress", label, inflated, busyNanos);
+            target.finish(null);
+        } catch (Throwable e) {
+            target.finish(e);
+        }
+    }
+
+    private double megabytesPerSecond(long bytes, long nanos) {
+        return nanos > 0 ? bytes / 1048576.0 / (nanos / 1e9) : 0;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class DecompressedInputStream extends InputStream {
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> chunks;
+        private volatile Throwable failure;
+        private volatile boolean closed;
+        private byte[] current;
+        private int position;
+
+        DecompressedInputStream(int capacity) {
+            this.chunks = new ArrayBlockingQueue<>(capacity);
+        }
+
+        boolean offer(byte[] chunk) {
+            // The producer polls instead of blocking, so a reader that gave up does not leave it parked forever.
+            try {
+                while (!closed) {
+                    if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        void finish(Throwable error) {
+            failure = error;
+            offer(END);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (current == null || position == current.length) {
+                if (current == END) {
+                    return -1;
+                }
+                try {
+                    current = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for decompressed input", e);
+                }
+                position = 0;
+                if (current == END) {
+                    if (failure != null) {
+                        throw new IOException("Failed to decompress input", failure);
+                    }
+                    return -1;
+                }
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            chunks.clear();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.wallet.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.ExternalTransactionRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Component
+public class ExternalJsonStreamReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalJsonStreamReader.class);
+    private static final int PEEK_LIMIT = 8192;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public ExternalRecordReadResult read(InputStream inputStream, int batchSize,
+                                         Consumer<List<ExternalTransactionRecord>> sink) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        ExternalRecordReadResult result = new ExternalRecordReadResult();
+        ExternalRecordBatcher batcher = new ExternalRecordBatcher(batchSize, sink);
+
+        int first = peekFirstSignificantByte(in);
+        if (first == -1) {
+            return result;
+        }
+
+        if (first == '[') {
+            readArray(in, batcher, result);
+        } else if (first == '{') {
+            readNdjson(in, batcher, result);
+        } else {
+            throw new IOException("Unsupported JSON layout, expected array or newline-delimited objects");
+        }
+
+        batcher.flush();
+        return result;
+    }
+
+    private void readArray(InputStream in, ExternalRecordBatcher batcher, ExternalRecordReadResult result) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            parser.nextToken();
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    logger.warn("JSON array ended unexpectedly after {} records", result.getRecordsRead());
+                    result.setTruncated(true);
+                    return;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    result.recordSkipped();
+                    continue;
+                }
+                accept(parser.readValueAsTree(), batcher, result);
+            }
+        } catch (JsonProcessingException e) {
+            // The parser cannot resynchronize inside a broken array, keep what was read so far.
+            logger.warn("Malformed JSON array after {} records, stopping: {}", result.getRecordsRead(), e.getOriginalMessage());
+            result.recordSkipped();
+            result.setTruncated(true);
+        }
+    }
+
+    private void readNdjson(InputStream in, ExternalRecordBatcher batcher, ExternalRecordReadResult result) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                accept(objectMapper.readTree(line), batcher, result);
+            } catch (JsonProcessingException e) {
+                logger.warn("Skipping malformed JSON line {}: {}", lineNumber, e.getOriginalMessage());
+                result.recordSkipped();
+            }
+        }
+    }
+
+    private void accept(JsonNode node, ExternalRecordBatcher batcher, ExternalRecordReadResult result) {
+        ExternalTransactionRecord record;
+        try {
+            record = objectMapper.treeToValue(node, ExternalTransactionRecord.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.warn("Skipping malformed JSON record: {}", e.getMessage());
+            result.recordSkipped();
+            return;
+        }
+
+        if (record.getTransactionId() == null || record.getAmount() == null || record.getTimestamp() == null) {
+            logger.warn("Skipping JSON record with missing required fields: {}", record.getTransactionId());
+            result.recordSkipped();
+            return;
+        }
+
+        result.recordRead();
+        batcher.add(record);
+    }
+
+    private int peekFirstSignificantByte(BufferedInputStream in) throws IOException {
+        in.mark(PEEK_LIMIT);
+        try {
+            for (int i = 0; i < PEEK_LIMIT; i++) {
+                int b = in.read();
+                if (b == -1 || !(Character.isWhitespace(b) || b == 0xEF || b == 0xBB || b == 0xBF)) {
+                    return b;
+                }
+            }
+            return -1;
+        } finally {
+            in.reset();
+        }
+    }
+}
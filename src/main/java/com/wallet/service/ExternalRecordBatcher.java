@@ -0,0 +1,33 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+class ExternalRecordBatcher {
+    private final int batchSize;
+    private final Consumer<List<ExternalTransactionRecord>> sink;
+    private List<ExternalTransactionRecord> batch;
+
+    ExternalRecordBatcher(int batchSize, Consumer<List<ExternalTransactionRecord>> sink) {
+        this.batchSize = Math.max(1, batchSize);
+        this.sink = sink;
+        this.batch = new ArrayList<>(this.batchSize);
+    }
+
+    void add(ExternalTransactionRecord record) {
+        batch.add(record);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+}
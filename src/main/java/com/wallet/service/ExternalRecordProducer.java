@@ -0,0 +1,14 @@
+package com.wallet.service;
+
+import com.opencsv.exceptions.CsvException;
+import com.wallet.dto.ExternalTransactionRecord;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+@FunctionalInterface
+public interface ExternalRecordProducer {
+
+    ExternalRecordReadResult produce(Consumer<List<ExternalTransactionRecord>> sink) throws IOException, CsvException;
+}
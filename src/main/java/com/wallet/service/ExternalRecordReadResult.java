@@ -0,0 +1,72 @@
+package com.wallet.service;
+
+public class ExternalRecordReadResult {
+    private long recordsRead;
+    private long recordsSkipped;
+    private boolean truncated;
+    private long recordsStaged;
+    private long bytesRead;
+
+    public ExternalRecordReadResult() {
+    }
+
+    public void recordRead() {
+        recordsRead++;
+    }
+
+    public void recordSkipped() {
+        recordsSkipped++;
+    }
+
+    public void addBytesRead(long bytes) {
+        bytesRead += bytes;
+    }
+
+    public void merge(ExternalRecordReadResult other) {
+        recordsRead += other.recordsRead;
+        recordsSkipped += other.recordsSkipped;
+        truncated |= other.truncated;
+        recordsStaged += other.recordsStaged;
+        bytesRead += other.bytesRead;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    public void setRecordsRead(long recordsRead) {
+        this.recordsRead = recordsRead;
+    }
+
+    public long getRecordsSkipped() {
+        return recordsSkipped;
+    }
+
+    public void setRecordsSkipped(long recordsSkipped) {
+        this.recordsSkipped = recordsSkipped;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public long getRecordsStaged() {
+        return recordsStaged;
+    }
+
+    public void setRecordsStaged(long recordsStaged) {
+        this.recordsStaged = recordsStaged;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+}
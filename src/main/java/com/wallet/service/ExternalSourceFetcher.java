@@ -0,0 +1,138 @@
+package com.wallet.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class ExternalSourceFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalSourceFetcher.class);
+
+    @Autowired
+    private List<ExternalTransactionSource> sources;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.external.sources.max-parallel:4}")
+    private int maxParallel;
+
+    @Value("${wallet.external.sources.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "external-source-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxParallel, maxParallel, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "external-source-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ExternalRecordReadResult fetchAll(LocalDate date) {
+        logger.info("Fetching external transactions for date: {} from {} sources", date, sources.size());
+        long start = System.currentTimeMillis();
+
+        List<CompletableFuture<ExternalRecordReadResult>> fetches = new ArrayList<>(sources.size());
+        for (ExternalTransactionSource source : sources) {
+            fetches.add(submit(source, date));
+        }
+
+        // Every source stages into external_transactions on its own, so the merge is the staged table itself.
+        ExternalRecordReadResult total = new ExternalRecordReadResult();
+        for (CompletableFuture<ExternalRecordReadResult> fetch : fetches) {
+            total.merge(fetch.join());
+        }
+
+        logger.info("Fetched {} external transactions ({} new) for date: {} in {} ms",
+                   total.getRecordsRead(), total.getRecordsStaged(), date, System.currentTimeMillis() - start);
+        return total;
+    }
+
+    private CompletableFuture<ExternalRecordReadResult> submit(ExternalTransactionSource source, LocalDate date) {
+        CompletableFuture<ExternalRecordReadResult> outcome = new CompletableFuture<>();
+        executor.execute(() -> {
+            // The timeout starts when the source starts, not while it waits for a free slot. A late source is
+            // cancelled: its batch in progress rolls back, so no rows land after the reconciliation moved on,
+            // and the interrupt frees its slot from a hung request.
+            ExternalFetchDeadline fetchDeadline = ExternalFetchDeadline.start(source.getName());
+            ScheduledFuture<?> deadline = deadlines.schedule(() -> {
+                if (outcome.complete(new ExternalRecordReadResult())) {
+                    meterRegistry.counter("wallet.external.source.errors", "source", source.getName(), "reason", "timeout").increment();
+                    logger.error("Source {} did not finish within {} s for date: {}, cancelling it and continuing without it",
+                                source.getName(), timeoutSeconds, date);
+                    fetchDeadline.cancel();
+                }
+            }, timeoutSeconds, TimeUnit.SECONDS);
+            try {
+                outcome.complete(fetch(source, date, fetchDeadline));
+            } finally {
+                deadline.cancel(false);
+                fetchDeadline.finish();
+            }
+        });
+        return outcome;
+    }
+
+    private ExternalRecordReadResult fetch(ExternalTransactionSource source, LocalDate date, ExternalFetchDeadline deadline) {
+        String name = source.getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            ExternalRecordReadResult result = source.fetch(date, deadline);
+            meterRegistry.counter("wallet.external.source.records", "source", name).increment(result.getRecordsRead());
+            meterRegistry.counter("wallet.external.source.bytes", "source", name).increment(result.getBytesRead());
+            logger.info("Source {} returned {} records ({} new, {} skipped, {} bytes) for date: {}",
+                       name, result.getRecordsRead(), result.getRecordsStaged(), result.getRecordsSkipped(),
+                       result.getBytesRead(), date);
+            return result;
+        } catch (Exception e) {
+            if (deadline.isCancelled()) {
+                outcome = "timeout";
+                logger.warn("Source {} stopped after its deadline for date: {}, its late rows were not staged", name, date);
+                return new ExternalRecordReadResult();
+            }
+            outcome = "error";
+            meterRegistry.counter("wallet.external.source.errors", "source", name, "reason", outcome).increment();
+            logger.error("Source {} failed for date: {}, continuing with the other sources", name, date, e);
+            return new ExternalRecordReadResult();
+        } finally {
+            sample.stop(meterRegistry.timer("wallet.external.source.duration", "source", name, "outcome", outcome));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        deadlines.shutdownNow();
+    }
+}
@@ -0,0 +1,14 @@
+package com.wallet.service;
+
+import com.opencsv.exceptions.CsvException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+public interface ExternalTransactionSource {
+
+    String getName();
+
+    // Sources stage through the deadline so that rows arriving after it are rolled back instead of committed.
+    ExternalRecordReadResult fetch(LocalDate date, ExternalFetchDeadline deadline) throws IOException, CsvException;
+}
@@ -0,0 +1,229 @@
+package com.wallet.service;
+
+import com.opencsv.exceptions.CsvException;
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.ReconciliationDigest;
+import com.wallet.entity.Wallet;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ExternalTransactionStagingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalTransactionStagingService.class);
+
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private static final String COLUMNS =
+            "source, transaction_id, customer_id, shard_bucket, digest_bucket, amount, type, transaction_timestamp, transaction_date, reference";
+
+    private static final String CREATE_LOAD_TABLE =
+            "CREATE TEMP TABLE external_transactions_load (" +
+            "source VARCHAR(100), transaction_id VARCHAR(100), customer_id VARCHAR(100), shard_bucket INTEGER, digest_bucket INTEGER, " +
+            "amount NUMERIC(19,2), type VARCHAR(20), transaction_timestamp TIMESTAMP, transaction_date DATE, reference VARCHAR(255)" +
+            ") ON COMMIT DROP";
+
+    private static final String COPY_LOAD_TABLE =
+            "COPY external_transactions_load (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_LOAD_TABLE =
+            "INSERT INTO external_transactions (" + COLUMNS + ", created_at) " +
+            "SELECT DISTINCT ON (source, transaction_id) " + COLUMNS + ", now() FROM external_transactions_load " +
+            "ORDER BY source, transaction_id " +
+            "ON CONFLICT (source, transaction_id) DO NOTHING " +
+            "RETURNING transaction_id, amount, transaction_timestamp";
+
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO external_transactions (" + COLUMNS + ", created_at) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP " +
+            "WHERE NOT EXISTS (SELECT 1 FROM external_transactions WHERE source = ? AND transaction_id = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReconciliationDigestService digestService;
+
+    @Value("${wallet.external.staging.insert-batch-size:1000}")
+    private int insertBatchSize;
+
+    private volatile Boolean postgres;
+
+    public ExternalRecordReadResult stage(String source, ExternalRecordProducer producer) throws IOException, CsvException {
+        return stage(source, producer, ExternalFetchDeadline.NONE);
+    }
+
+    public ExternalRecordReadResult stage(String source, ExternalRecordProducer producer,
+                                          ExternalFetchDeadline deadline) throws IOException, CsvException {
+        deadline.check();
+        logger.info("Staging external transactions from source: {}", source);
+        long start = System.currentTimeMillis();
+
+        boolean copy = jdbcTemplate.execute((ConnectionCallback<Boolean>) this::isPostgres);
+        long[] staged = new long[1];
+
+        try {
+            // Each batch commits on its own, so an upload holds a connection and its locks for one batch at a time.
+            // A failed upload leaves its earlier batches staged; a rerun skips them as duplicates.
+            ExternalRecordReadResult result = producer.produce(batch -> {
+                deadline.check();
+                if (copy) {
+                    staged[0] += stageInTransaction(deadline, connection -> copyIntoStaging(connection, source, batch));
+                } else {
+                    for (int i = 0; i < batch.size(); i += insertBatchSize) {
+                        List<ExternalTransactionRecord> chunk = batch.subList(i, Math.min(batch.size(), i + insertBatchSize));
+                        staged[0] += insertIntoStaging(source, chunk, deadline);
+                    }
+                }
+            });
+            result.setRecordsStaged(staged[0]);
+
+            logger.info("Staged {} new external transactions from source: {} ({} read, {} skipped) in {} ms",
+                       result.getRecordsStaged(), source, result.getRecordsRead(), result.getRecordsSkipped(),
+                       System.currentTimeMillis() - start);
+            return result;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int stageInTransaction(ExternalFetchDeadline deadline, ConnectionCallback<Integer> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            int staged = jdbcTemplate.execute(work);
+            // A source past its deadline rolls back rather than commit rows the reconciliation may already have read past.
+            deadline.check();
+            return staged;
+        });
+    }
+
+    private int copyIntoStaging(Connection connection, String source, List<ExternalTransactionRecord> batch) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+        // The load table is dropped as the batch commits, so every batch starts from an empty one.
+        try (var statement = connection.createStatement()) {
+            statement.execute(CREATE_LOAD_TABLE);
+        }
+        try {
+            copyManager.copyIn(COPY_LOAD_TABLE, new StringReader(toCopyCsv(source, batch)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Only rows this upload added move the digests; duplicates of earlier uploads are already in them.
+        List<ExternalTransactionRecord> staged = new ArrayList<>();
+        try (var statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(MERGE_LOAD_TABLE)) {
+            while (rs.next()) {
+                staged.add(new ExternalTransactionRecord(rs.getString(1), null, rs.getBigDecimal(2), null,
+                        rs.getTimestamp(3).toLocalDateTime(), null));
+            }
+        }
+        digestService.recordExternal(source, staged);
+        return staged.size();
+    }
+
+    private int insertIntoStaging(String source, List<ExternalTransactionRecord> chunk, ExternalFetchDeadline deadline) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return stageInTransaction(deadline, connection -> insertIfAbsent(connection, source, chunk));
+            } catch (DuplicateKeyException e) {
+                // A concurrent upload of the same source committed one of these rows after the NOT EXISTS check.
+                // The chunk rolled back whole, so retrying it sees that row and skips it.
+                if (attempt >= MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Retrying external transaction chunk from source: {} after a concurrent insert", source);
+            }
+        }
+    }
+
+    private int insertIfAbsent(Connection connection, String source, List<ExternalTransactionRecord> chunk) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_IF_ABSENT)) {
+            for (ExternalTransactionRecord record : chunk) {
+                bindInsert(statement, source, record);
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            List<ExternalTransactionRecord> inserted = new ArrayList<>();
+            for (int row = 0; row < counts.length; row++) {
+                if (counts[row] > 0) {
+                    inserted.add(chunk.get(row));
+                }
+            }
+            digestService.recordExternal(source, inserted);
+            return inserted.size();
+        }
+    }
+
+    private void bindInsert(PreparedStatement statement, String source, ExternalTransactionRecord record) throws SQLException {
+        statement.setString(1, source);
+        statement.setString(2, record.getTransactionId());
+        statement.setString(3, record.getCustomerId());
+        statement.setInt(4, Wallet.shardBucketOf(record.getCustomerId()));
+        statement.setInt(5, ReconciliationDigest.bucketOf(record.getTransactionId()));
+        statement.setBigDecimal(6, record.getAmount());
+        statement.setString(7, record.getType());
+        statement.setTimestamp(8, Timestamp.valueOf(record.getTimestamp()));
+        statement.setDate(9, Date.valueOf(record.getTimestamp().toLocalDate()));
+        statement.setString(10, record.getReference());
+        statement.setString(11, source);
+        statement.setString(12, record.getTransactionId());
+    }
+
+    private String toCopyCsv(String source, List<ExternalTransactionRecord> batch) {
+        StringBuilder csv = new StringBuilder(batch.size() * 128);
+        for (ExternalTransactionRecord record : batch) {
+            appendCsv(csv, source).append(',');
+            appendCsv(csv, record.getTransactionId()).append(',');
+            appendCsv(csv, record.getCustomerId()).append(',');
+            csv.append(Wallet.shardBucketOf(record.getCustomerId())).append(',');
+            csv.append(ReconciliationDigest.bucketOf(record.getTransactionId())).append(',');
+            csv.append(record.getAmount().toPlainString()).append(',');
+            appendCsv(csv, record.getType()).append(',');
+            csv.append(Timestamp.valueOf(record.getTimestamp())).append(',');
+            csv.append(record.getTimestamp().toLocalDate()).append(',');
+            appendCsv(csv, record.getReference()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private StringBuilder appendCsv(StringBuilder csv, String value) {
+        // Unquoted empty fields are NULL in COPY csv format, so every present value is quoted.
+        if (value == null) {
+            return csv;
+        }
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        if (postgres == null) {
+            postgres = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        }
+        return postgres;
+    }
+}
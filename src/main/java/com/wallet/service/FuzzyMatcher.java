@@ -0,0 +1,203 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class FuzzyMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuzzyMatcher.class);
+
+    private static final double AMOUNT_WEIGHT = 0.4;
+    private static final double TIME_WEIGHT = 0.3;
+    private static final double REFERENCE_WEIGHT = 0.3;
+
+    @Value("${wallet.reconciliation.fuzzy.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.reconciliation.fuzzy.time-window-seconds:300}")
+    private long timeWindowSeconds;
+
+    @Value("${wallet.reconciliation.fuzzy.min-confidence:0.6}")
+    private double minConfidence;
+
+    @Value("${wallet.reconciliation.fuzzy.amount-tolerance:0.00}")
+    private BigDecimal amountTolerance;
+
+    public List<FuzzyMatch> match(List<Transaction> unmatchedInternal, List<ExternalTransactionRecord> unmatchedExternal) {
+        List<FuzzyMatch> matches = new ArrayList<>();
+        if (!enabled || unmatchedInternal.isEmpty() || unmatchedExternal.isEmpty()) {
+            return matches;
+        }
+
+        Map<String, CustomerIndex> indexes = buildIndexes(unmatchedExternal);
+        long windowMillis = timeWindowSeconds * 1000;
+
+        List<Transaction> internals = new ArrayList<>(unmatchedInternal);
+        internals.sort(Comparator.comparing(Transaction::getCreatedAt));
+
+        for (Transaction internal : internals) {
+            CustomerIndex index = indexes.get(internal.getWallet().getCustomerId());
+            if (index == null) {
+                continue;
+            }
+
+            long time = toEpochMillis(internal);
+            int best = -1;
+            double bestConfidence = 0;
+
+            // Claimed candidates are linked past, so a crowded window is not rescanned for every internal.
+            for (int i = index.nextUnclaimed(index.lowerBound(time - windowMillis));
+                 i < index.size() && index.times[i] <= time + windowMillis;
+                 i = index.nextUnclaimed(i + 1)) {
+                double confidence = score(internal, index.records.get(i), Math.abs(index.times[i] - time), windowMillis);
+                if (confidence > bestConfidence) {
+                    best = i;
+                    bestConfidence = confidence;
+                }
+            }
+
+            if (best >= 0 && bestConfidence >= minConfidence) {
+                index.claim(best);
+                matches.add(new FuzzyMatch(internal, index.records.get(best), Math.round(bestConfidence * 10000) / 10000.0));
+            }
+        }
+
+        logger.info("Fuzzy matching paired {} of {} unmatched internal transactions", matches.size(), unmatchedInternal.size());
+        return matches;
+    }
+
+    private Map<String, CustomerIndex> buildIndexes(List<ExternalTransactionRecord> externals) {
+        Map<String, List<ExternalTransactionRecord>> byCustomer = new HashMap<>();
+        for (ExternalTransactionRecord external : externals) {
+            if (external.getCustomerId() != null && external.getTimestamp() != null) {
+                byCustomer.computeIfAbsent(external.getCustomerId(), k -> new ArrayList<>()).add(external);
+            }
+        }
+
+        Map<String, CustomerIndex> indexes = new HashMap<>(byCustomer.size() * 2);
+        byCustomer.forEach((customerId, records) -> indexes.put(customerId, new CustomerIndex(records)));
+        return indexes;
+    }
+
+    private double score(Transaction internal, ExternalTransactionRecord external, long deltaMillis, long windowMillis) {
+        BigDecimal difference = internal.getAmount().subtract(external.getAmount()).abs();
+        double amountScore;
+        if (difference.signum() == 0) {
+            amountScore = 1.0;
+        } else if (difference.compareTo(amountTolerance) <= 0) {
+            amountScore = 1.0 - difference.doubleValue() / amountTolerance.doubleValue();
+        } else {
+            return 0;
+        }
+
+        double timeScore = windowMillis == 0 ? 1.0 : 1.0 - (double) deltaMillis / windowMillis;
+        double referenceScore = referencesAgree(internal, external) ? 1.0 : 0.0;
+
+        return AMOUNT_WEIGHT * amountScore + TIME_WEIGHT * timeScore + REFERENCE_WEIGHT * referenceScore;
+    }
+
+    private boolean referencesAgree(Transaction internal, ExternalTransactionRecord external) {
+        if (internal.getTransactionId().equals(external.getReference())) {
+            return true;
+        }
+        String reference = internal.getReference();
+        return reference != null && !reference.isBlank()
+                && (reference.equalsIgnoreCase(external.getReference()) || reference.equals(external.getTransactionId()));
+    }
+
+    private static long toEpochMillis(Transaction transaction) {
+        return transaction.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static class CustomerIndex {
+        private final List<ExternalTransactionRecord> records;
+        private final long[] times;
+        private final int[] next;
+
+        CustomerIndex(List<ExternalTransactionRecord> records) {
+            records.sort(Comparator.comparing(ExternalTransactionRecord::getTimestamp));
+            this.records = records;
+            this.times = new long[records.size()];
+            this.next = new int[records.size() + 1];
+            for (int i = 0; i < times.length; i++) {
+                times[i] = records.get(i).getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            for (int i = 0; i < next.length; i++) {
+                next[i] = i;
+            }
+        }
+
+        int nextUnclaimed(int i) {
+            int root = i;
+            while (next[root] != root) {
+                root = next[root];
+            }
+            // Point the walked run straight at the result, so later lookups skip it in one step.
+            while (next[i] != root) {
+                int following = next[i];
+                next[i] = root;
+                i = following;
+            }
+            return root;
+        }
+
+        void claim(int i) {
+            next[i] = i + 1;
+        }
+
+        int size() {
+            return times.length;
+        }
+
+        int lowerBound(long time) {
+            int low = 0;
+            int high = times.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    public static class FuzzyMatch {
+        private final Transaction internal;
+        private final ExternalTransactionRecord external;
+        private final double confidence;
+
+        public FuzzyMatch(Transaction internal, ExternalTransactionRecord external, double confidence) {
+            this.internal = internal;
+            this.external = external;
+            this.confidence = confidence;
+        }
+
+        public Transaction getInternal() {
+            return internal;
+        }
+
+        public ExternalTransactionRecord getExternal() {
+            return external;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.wallet.service;
+
+import com.opencsv.exceptions.CsvException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "wallet.external.sources.http.enabled", havingValue = "true")
+public class HttpTransactionSource implements ExternalTransactionSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransactionSource.class);
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Autowired
+    private ExternalTransactionStagingService stagingService;
+
+    @Autowired
+    private ExternalJsonStreamReader jsonStreamReader;
+
+    @Value("${wallet.external.sources.http.name:http}")
+    private String name;
+
+    @Value("${wallet.external.sources.http.url}")
+    private String url;
+
+    @Value("${wallet.external.sources.http.page-size:1000}")
+    private int pageSize;
+
+    @Value("${wallet.external.sources.http.request-timeout-seconds:30}")
+    private long requestTimeoutSeconds;
+
+    @Value("${wallet.external.batch-size:500}")
+    private int batchSize;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ExternalRecordReadResult fetch(LocalDate date, ExternalFetchDeadline deadline) throws IOException, CsvException {
+        return stagingService.stage("http:" + name, sink -> {
+            ExternalRecordReadResult result = new ExternalRecordReadResult();
+            String cursor = null;
+            int pages = 0;
+            do {
+                deadline.check();
+                HttpResponse<InputStream> response = send(date, cursor);
+                cursor = response.headers().firstValue(NEXT_CURSOR_HEADER).orElse(null);
+                // Each page is parsed as it arrives and goes straight to staging; pages are never collected in memory.
+                try (CountingInputStream body = new CountingInputStream(response.body())) {
+                    result.merge(jsonStreamReader.read(body, batchSize, sink));
+                    result.addBytesRead(body.getCount());
+                }
+                pages++;
+            } while (cursor != null);
+
+            logger.debug("Fetched {} records in {} pages from {} for date: {}", result.getRecordsRead(), pages, name, date);
+            return result;
+        }, deadline);
+    }
+
+    private HttpResponse<InputStream> send(LocalDate date, String cursor) throws IOException {
+        URI uri = UriComponentsBuilder.fromHttpUrl(url)
+                .queryParam("date", date)
+                .queryParam("limit", pageSize)
+                .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                .build()
+                .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(requestTimeoutSeconds))
+                .header("Accept", "application/x-ndjson")
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + uri);
+        }
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Source " + name + " returned HTTP " + response.statusCode() + " for " + uri);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,108 @@
+package com.wallet.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class IdDictionary {
+
+    private static final int EMPTY = -1;
+
+    private byte[] bytes;
+    private int byteCount;
+    private int[] starts;
+    private int[] slots;
+    private int size;
+
+    public IdDictionary() {
+        this(256);
+    }
+
+    public IdDictionary(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        bytes = new byte[capacity * 16];
+        starts = new int[capacity + 1];
+        slots = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    public int intern(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(encoded);
+        if (slots[slot] != EMPTY) {
+            return slots[slot];
+        }
+
+        int code = append(encoded);
+        slots[slot] = code;
+        // Linear probing degrades quickly past half full.
+        if (size * 2 > slots.length) {
+            rehash(slots.length << 1);
+        }
+        return code;
+    }
+
+    public int find(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        return slots[findSlot(encoded)];
+    }
+
+    public String get(int code) {
+        return new String(bytes, starts[code], starts[code + 1] - starts[code], StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int findSlot(byte[] encoded) {
+        int mask = slots.length - 1;
+        int slot = hash(encoded, 0, encoded.length) & mask;
+        while (slots[slot] != EMPTY && !matches(slots[slot], encoded)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean matches(int code, byte[] encoded) {
+        return Arrays.equals(bytes, starts[code], starts[code + 1], encoded, 0, encoded.length);
+    }
+
+    private int append(byte[] encoded) {
+        if (size + 1 >= starts.length) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+        }
+        if (byteCount + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + encoded.length));
+        }
+
+        System.arraycopy(encoded, 0, bytes, byteCount, encoded.length);
+        int code = size++;
+        starts[code] = byteCount;
+        byteCount += encoded.length;
+        starts[code + 1] = byteCount;
+        return code;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        int mask = capacity - 1;
+        // Hashes are not kept per entry; recomputing them from the arena is cheaper than the memory.
+        for (int code = 0; code < size; code++) {
+            int slot = hash(bytes, starts[code], starts[code + 1]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = code;
+        }
+    }
+
+    private static int hash(byte[] data, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + data[i];
+        }
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
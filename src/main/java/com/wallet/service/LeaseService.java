@@ -0,0 +1,90 @@
+package com.wallet.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Service
+public class LeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${wallet.cluster.node-id:}")
+    private String configuredNodeId;
+
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            nodeId = configuredNodeId;
+        } else {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "node";
+            }
+            nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        logger.info("Cluster node id: {}", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean tryAcquire(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp expiresAt = Timestamp.valueOf(now.plus(ttl));
+
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_leases SET owner = ?, expires_at = ? WHERE name = ? AND (owner = ? OR expires_at < ?)",
+                nodeId, expiresAt, name, nodeId, Timestamp.valueOf(now));
+        if (updated == 1) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_leases (name, owner, expires_at) VALUES (?, ?, ?)",
+                    name, nodeId, expiresAt);
+            logger.info("Acquired new lease: {}", name);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    public boolean renew(String name, Duration ttl) {
+        return jdbcTemplate.update(
+                "UPDATE scheduler_leases SET expires_at = ? WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now().plus(ttl)), name, nodeId) == 1;
+    }
+
+    public int countLive(String prefix) {
+        Integer live = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM scheduler_leases WHERE name LIKE ? AND expires_at > ?",
+                Integer.class, prefix + "%", Timestamp.valueOf(LocalDateTime.now()));
+        return live != null ? live : 0;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update(
+                "UPDATE scheduler_leases SET expires_at = ? WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), name, nodeId);
+    }
+}
@@ -0,0 +1,25 @@
+package com.wallet.service;
+
+import com.opencsv.exceptions.CsvException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+@Component
+public class LocalFileTransactionSource implements ExternalTransactionSource {
+
+    @Autowired
+    private ExternalDataService externalDataService;
+
+    @Override
+    public String getName() {
+        return "local-files";
+    }
+
+    @Override
+    public ExternalRecordReadResult fetch(LocalDate date, ExternalFetchDeadline deadline) throws IOException, CsvException {
+        return externalDataService.stageLocalFiles(date, deadline);
+    }
+}
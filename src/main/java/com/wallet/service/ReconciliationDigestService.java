@@ -0,0 +1,255 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.DigestSide;
+import com.wallet.entity.ReconciliationDigest;
+import com.wallet.entity.Transaction;
+import com.wallet.repository.ReconciliationDigestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+public class ReconciliationDigestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationDigestService.class);
+
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO reconciliation_digests (side, digest_date, digest_bucket, record_count, amount_total, digest_hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (side, digest_date, digest_bucket) DO UPDATE SET " +
+            "record_count = reconciliation_digests.record_count + EXCLUDED.record_count, " +
+            "amount_total = reconciliation_digests.amount_total + EXCLUDED.amount_total, " +
+            "digest_hash = reconciliation_digests.digest_hash # EXCLUDED.digest_hash";
+
+    private static final String UPSERT_MERGE =
+            "MERGE INTO reconciliation_digests d USING (VALUES (CAST(? AS VARCHAR(20)), CAST(? AS DATE), CAST(? AS INTEGER), " +
+            "CAST(? AS BIGINT), CAST(? AS NUMERIC(25,2)), CAST(? AS BIGINT))) " +
+            "AS v (side, digest_date, digest_bucket, record_count, amount_total, digest_hash) " +
+            "ON d.side = v.side AND d.digest_date = v.digest_date AND d.digest_bucket = v.digest_bucket " +
+            "WHEN MATCHED THEN UPDATE SET record_count = d.record_count + v.record_count, " +
+            "amount_total = d.amount_total + v.amount_total, digest_hash = BITXOR(d.digest_hash, v.digest_hash) " +
+            "WHEN NOT MATCHED THEN INSERT (side, digest_date, digest_bucket, record_count, amount_total, digest_hash) " +
+            "VALUES (v.side, v.digest_date, v.digest_bucket, v.record_count, v.amount_total, v.digest_hash)";
+
+    private static final String SUMMARIZE_TRANSACTIONS =
+            "SELECT digest_bucket, COUNT(*), SUM(amount) FROM transactions " +
+            "WHERE created_at >= :start AND created_at < :end GROUP BY digest_bucket";
+
+    private static final String SELECT_TRANSACTIONS =
+            "SELECT transaction_id, amount FROM transactions " +
+            "WHERE created_at >= :start AND created_at < :end AND digest_bucket IN (:buckets)";
+
+    private static final String SELECT_OTHER_SOURCES =
+            "SELECT transaction_id, transaction_date FROM external_transactions " +
+            "WHERE source <> :source AND transaction_id IN (:transactionIds)";
+
+    private static final String DELETE_DIGESTS =
+            "DELETE FROM reconciliation_digests WHERE side = :side AND digest_date = :date AND digest_bucket IN (:buckets)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ReconciliationDigestRepository digestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${wallet.reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    private volatile Boolean postgres;
+
+    public void recordInternal(Transaction transaction) {
+        jdbcTemplate.update(upsertSql(),
+                DigestSide.INTERNAL.name(),
+                Date.valueOf(transaction.getCreatedAt().toLocalDate()),
+                transaction.getDigestBucket(),
+                1,
+                transaction.getAmount(),
+                ReconciliationDigest.hashOf(transaction.getTransactionId(), transaction.getAmount()));
+    }
+
+    public void recordExternal(String source, List<ExternalTransactionRecord> staged) {
+        // Several sources may report the same transaction; reconciliation keeps the one staged first, and so does
+        // the digest. Two sources staging it at the same moment both count, which only marks the bucket dirty.
+        Set<String> reportedElsewhere = new HashSet<>();
+        for (int i = 0; i < staged.size(); i += batchSize) {
+            List<String> transactionIds = staged.subList(i, Math.min(staged.size(), i + batchSize)).stream()
+                    .map(ExternalTransactionRecord::getTransactionId)
+                    .collect(Collectors.toList());
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("source", source)
+                    .addValue("transactionIds", transactionIds);
+            namedParameterJdbcTemplate.query(SELECT_OTHER_SOURCES, params, rs -> {
+                reportedElsewhere.add(rs.getDate(2).toLocalDate() + "|" + rs.getString(1));
+            });
+        }
+
+        Map<LocalDate, BucketTotals> totals = new TreeMap<>();
+        for (ExternalTransactionRecord record : staged) {
+            LocalDate date = record.getTimestamp().toLocalDate();
+            if (!reportedElsewhere.contains(date + "|" + record.getTransactionId())) {
+                totals.computeIfAbsent(date, key -> new BucketTotals()).add(record.getTransactionId(), record.getAmount());
+            }
+        }
+        List<Object[]> rows = new ArrayList<>();
+        totals.forEach((date, bucketTotals) -> rows.addAll(bucketTotals.rows(DigestSide.EXTERNAL, date)));
+        jdbcTemplate.batchUpdate(upsertSql(), rows);
+    }
+
+    public void refreshInternal(LocalDate date) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(date.atStartOfDay()))
+                .addValue("end", Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Rows written without going through the wallet service, or moved across days, leave digests behind;
+            // the per-bucket count and amount give them away without hashing the whole day again.
+            Map<Integer, ReconciliationDigest> digests = byBucket(
+                    digestRepository.findBySideAndDigestDate(DigestSide.INTERNAL, date));
+            Set<Integer> stale = new TreeSet<>(digests.keySet());
+            namedParameterJdbcTemplate.query(SUMMARIZE_TRANSACTIONS, params, rs -> {
+                int bucket = rs.getInt(1);
+                ReconciliationDigest digest = digests.get(bucket);
+                if (digest != null && digest.getRecordCount() == rs.getLong(2)
+                        && digest.getAmountTotal().compareTo(rs.getBigDecimal(3)) == 0) {
+                    stale.remove(bucket);
+                } else {
+                    stale.add(bucket);
+                }
+            });
+            if (stale.isEmpty()) {
+                return;
+            }
+
+            BucketTotals totals = new BucketTotals();
+            params.addValue("buckets", stale);
+            namedParameterJdbcTemplate.query(SELECT_TRANSACTIONS, params, rs -> {
+                totals.add(rs.getString(1), rs.getBigDecimal(2));
+            });
+            namedParameterJdbcTemplate.update(DELETE_DIGESTS, new MapSqlParameterSource()
+                    .addValue("side", DigestSide.INTERNAL.name())
+                    .addValue("date", Date.valueOf(date))
+                    .addValue("buckets", stale));
+            jdbcTemplate.batchUpdate(upsertSql(), totals.rows(DigestSide.INTERNAL, date));
+
+            logger.info("Rebuilt internal reconciliation digests of {} buckets for date: {}", stale.size(), date);
+        });
+    }
+
+    public DigestComparison compare(LocalDate date) {
+        Map<Integer, ReconciliationDigest> internal = byBucket(digestRepository.findBySideAndDigestDate(DigestSide.INTERNAL, date));
+        Map<Integer, ReconciliationDigest> external = byBucket(digestRepository.findBySideAndDigestDate(DigestSide.EXTERNAL, date));
+
+        DigestComparison comparison = new DigestComparison();
+        Set<Integer> buckets = new TreeSet<>(internal.keySet());
+        buckets.addAll(external.keySet());
+        for (Integer bucket : buckets) {
+            ReconciliationDigest ours = internal.get(bucket);
+            ReconciliationDigest theirs = external.get(bucket);
+            if (ours != null && theirs != null && ours.getRecordCount() == theirs.getRecordCount()
+                    && ours.getDigestHash() == theirs.getDigestHash()
+                    && ours.getAmountTotal().compareTo(theirs.getAmountTotal()) == 0) {
+                comparison.cleanRecords += ours.getRecordCount();
+                comparison.cleanAmount = comparison.cleanAmount.add(ours.getAmountTotal());
+            } else {
+                comparison.dirtyBuckets.add(bucket);
+            }
+        }
+        return comparison;
+    }
+
+    private Map<Integer, ReconciliationDigest> byBucket(List<ReconciliationDigest> digests) {
+        Map<Integer, ReconciliationDigest> map = new HashMap<>();
+        for (ReconciliationDigest digest : digests) {
+            map.put(digest.getDigestBucket(), digest);
+        }
+        return map;
+    }
+
+    private String upsertSql() {
+        return isPostgres() ? UPSERT_POSTGRES : UPSERT_MERGE;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())));
+        }
+        return postgres;
+    }
+
+    private static class BucketTotals {
+        private final long[] counts = new long[ReconciliationDigest.BUCKETS];
+        private final long[] hashes = new long[ReconciliationDigest.BUCKETS];
+        private final BigDecimal[] amounts = new BigDecimal[ReconciliationDigest.BUCKETS];
+
+        BucketTotals() {
+            Arrays.fill(amounts, BigDecimal.ZERO);
+        }
+
+        void add(String transactionId, BigDecimal amount) {
+            int bucket = ReconciliationDigest.bucketOf(transactionId);
+            counts[bucket]++;
+            hashes[bucket] ^= ReconciliationDigest.hashOf(transactionId, amount);
+            amounts[bucket] = amounts[bucket].add(amount);
+        }
+
+        List<Object[]> rows(DigestSide side, LocalDate date) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int bucket = 0; bucket < ReconciliationDigest.BUCKETS; bucket++) {
+                if (counts[bucket] > 0) {
+                    rows.add(new Object[] {side.name(), Date.valueOf(date), bucket, counts[bucket], amounts[bucket], hashes[bucket]});
+                }
+            }
+            return rows;
+        }
+    }
+
+    public static class DigestComparison {
+        private final Set<Integer> dirtyBuckets = new TreeSet<>();
+        private long cleanRecords;
+        private BigDecimal cleanAmount = BigDecimal.ZERO;
+
+        public Set<Integer> getDirtyBuckets() {
+            return dirtyBuckets;
+        }
+
+        public long getCleanRecords() {
+            return cleanRecords;
+        }
+
+        public BigDecimal getCleanAmount() {
+            return cleanAmount;
+        }
+    }
+}
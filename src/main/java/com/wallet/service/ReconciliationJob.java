@@ -0,0 +1,120 @@
+package com.wallet.service;
+
+import com.wallet.dto.ReconciliationReportResponse;
+import com.wallet.entity.ReconciliationJobStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public class ReconciliationJob implements ReconciliationProgressListener {
+
+    private final String id;
+    private final LocalDate date;
+    private final LocalDateTime submittedAt;
+    private final CompletableFuture<ReconciliationReportResponse> result = new CompletableFuture<>();
+
+    private volatile ReconciliationJobStatus status = ReconciliationJobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long expectedRecords = -1;
+    private volatile long processedRecords;
+    private volatile String error;
+
+    public ReconciliationJob(LocalDate date) {
+        this.id = UUID.randomUUID().toString();
+        this.date = date;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        status = ReconciliationJobStatus.RUNNING;
+    }
+
+    void completed(ReconciliationReportResponse report) {
+        finishedAt = LocalDateTime.now();
+        status = ReconciliationJobStatus.COMPLETED;
+        result.complete(report);
+    }
+
+    void failed(Throwable cause) {
+        finishedAt = LocalDateTime.now();
+        error = cause.getMessage();
+        status = ReconciliationJobStatus.FAILED;
+        result.completeExceptionally(cause);
+    }
+
+    @Override
+    public void onStart(long expectedRecords) {
+        this.expectedRecords = expectedRecords;
+    }
+
+    @Override
+    public void onProgress(long processedRecords) {
+        this.processedRecords = processedRecords;
+    }
+
+    public Double getThroughputPerSecond() {
+        if (startedAt == null) {
+            return null;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return processedRecords * 1000.0 / millis;
+    }
+
+    public Long getEtaSeconds() {
+        Double throughput = getThroughputPerSecond();
+        if (status != ReconciliationJobStatus.RUNNING || expectedRecords < 0 || throughput == null || throughput <= 0) {
+            return null;
+        }
+        return (long) Math.ceil(Math.max(0, expectedRecords - processedRecords) / throughput);
+    }
+
+    public boolean isFinished() {
+        return status == ReconciliationJobStatus.COMPLETED || status == ReconciliationJobStatus.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public CompletableFuture<ReconciliationReportResponse> getResult() {
+        return result;
+    }
+
+    public ReconciliationJobStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getExpectedRecords() {
+        return expectedRecords;
+    }
+
+    public long getProcessedRecords() {
+        return processedRecords;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
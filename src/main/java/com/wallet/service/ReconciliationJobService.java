@@ -0,0 +1,148 @@
+package com.wallet.service;
+
+import com.wallet.dto.ReconciliationJobResponse;
+import com.wallet.dto.ReconciliationReportResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Service
+public class ReconciliationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationJobService.class);
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Value("${wallet.reconciliation.jobs.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${wallet.reconciliation.jobs.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${wallet.reconciliation.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, ReconciliationJob> jobs = new ConcurrentHashMap<>();
+    private final Map<LocalDate, ReconciliationJob> inFlight = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Each running job holds at most one connection at a time, so the pool size is the jobs' connection budget.
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "reconciliation-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public ReconciliationJob submit(LocalDate date) {
+        return submit(date, job -> reconciliationService.generateReconciliationReport(job.getDate(), job));
+    }
+
+    public CompletableFuture<List<ReconciliationReportResponse>> submitRange(LocalDate from, LocalDate to) {
+        // Days run one after another as ordinary jobs, so each holds one pool thread at a time and shows up under /jobs.
+        logger.info("Queued range reconciliation from {} to {}", from, to);
+        CompletableFuture<List<ReconciliationReportResponse>> chain = CompletableFuture.completedFuture(new ArrayList<>());
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            LocalDate day = date;
+            chain = chain.thenCompose(reports -> submit(day, job -> reconciliationService.generateRangeDayReport(job.getDate(), job))
+                    .getResult()
+                    .thenApply(report -> {
+                        reports.add(report);
+                        return reports;
+                    }));
+        }
+        return chain;
+    }
+
+    private ReconciliationJob submit(LocalDate date, Function<ReconciliationJob, ReconciliationReportResponse> work) {
+        // Requests for a date that is already queued or running attach to that job.
+        return inFlight.computeIfAbsent(date, key -> {
+            ReconciliationJob job = new ReconciliationJob(key);
+            jobs.put(job.getId(), job);
+            try {
+                executor.execute(() -> run(job, work));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            logger.info("Queued reconciliation job {} for date: {}", job.getId(), key);
+            return job;
+        });
+    }
+
+    public Optional<ReconciliationJob> findInFlight(LocalDate date) {
+        return Optional.ofNullable(inFlight.get(date));
+    }
+
+    public Optional<ReconciliationJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public ReconciliationJobResponse getJobStatus(ReconciliationJob job) {
+        ReconciliationJobResponse response = new ReconciliationJobResponse();
+        response.setJobId(job.getId());
+        response.setDate(job.getDate());
+        response.setStatus(job.getStatus());
+        response.setExpectedRecords(job.getExpectedRecords() >= 0 ? job.getExpectedRecords() : null);
+        response.setRecordsProcessed(job.getProcessedRecords());
+        response.setThroughputPerSecond(job.getThroughputPerSecond());
+        response.setEtaSeconds(job.getEtaSeconds());
+        response.setSubmittedAt(job.getSubmittedAt());
+        response.setStartedAt(job.getStartedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        response.setError(job.getError());
+        return response;
+    }
+
+    private void run(ReconciliationJob job, Function<ReconciliationJob, ReconciliationReportResponse> work) {
+        job.started();
+        try {
+            ReconciliationReportResponse report = work.apply(job);
+            job.completed(report);
+            logger.info("Reconciliation job {} for date: {} completed, {} records processed at {} records/s",
+                       job.getId(), job.getDate(), job.getProcessedRecords(),
+                       String.format("%.1f", job.getThroughputPerSecond()));
+        } catch (Exception e) {
+            logger.error("Reconciliation job {} for date: {} failed", job.getId(), job.getDate(), e);
+            job.failed(e);
+        } finally {
+            inFlight.remove(job.getDate(), job);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,235 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.ReconciliationNote;
+import com.wallet.entity.ReconciliationRecord;
+import com.wallet.entity.ReconciliationStatus;
+import com.wallet.entity.Transaction;
+import com.wallet.service.FuzzyMatcher.FuzzyMatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class ReconciliationMatcher {
+
+    @Autowired
+    private FuzzyMatcher fuzzyMatcher;
+
+    public MatchResult match(LocalDate date,
+                             List<Transaction> internalTransactions,
+                             List<ExternalTransactionRecord> externalTransactions) {
+        return applyFuzzyMatching(date, matchExact(date, internalTransactions, externalTransactions));
+    }
+
+    public MatchResult matchExact(LocalDate date,
+                                  List<Transaction> internalTransactions,
+                                  List<ExternalTransactionRecord> externalTransactions) {
+
+        List<ReconciliationRecord> records = new ArrayList<>();
+        List<Transaction> unmatchedInternal = new ArrayList<>();
+        List<ExternalTransactionRecord> unmatchedExternal = new ArrayList<>();
+
+        Map<String, Transaction> internalMap = internalTransactions.stream()
+                .collect(Collectors.toMap(Transaction::getTransactionId, t -> t));
+
+        Map<String, ExternalTransactionRecord> externalMap = externalTransactions.stream()
+                .collect(Collectors.toMap(ExternalTransactionRecord::getTransactionId, t -> t, (first, duplicate) -> first));
+
+        for (Transaction internal : internalTransactions) {
+            ExternalTransactionRecord external = externalMap.get(internal.getTransactionId());
+
+            if (external == null) {
+                unmatchedInternal.add(internal);
+            } else {
+                records.add(pairedRecord(date, internal.getTransactionId(), external.getTransactionId(),
+                                         internal.getAmount(), external.getAmount()));
+            }
+        }
+
+        for (ExternalTransactionRecord external : externalMap.values()) {
+            if (!internalMap.containsKey(external.getTransactionId())) {
+                unmatchedExternal.add(external);
+            }
+        }
+
+        return new MatchResult(records, unmatchedInternal, unmatchedExternal);
+    }
+
+    public MatchResult applyFuzzyMatching(LocalDate date, MatchResult exact) {
+        List<Transaction> unmatchedInternal = exact.getUnmatchedInternal();
+        List<ExternalTransactionRecord> unmatchedExternal = exact.getUnmatchedExternal();
+
+        List<FuzzyMatch> fuzzyMatches = fuzzyMatcher.match(unmatchedInternal, unmatchedExternal);
+        if (fuzzyMatches.isEmpty()) {
+            return exact;
+        }
+
+        List<ReconciliationRecord> records = new ArrayList<>(exact.getRecords());
+        Set<Object> fuzzyMatched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (FuzzyMatch match : fuzzyMatches) {
+            records.add(fuzzyMatchedRecord(date, match));
+            fuzzyMatched.add(match.getInternal());
+            fuzzyMatched.add(match.getExternal());
+        }
+
+        unmatchedInternal.removeIf(fuzzyMatched::contains);
+        unmatchedExternal.removeIf(fuzzyMatched::contains);
+        return new MatchResult(records, unmatchedInternal, unmatchedExternal);
+    }
+
+    public ReconciliationRecord fuzzyMatchedRecord(LocalDate date, FuzzyMatch match) {
+        ReconciliationRecord record = new ReconciliationRecord(
+            date,
+            match.getInternal().getTransactionId(),
+            match.getExternal().getTransactionId(),
+            match.getInternal().getAmount(),
+            match.getExternal().getAmount(),
+            ReconciliationStatus.FUZZY_MATCHED
+        );
+        record.setConfidence(match.getConfidence());
+        record.setNoteCode(ReconciliationNote.FUZZY_MATCH);
+        return record;
+    }
+
+    public List<ReconciliationRecord> missingRecords(LocalDate date,
+                                                     List<Transaction> unmatchedInternal,
+                                                     List<ExternalTransactionRecord> unmatchedExternal) {
+        List<ReconciliationRecord> records = new ArrayList<>(unmatchedInternal.size() + unmatchedExternal.size());
+
+        for (Transaction internal : unmatchedInternal) {
+            records.add(missingExternalRecord(date, internal.getTransactionId(), internal.getAmount()));
+        }
+
+        for (ExternalTransactionRecord external : unmatchedExternal) {
+            records.add(missingInternalRecord(date, external.getTransactionId(), external.getAmount()));
+        }
+
+        return records;
+    }
+
+    public List<ReconciliationRecord> matchExact(LocalDate date, ColumnarBatch internal, ColumnarBatch external) {
+        List<ReconciliationRecord> records = new ArrayList<>(internal.size());
+
+        for (int row = 0; row < internal.size(); row++) {
+            int externalRow = external.rowOf(internal.idCode(row));
+            if (externalRow < 0) {
+                records.add(missingExternalRecord(date, internal.transactionId(row), internal.amount(row)));
+            } else {
+                records.add(pairedRecord(date, internal.transactionId(row), external.transactionId(externalRow),
+                                         internal.amount(row), external.amount(externalRow)));
+            }
+        }
+
+        return records;
+    }
+
+    public ReconciliationRecord pairedRecord(LocalDate date, String internalTransactionId, String externalTransactionId,
+                                             BigDecimal internalAmount, BigDecimal externalAmount) {
+        ReconciliationStatus status = ReconciliationStatus.MATCHED;
+        ReconciliationNote noteCode = null;
+
+        if (internalAmount.compareTo(externalAmount) != 0) {
+            status = ReconciliationStatus.AMOUNT_MISMATCH;
+            noteCode = ReconciliationNote.AMOUNT_MISMATCH;
+        }
+
+        ReconciliationRecord record = new ReconciliationRecord(
+            date,
+            internalTransactionId,
+            externalTransactionId,
+            internalAmount,
+            externalAmount,
+            status
+        );
+        record.setNoteCode(noteCode);
+        return record;
+    }
+
+    public ReconciliationRecord missingExternalRecord(LocalDate date, String transactionId, BigDecimal amount) {
+        ReconciliationRecord record = new ReconciliationRecord(
+            date,
+            transactionId,
+            null,
+            amount,
+            null,
+            ReconciliationStatus.MISSING_EXTERNAL
+        );
+        record.setNoteCode(ReconciliationNote.MISSING_EXTERNAL);
+        return record;
+    }
+
+    public ReconciliationRecord missingInternalRecord(LocalDate date, String transactionId, BigDecimal amount) {
+        ReconciliationRecord record = new ReconciliationRecord(
+            date,
+            null,
+            transactionId,
+            null,
+            amount,
+            ReconciliationStatus.MISSING_INTERNAL
+        );
+        record.setNoteCode(ReconciliationNote.MISSING_INTERNAL);
+        return record;
+    }
+
+    public String renderNotes(ReconciliationRecord record) {
+        return renderNotes(record.getNoteCode(), record.getNotes(),
+                           record.getInternalAmount(), record.getExternalAmount(), record.getConfidence());
+    }
+
+    public String renderNotes(ReconciliationNote noteCode, String notes,
+                              BigDecimal internalAmount, BigDecimal externalAmount, Double confidence) {
+        // Records written before note codes existed carry their text in the notes column.
+        if (noteCode == null) {
+            return notes;
+        }
+
+        switch (noteCode) {
+            case AMOUNT_MISMATCH:
+                return String.format("Amount mismatch - Internal: %s, External: %s", internalAmount, externalAmount);
+            case MISSING_EXTERNAL:
+                return "Internal transaction not found in external system";
+            case MISSING_INTERNAL:
+                return "External transaction not found in internal system";
+            case FUZZY_MATCH:
+                return String.format("Matched on customer, amount and time window with confidence %.4f", confidence);
+            default:
+                return null;
+        }
+    }
+
+    public static class MatchResult {
+        private final List<ReconciliationRecord> records;
+        private final List<Transaction> unmatchedInternal;
+        private final List<ExternalTransactionRecord> unmatchedExternal;
+
+        public MatchResult(List<ReconciliationRecord> records,
+                           List<Transaction> unmatchedInternal,
+                           List<ExternalTransactionRecord> unmatchedExternal) {
+            this.records = records;
+            this.unmatchedInternal = unmatchedInternal;
+            this.unmatchedExternal = unmatchedExternal;
+        }
+
+        public List<ReconciliationRecord> getRecords() {
+            return records;
+        }
+
+        public List<Transaction> getUnmatchedInternal() {
+            return unmatchedInternal;
+        }
+
+        public List<ExternalTransactionRecord> getUnmatchedExternal() {
+            return unmatchedExternal;
+        }
+    }
+}
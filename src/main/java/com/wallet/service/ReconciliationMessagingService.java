@@ -1,30 +1,42 @@
 package com.wallet.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wallet.dto.ReconciliationReportResponse;
+import com.wallet.dto.ReconciliationReportResponse.ReconciliationDetail;
+import com.wallet.entity.ReconciliationRecord;
+import com.wallet.entity.ReconciliationStatus;
+import com.wallet.messaging.WalletEventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
 @Service
 public class ReconciliationMessagingService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReconciliationMessagingService.class);
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private WalletEventBus eventBus;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ReconciliationMatcher reconciliationMatcher;
+
+    @Value("${wallet.reconciliation.detail-stream.enabled:true}")
+    private boolean detailStreamEnabled;
 
-    @Value("${wallet.rabbitmq.exchanges.wallet-exchange}")
-    private String walletExchange;
+    @Value("${wallet.reconciliation.detail-stream.chunk-records:500}")
+    private int detailChunkRecords;
 
-    @Value("${wallet.rabbitmq.routing-keys.reconciliation}")
-    private String reconciliationRoutingKey;
+    @Value("${wallet.reconciliation.detail-stream.include-matched:false}")
+    private boolean detailStreamIncludeMatched;
 
     public void sendReconciliationReport(ReconciliationReportResponse report) {
         try {
@@ -35,15 +47,15 @@ public class ReconciliationMessagingService {
                 report.getSummary().getMissingInternalRecords(),
                 report.getSummary().getMissingExternalRecords(),
                 report.getSummary().getAmountMismatchRecords(),
+                report.getSummary().getFuzzyMatchedRecords(),
                 report.getSummary().getTotalInternalAmount(),
                 report.getSummary().getTotalExternalAmount(),
                 report.getSummary().getDiscrepancyAmount(),
                 System.currentTimeMillis()
             );
+            message.setFailedShards(report.getFailedShards());
             
-            String messageJson = objectMapper.writeValueAsString(message);
-            
-            rabbitTemplate.convertAndSend(walletExchange, reconciliationRoutingKey, messageJson);
+            eventBus.publishReconciliationReport(message);
             
             logger.info("Reconciliation report message sent for date: {}", report.getReconciliationDate());
             
@@ -52,6 +64,227 @@ public class ReconciliationMessagingService {
         }
     }
 
+    public ReconciliationDetailStream openDetailStream(LocalDate date, int bucketStart, int bucketEnd, boolean resumed) {
+        return new ReconciliationDetailStream(date, bucketStart, bucketEnd, resumed);
+    }
+
+    public boolean isDetailStreamEnabled() {
+        return detailStreamEnabled;
+    }
+
+    private ReconciliationDetail convertToDetail(ReconciliationRecord record) {
+        ReconciliationDetail detail = new ReconciliationDetail();
+        detail.setReconciliationDate(record.getReconciliationDate());
+        detail.setInternalTransactionId(record.getInternalTransactionId());
+        detail.setExternalTransactionId(record.getExternalTransactionId());
+        detail.setInternalAmount(record.getInternalAmount());
+        detail.setExternalAmount(record.getExternalAmount());
+        detail.setStatus(record.getStatus());
+        detail.setNotes(reconciliationMatcher.renderNotes(record));
+        detail.setConfidence(record.getConfidence());
+        return detail;
+    }
+
+    public class ReconciliationDetailStream {
+        private final String streamId = UUID.randomUUID().toString();
+        private final LocalDate date;
+        private final int bucketStart;
+        private final int bucketEnd;
+        private final boolean resumed;
+        private final Map<String, Long> statusCounts = new TreeMap<>();
+        private List<ReconciliationDetail> buffer = new ArrayList<>();
+        private int sequence;
+        private long recordCount;
+
+        private ReconciliationDetailStream(LocalDate date, int bucketStart, int bucketEnd, boolean resumed) {
+            this.date = date;
+            this.bucketStart = bucketStart;
+            this.bucketEnd = bucketEnd;
+            this.resumed = resumed;
+        }
+
+        public void add(List<ReconciliationRecord> records) {
+            if (!detailStreamEnabled) {
+                return;
+            }
+            for (ReconciliationRecord record : records) {
+                if (record.getStatus() == ReconciliationStatus.MATCHED && !detailStreamIncludeMatched) {
+                    continue;
+                }
+                buffer.add(convertToDetail(record));
+                statusCounts.merge(record.getStatus().name(), 1L, Long::sum);
+                recordCount++;
+                if (buffer.size() >= detailChunkRecords) {
+                    sendChunk();
+                }
+            }
+        }
+
+        public void finish() {
+            if (!detailStreamEnabled) {
+                return;
+            }
+            if (!buffer.isEmpty()) {
+                sendChunk();
+            }
+            ReconciliationDetailMessage manifest = message(ReconciliationDetailMessage.MANIFEST);
+            manifest.setChunkCount(sequence);
+            manifest.setRecordCount(recordCount);
+            manifest.setStatusCounts(statusCounts);
+            manifest.setResumed(resumed);
+            send(manifest);
+            logger.info("Reconciliation detail stream {} for date: {} sent {} records in {} chunks",
+                       streamId, date, recordCount, sequence);
+        }
+
+        private void sendChunk() {
+            ReconciliationDetailMessage chunk = message(ReconciliationDetailMessage.CHUNK);
+            chunk.setSequence(sequence++);
+            chunk.setDetails(buffer);
+            buffer = new ArrayList<>();
+            send(chunk);
+        }
+
+        private ReconciliationDetailMessage message(String type) {
+            ReconciliationDetailMessage message = new ReconciliationDetailMessage();
+            message.setStreamId(streamId);
+            message.setType(type);
+            message.setReconciliationDate(date.toString());
+            message.setBucketStart(bucketStart);
+            message.setBucketEnd(bucketEnd);
+            message.setTimestamp(System.currentTimeMillis());
+            return message;
+        }
+
+        private void send(ReconciliationDetailMessage message) {
+            // A lost chunk leaves a gap in the sequence, which the manifest's chunk count lets consumers detect.
+            try {
+                eventBus.publishReconciliationDetails(message);
+            } catch (Exception e) {
+                logger.error("Failed to send reconciliation detail {} {} of stream {}",
+                            message.getType(), message.getSequence(), streamId, e);
+            }
+        }
+    }
+
+    public static class ReconciliationDetailMessage {
+        public static final String CHUNK = "CHUNK";
+        public static final String MANIFEST = "MANIFEST";
+
+        private String streamId;
+        private String type;
+        private String reconciliationDate;
+        private int bucketStart;
+        private int bucketEnd;
+        private Integer sequence;
+        private List<ReconciliationDetail> details;
+        private Integer chunkCount;
+        private Long recordCount;
+        private Map<String, Long> statusCounts;
+        private boolean resumed;
+        private long timestamp;
+
+        public ReconciliationDetailMessage() {
+        }
+
+        // Getters and setters
+        public String getStreamId() {
+            return streamId;
+        }
+
+        public void setStreamId(String streamId) {
+            this.streamId = streamId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getReconciliationDate() {
+            return reconciliationDate;
+        }
+
+        public void setReconciliationDate(String reconciliationDate) {
+            this.reconciliationDate = reconciliationDate;
+        }
+
+        public int getBucketStart() {
+            return bucketStart;
+        }
+
+        public void setBucketStart(int bucketStart) {
+            this.bucketStart = bucketStart;
+        }
+
+        public int getBucketEnd() {
+            return bucketEnd;
+        }
+
+        public void setBucketEnd(int bucketEnd) {
+            this.bucketEnd = bucketEnd;
+        }
+
+        public Integer getSequence() {
+            return sequence;
+        }
+
+        public void setSequence(Integer sequence) {
+            this.sequence = sequence;
+        }
+
+        public List<ReconciliationDetail> getDetails() {
+            return details;
+        }
+
+        public void setDetails(List<ReconciliationDetail> details) {
+            this.details = details;
+        }
+
+        public Integer getChunkCount() {
+            return chunkCount;
+        }
+
+        public void setChunkCount(Integer chunkCount) {
+            this.chunkCount = chunkCount;
+        }
+
+        public Long getRecordCount() {
+            return recordCount;
+        }
+
+        public void setRecordCount(Long recordCount) {
+            this.recordCount = recordCount;
+        }
+
+        public Map<String, Long> getStatusCounts() {
+            return statusCounts;
+        }
+
+        public void setStatusCounts(Map<String, Long> statusCounts) {
+            this.statusCounts = statusCounts;
+        }
+
+        public boolean isResumed() {
+            return resumed;
+        }
+
+        public void setResumed(boolean resumed) {
+            this.resumed = resumed;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+
     public static class ReconciliationReportMessage {
         private String reconciliationDate;
         private int totalRecords;
@@ -59,17 +292,19 @@ public class ReconciliationMessagingService {
         private int missingInternalRecords;
         private int missingExternalRecords;
         private int amountMismatchRecords;
+        private int fuzzyMatchedRecords;
         private Object totalInternalAmount;
         private Object totalExternalAmount;
         private Object discrepancyAmount;
         private long timestamp;
+        private List<Integer> failedShards;
 
         public ReconciliationReportMessage() {
         }
 
         public ReconciliationReportMessage(String reconciliationDate, int totalRecords, int matchedRecords, 
                                          int missingInternalRecords, int missingExternalRecords, 
-                                         int amountMismatchRecords, Object totalInternalAmount, 
+                                         int amountMismatchRecords, int fuzzyMatchedRecords, Object totalInternalAmount, 
                                          Object totalExternalAmount, Object discrepancyAmount, long timestamp) {
             this.reconciliationDate = reconciliationDate;
             this.totalRecords = totalRecords;
@@ -77,6 +312,7 @@ public class ReconciliationMessagingService {
             this.missingInternalRecords = missingInternalRecords;
             this.missingExternalRecords = missingExternalRecords;
             this.amountMismatchRecords = amountMismatchRecords;
+            this.fuzzyMatchedRecords = fuzzyMatchedRecords;
             this.totalInternalAmount = totalInternalAmount;
             this.totalExternalAmount = totalExternalAmount;
             this.discrepancyAmount = discrepancyAmount;
@@ -132,6 +368,14 @@ public class ReconciliationMessagingService {
             this.amountMismatchRecords = amountMismatchRecords;
         }
 
+        public int getFuzzyMatchedRecords() {
+            return fuzzyMatchedRecords;
+        }
+
+        public void setFuzzyMatchedRecords(int fuzzyMatchedRecords) {
+            this.fuzzyMatchedRecords = fuzzyMatchedRecords;
+        }
+
         public Object getTotalInternalAmount() {
             return totalInternalAmount;
         }
@@ -163,5 +407,13 @@ public class ReconciliationMessagingService {
         public void setTimestamp(long timestamp) {
             this.timestamp = timestamp;
         }
+
+        public List<Integer> getFailedShards() {
+            return failedShards;
+        }
+
+        public void setFailedShards(List<Integer> failedShards) {
+            this.failedShards = failedShards;
+        }
     }
 }
\ No newline at end of file
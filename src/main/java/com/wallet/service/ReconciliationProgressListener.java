@@ -0,0 +1,13 @@
+package com.wallet.service;
+
+public interface ReconciliationProgressListener {
+
+    ReconciliationProgressListener NONE = new ReconciliationProgressListener() {
+    };
+
+    default void onStart(long expectedRecords) {
+    }
+
+    default void onProgress(long processedRecords) {
+    }
+}
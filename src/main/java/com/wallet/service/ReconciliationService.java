@@ -1,34 +1,61 @@
 package com.wallet.service;
 
 import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.dto.ReconciliationRecordPage;
 import com.wallet.dto.ReconciliationReportResponse;
 import com.wallet.dto.ReconciliationReportResponse.ReconciliationDetail;
 import com.wallet.dto.ReconciliationReportResponse.ReconciliationSummary;
+import com.wallet.entity.ReconciliationCheckpoint;
+import com.wallet.entity.ReconciliationPhase;
 import com.wallet.entity.ReconciliationRecord;
 import com.wallet.entity.ReconciliationStatus;
 import com.wallet.entity.Transaction;
+import com.wallet.entity.Wallet;
+import com.wallet.exception.WalletException;
+import com.wallet.repository.ExternalTransactionRepository;
+import com.wallet.repository.ReconciliationAggregateRepository;
+import com.wallet.repository.ReconciliationCheckpointRepository;
+import com.wallet.repository.ReconciliationRecordView;
 import com.wallet.repository.ReconciliationRepository;
 import com.wallet.repository.TransactionRepository;
+import com.wallet.service.ReconciliationMatcher.MatchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ReconciliationService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReconciliationService.class);
+    private static final String CURSOR_STORED = "S";
+    private static final String CURSOR_MATCHED = "M";
 
     @Autowired
     private TransactionRepository transactionRepository;
@@ -36,29 +63,59 @@ public class ReconciliationService {
     @Autowired
     private ReconciliationRepository reconciliationRepository;
 
+    @Autowired
+    private ReconciliationAggregateRepository aggregateRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ExternalTransactionRepository externalTransactionRepository;
+
     @Autowired
     private ExternalDataService externalDataService;
 
+    @Autowired
+    private ExternalSourceFetcher externalSourceFetcher;
+
     @Autowired
     private ReconciliationMessagingService messagingService;
 
-    public ReconciliationReportResponse generateReconciliationReport(LocalDate date) {
-        logger.info("Generating reconciliation report for date: {}", date);
+    @Autowired
+    private ReconciliationMatcher reconciliationMatcher;
 
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(23, 59, 59);
+    @Autowired
+    private ChunkedReconciliationRunner chunkedRunner;
 
-        List<Transaction> internalTransactions = transactionRepository.findByDateRange(startOfDay, endOfDay);
-        List<ExternalTransactionRecord> externalTransactions = externalDataService.getExternalTransactions(date);
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
-        List<ReconciliationRecord> reconciliationRecords = performReconciliation(date, internalTransactions, externalTransactions);
+    @Value("${wallet.reconciliation.range.overlap-seconds:300}")
+    private long rangeOverlapSeconds;
 
-        ReconciliationSummary summary = generateSummary(reconciliationRecords, internalTransactions, externalTransactions);
-        List<ReconciliationDetail> details = convertToDetails(reconciliationRecords);
+    @Value("${wallet.reconciliation.storage.compact:true}")
+    private boolean compactStorage;
 
-        logger.info("Reconciliation report generated for date: {} with {} records", date, reconciliationRecords.size());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReconciliationReportResponse generateReconciliationReport(LocalDate date) {
+        return generateReconciliationReport(date, ReconciliationProgressListener.NONE);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReconciliationReportResponse generateReconciliationReport(LocalDate date, ReconciliationProgressListener listener) {
+        logger.info("Generating reconciliation report for date: {}", date);
+
+        externalSourceFetcher.fetchAll(date);
+        listener.onStart(transactionRepository.countInWindow(date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                         + externalTransactionRepository.countByTransactionDate(date));
+        ReconciliationCheckpoint checkpoint = chunkedRunner.run(date, 0, Wallet.SHARD_BUCKETS, true, () -> true, listener);
+
+        ReconciliationSummary summary = generateSummary(checkpoint);
+
+        logger.info("Reconciliation report generated for date: {} with {} records", date, checkpoint.getTotalRecords());
         
-        ReconciliationReportResponse response = new ReconciliationReportResponse(date, summary, details);
+        // Details are paged through findRecords rather than embedded in the report.
+        ReconciliationReportResponse response = new ReconciliationReportResponse(date, summary, null);
         
         // Send reconciliation report to message queue
         messagingService.sendReconciliationReport(response);
@@ -66,84 +123,187 @@ public class ReconciliationService {
         return response;
     }
 
-    @Scheduled(cron = "${wallet.reconciliation.schedule.cron}")
-    public void performDailyReconciliation() {
-        LocalDate yesterday = LocalDate.now().minusDays(1);
-        logger.info("Starting daily reconciliation for: {}", yesterday);
-        
-        try {
-            generateReconciliationReport(yesterday);
-            logger.info("Daily reconciliation completed successfully for: {}", yesterday);
-        } catch (Exception e) {
-            logger.error("Daily reconciliation failed for: {}", yesterday, e);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int reconcileShard(LocalDate date, int bucketStart, int bucketEnd, BooleanSupplier chunkGuard) {
+        logger.info("Reconciling shard buckets [{}, {}) for date: {}", bucketStart, bucketEnd, date);
+
+        return chunkedRunner.run(date, bucketStart, bucketEnd, false, chunkGuard).getTotalRecords();
+    }
+
+    public ReconciliationReportResponse publishStoredReport(LocalDate date) {
+        return publishStoredReport(date, new ArrayList<>());
+    }
+
+    public ReconciliationReportResponse publishStoredReport(LocalDate date, List<Integer> failedShards) {
+        ReconciliationReportResponse response =
+                new ReconciliationReportResponse(date, summarizeStored(storedStatusRows(date)), new ArrayList<>());
+        response.setFailedShards(failedShards);
+        messagingService.sendReconciliationReport(response);
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ReconciliationSummary> findStoredSummary(LocalDate date) {
+        List<Object[]> rows = storedStatusRows(date);
+        if (rows.isEmpty() && checkpointRepository.findByReconciliationDateAndBucketStartAndBucketEnd(date, 0, Wallet.SHARD_BUCKETS)
+                .filter(checkpoint -> checkpoint.getPhase() == ReconciliationPhase.COMPLETED)
+                .isEmpty()) {
+            return Optional.empty();
         }
+        return Optional.of(summarizeStored(rows));
     }
 
-    private List<ReconciliationRecord> performReconciliation(LocalDate date, 
-                                                           List<Transaction> internalTransactions,
-                                                           List<ExternalTransactionRecord> externalTransactions) {
-        
-        List<ReconciliationRecord> records = new ArrayList<>();
-        
-        Map<String, Transaction> internalMap = internalTransactions.stream()
-                .collect(Collectors.toMap(Transaction::getTransactionId, t -> t));
-        
-        Map<String, ExternalTransactionRecord> externalMap = externalTransactions.stream()
-                .collect(Collectors.toMap(ExternalTransactionRecord::getTransactionId, t -> t));
-
-        for (Transaction internal : internalTransactions) {
-            ExternalTransactionRecord external = externalMap.get(internal.getTransactionId());
-            
-            if (external == null) {
-                ReconciliationRecord record = new ReconciliationRecord(
-                    date,
-                    internal.getTransactionId(),
-                    null,
-                    internal.getAmount(),
-                    null,
-                    ReconciliationStatus.MISSING_EXTERNAL
-                );
-                record.setNotes("Internal transaction not found in external system");
-                records.add(record);
-            } else {
-                ReconciliationStatus status = ReconciliationStatus.MATCHED;
-                String notes = null;
-                
-                if (internal.getAmount().compareTo(external.getAmount()) != 0) {
-                    status = ReconciliationStatus.AMOUNT_MISMATCH;
-                    notes = String.format("Amount mismatch - Internal: %s, External: %s", 
-                                        internal.getAmount(), external.getAmount());
-                }
-                
-                ReconciliationRecord record = new ReconciliationRecord(
-                    date,
-                    internal.getTransactionId(),
-                    external.getTransactionId(),
-                    internal.getAmount(),
-                    external.getAmount(),
-                    status
-                );
-                record.setNotes(notes);
-                records.add(record);
-            }
+    private List<Object[]> storedStatusRows(LocalDate date) {
+        List<Object[]> rows = aggregateRepository.summarizeByStatus(date);
+        if (rows.isEmpty()) {
+            // Dates reconciled before aggregates were kept only have their records to go by.
+            rows = reconciliationRepository.summarizeByStatus(date);
         }
+        return rows;
+    }
 
-        for (ExternalTransactionRecord external : externalTransactions) {
-            if (!internalMap.containsKey(external.getTransactionId())) {
-                ReconciliationRecord record = new ReconciliationRecord(
-                    date,
-                    null,
-                    external.getTransactionId(),
-                    null,
-                    external.getAmount(),
-                    ReconciliationStatus.MISSING_INTERNAL
-                );
-                record.setNotes("External transaction not found in internal system");
-                records.add(record);
+    private ReconciliationSummary summarizeStored(List<Object[]> rows) {
+        ReconciliationSummary summary = new ReconciliationSummary();
+        BigDecimal totalInternal = BigDecimal.ZERO;
+        BigDecimal totalExternal = BigDecimal.ZERO;
+
+        for (Object[] row : rows) {
+            ReconciliationStatus status = (ReconciliationStatus) row[0];
+            int count = ((Number) row[1]).intValue();
+            summary.setTotalRecords(summary.getTotalRecords() + count);
+            switch (status) {
+                case MATCHED:
+                    summary.setMatchedRecords(count);
+                    break;
+                case MISSING_INTERNAL:
+                    summary.setMissingInternalRecords(count);
+                    break;
+                case MISSING_EXTERNAL:
+                    summary.setMissingExternalRecords(count);
+                    break;
+                case AMOUNT_MISMATCH:
+                    summary.setAmountMismatchRecords(count);
+                    break;
+                case FUZZY_MATCHED:
+                    summary.setFuzzyMatchedRecords(count);
+                    break;
+                default:
+                    break;
+            }
+            if (row[2] != null) {
+                totalInternal = totalInternal.add((BigDecimal) row[2]);
+            }
+            if (row[3] != null) {
+                totalExternal = totalExternal.add((BigDecimal) row[3]);
             }
         }
 
-        return reconciliationRepository.saveAll(records);
+        summary.setTotalInternalAmount(totalInternal);
+        summary.setTotalExternalAmount(totalExternal);
+        summary.setDiscrepancyAmount(totalInternal.subtract(totalExternal).abs());
+
+        return summary;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReconciliationReportResponse generateRangeDayReport(LocalDate date, ReconciliationProgressListener listener) {
+        logger.info("Generating range reconciliation report for date: {}", date);
+
+        Duration overlap = Duration.ofSeconds(rangeOverlapSeconds);
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        LocalDateTime lookbehindStart = dayStart.minus(overlap);
+        LocalDateTime lookaheadEnd = dayEnd.plus(overlap);
+
+        for (LocalDate fetchDate = lookbehindStart.toLocalDate(); !fetchDate.isAfter(lookaheadEnd.toLocalDate());
+             fetchDate = fetchDate.plusDays(1)) {
+            externalSourceFetcher.fetchAll(fetchDate);
+        }
+        listener.onStart(transactionRepository.countInWindow(dayStart, dayEnd)
+                         + externalTransactionRepository.countByTransactionDate(date));
+
+        // Each day commits on its own, so a report is only published once its records are stored.
+        ReconciliationSummary summary = new TransactionTemplate(transactionManager).execute(status ->
+                reconcileRangeDay(date, lookbehindStart, lookaheadEnd, overlap, listener));
+
+        logger.info("Range reconciliation for {} produced {} records", date, summary.getTotalRecords());
+
+        ReconciliationReportResponse response = new ReconciliationReportResponse(date, summary, null);
+        messagingService.sendReconciliationReport(response);
+        return response;
+    }
+
+    private ReconciliationSummary reconcileRangeDay(LocalDate date, LocalDateTime lookbehindStart, LocalDateTime lookaheadEnd,
+                                                    Duration overlap, ReconciliationProgressListener listener) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+
+        try (Stream<Transaction> internalStream = transactionRepository.streamInWindow(lookbehindStart, lookaheadEnd);
+             Stream<ExternalTransactionRecord> externalStream = externalDataService.streamExternalTransactions(lookbehindStart, lookaheadEnd)) {
+
+            TimeOrderedCursor<Transaction> internalCursor =
+                    new TimeOrderedCursor<>(internalStream.iterator(), Transaction::getCreatedAt);
+            TimeOrderedCursor<ExternalTransactionRecord> externalCursor =
+                    new TimeOrderedCursor<>(externalStream.iterator(), ExternalTransactionRecord::getTimestamp);
+
+            Set<String> behindInternalIds = internalCursor.takeBefore(dayStart).stream()
+                    .map(Transaction::getTransactionId).collect(Collectors.toSet());
+            Set<String> behindExternalIds = externalCursor.takeBefore(dayStart).stream()
+                    .map(ExternalTransactionRecord::getTransactionId).collect(Collectors.toSet());
+            List<Transaction> dayInternal = internalCursor.takeBefore(dayEnd);
+            List<ExternalTransactionRecord> dayExternal = externalCursor.takeBefore(dayEnd);
+            List<Transaction> aheadInternal = internalCursor.takeBefore(lookaheadEnd);
+            List<ExternalTransactionRecord> aheadExternal = externalCursor.takeBefore(lookaheadEnd);
+
+            // A pair straddling midnight belongs to the earlier day: leave out what the previous day paired with its
+            // last minutes, and take over the next day's records that pair with this day's last minutes.
+            LocalDateTime claimedUntil = dayStart.plus(overlap);
+            LocalDateTime carryFrom = dayEnd.minus(overlap);
+
+            List<Transaction> internals = new ArrayList<>();
+            Set<String> lateInternalIds = new HashSet<>();
+            for (Transaction internal : dayInternal) {
+                if (internal.getCreatedAt().isBefore(claimedUntil) && behindExternalIds.contains(internal.getTransactionId())) {
+                    continue;
+                }
+                internals.add(internal);
+                if (!internal.getCreatedAt().isBefore(carryFrom)) {
+                    lateInternalIds.add(internal.getTransactionId());
+                }
+            }
+
+            List<ExternalTransactionRecord> externals = new ArrayList<>();
+            Set<String> lateExternalIds = new HashSet<>();
+            for (ExternalTransactionRecord external : dayExternal) {
+                if (external.getTimestamp().isBefore(claimedUntil) && behindInternalIds.contains(external.getTransactionId())) {
+                    continue;
+                }
+                externals.add(external);
+                if (!external.getTimestamp().isBefore(carryFrom)) {
+                    lateExternalIds.add(external.getTransactionId());
+                }
+            }
+
+            for (Transaction internal : aheadInternal) {
+                if (lateExternalIds.contains(internal.getTransactionId())) {
+                    internals.add(internal);
+                }
+            }
+            for (ExternalTransactionRecord external : aheadExternal) {
+                if (lateInternalIds.contains(external.getTransactionId())) {
+                    externals.add(external);
+                }
+            }
+
+            MatchResult result = reconciliationMatcher.match(date, internals, externals);
+            List<ReconciliationRecord> records = new ArrayList<>(result.getRecords());
+            records.addAll(reconciliationMatcher.missingRecords(date, result.getUnmatchedInternal(), result.getUnmatchedExternal()));
+            // Stored like a full-day chunked run, so reruns replace the date and aggregate summaries agree.
+            chunkedRunner.replaceDay(date, records);
+            listener.onProgress(dayInternal.size() + dayExternal.size());
+
+            return generateSummary(records, dayInternal, dayExternal);
+        }
     }
 
     private ReconciliationSummary generateSummary(List<ReconciliationRecord> records, 
@@ -156,6 +316,7 @@ public class ReconciliationService {
         summary.setMissingInternalRecords((int) records.stream().filter(r -> r.getStatus() == ReconciliationStatus.MISSING_INTERNAL).count());
         summary.setMissingExternalRecords((int) records.stream().filter(r -> r.getStatus() == ReconciliationStatus.MISSING_EXTERNAL).count());
         summary.setAmountMismatchRecords((int) records.stream().filter(r -> r.getStatus() == ReconciliationStatus.AMOUNT_MISMATCH).count());
+        summary.setFuzzyMatchedRecords((int) records.stream().filter(r -> r.getStatus() == ReconciliationStatus.FUZZY_MATCHED).count());
         
         BigDecimal totalInternal = internalTransactions.stream()
                 .map(Transaction::getAmount)
@@ -172,24 +333,158 @@ public class ReconciliationService {
         return summary;
     }
 
-    private List<ReconciliationDetail> convertToDetails(List<ReconciliationRecord> records) {
-        return records.stream().map(record -> {
-            ReconciliationDetail detail = new ReconciliationDetail();
-            detail.setInternalTransactionId(record.getInternalTransactionId());
-            detail.setExternalTransactionId(record.getExternalTransactionId());
-            detail.setInternalAmount(record.getInternalAmount());
-            detail.setExternalAmount(record.getExternalAmount());
-            detail.setStatus(record.getStatus());
-            detail.setNotes(record.getNotes());
-            return detail;
-        }).collect(Collectors.toList());
+    private ReconciliationSummary generateSummary(ReconciliationCheckpoint checkpoint) {
+        ReconciliationSummary summary = new ReconciliationSummary();
+        
+        summary.setTotalRecords(checkpoint.getTotalRecords());
+        summary.setMatchedRecords(checkpoint.getMatchedRecords());
+        summary.setMissingInternalRecords(checkpoint.getMissingInternalRecords());
+        summary.setMissingExternalRecords(checkpoint.getMissingExternalRecords());
+        summary.setAmountMismatchRecords(checkpoint.getAmountMismatchRecords());
+        summary.setFuzzyMatchedRecords(checkpoint.getFuzzyMatchedRecords());
+        summary.setTotalInternalAmount(checkpoint.getTotalInternalAmount());
+        summary.setTotalExternalAmount(checkpoint.getTotalExternalAmount());
+        summary.setDiscrepancyAmount(checkpoint.getTotalInternalAmount().subtract(checkpoint.getTotalExternalAmount()).abs());
+        
+        return summary;
     }
 
-    public List<ReconciliationRecord> getReconciliationRecords(LocalDate date) {
-        return reconciliationRepository.findByReconciliationDate(date);
+    private ReconciliationDetail convertToDetail(ReconciliationRecord record) {
+        ReconciliationDetail detail = new ReconciliationDetail();
+        detail.setReconciliationDate(record.getReconciliationDate());
+        detail.setInternalTransactionId(record.getInternalTransactionId());
+        detail.setExternalTransactionId(record.getExternalTransactionId());
+        detail.setInternalAmount(record.getInternalAmount());
+        detail.setExternalAmount(record.getExternalAmount());
+        detail.setStatus(record.getStatus());
+        detail.setNotes(reconciliationMatcher.renderNotes(record));
+        detail.setConfidence(record.getConfidence());
+        return detail;
     }
 
-    public List<ReconciliationRecord> getMismatchedRecords(LocalDate date) {
-        return reconciliationRepository.findByReconciliationDateAndStatus(date, ReconciliationStatus.AMOUNT_MISMATCH);
+    @Transactional(readOnly = true)
+    public ReconciliationRecordPage findRecords(LocalDate from, LocalDate to, Set<ReconciliationStatus> statuses,
+                                                BigDecimal minAmount, BigDecimal maxAmount, String cursor, int limit) {
+        Set<ReconciliationStatus> storedStatuses = statuses == null || statuses.isEmpty()
+                ? EnumSet.allOf(ReconciliationStatus.class)
+                : EnumSet.copyOf(statuses);
+        // Compact storage keeps no matched rows, so those are listed from the source tables after the stored ones.
+        boolean matchedFromSource = compactStorage && storedStatuses.remove(ReconciliationStatus.MATCHED);
+
+        String[] position = decodeCursor(cursor);
+        List<ReconciliationDetail> details = new ArrayList<>();
+
+        if (position == null || CURSOR_STORED.equals(position[0])) {
+            if (!storedStatuses.isEmpty()) {
+                LocalDate afterDate = position != null ? LocalDate.parse(position[1]) : from.minusDays(1);
+                ReconciliationStatus afterStatus = position != null
+                        ? ReconciliationStatus.valueOf(position[2]) : ReconciliationStatus.MATCHED;
+                long afterId = position != null ? Long.parseLong(position[3]) : 0;
+
+                List<ReconciliationRecordView> rows = reconciliationRepository.findPage(
+                        from, to, storedStatuses, minAmount, maxAmount, afterDate, afterStatus, afterId,
+                        PageRequest.of(0, limit + 1));
+                for (ReconciliationRecordView row : rows.subList(0, Math.min(limit, rows.size()))) {
+                    details.add(convertToDetail(row));
+                }
+                if (rows.size() > limit) {
+                    ReconciliationRecordView last = rows.get(limit - 1);
+                    return new ReconciliationRecordPage(details, encodeCursor(
+                            CURSOR_STORED, last.getReconciliationDate().toString(), last.getStatus().name(),
+                            String.valueOf(last.getId())));
+                }
+            }
+            if (!matchedFromSource) {
+                return new ReconciliationRecordPage(details, null);
+            }
+            position = new String[] {CURSOR_MATCHED, from.toString(), ""};
+        }
+
+        LocalDate date = LocalDate.parse(position[1]);
+        String afterTransactionId = position[2];
+        for (; !date.isAfter(to); date = date.plusDays(1), afterTransactionId = "") {
+            int remaining = limit - details.size();
+            if (remaining == 0) {
+                return new ReconciliationRecordPage(details, encodeCursor(CURSOR_MATCHED, date.toString(), afterTransactionId));
+            }
+
+            List<Object[]> rows = transactionRepository.findMatchedPairs(
+                    date, date.atStartOfDay(), date.plusDays(1).atStartOfDay(), afterTransactionId,
+                    minAmount, maxAmount, PageRequest.of(0, remaining + 1));
+            for (Object[] row : rows.subList(0, Math.min(remaining, rows.size()))) {
+                String transactionId = (String) row[0];
+                details.add(convertToDetail(reconciliationMatcher.pairedRecord(
+                        date, transactionId, transactionId, (BigDecimal) row[1], (BigDecimal) row[2])));
+                afterTransactionId = transactionId;
+            }
+            if (rows.size() > remaining) {
+                return new ReconciliationRecordPage(details, encodeCursor(CURSOR_MATCHED, date.toString(), afterTransactionId));
+            }
+        }
+
+        return new ReconciliationRecordPage(details, null);
+    }
+
+    private ReconciliationDetail convertToDetail(ReconciliationRecordView record) {
+        ReconciliationDetail detail = new ReconciliationDetail();
+        detail.setReconciliationDate(record.getReconciliationDate());
+        detail.setInternalTransactionId(record.getInternalTransactionId());
+        detail.setExternalTransactionId(record.getExternalTransactionId());
+        detail.setInternalAmount(record.getInternalAmount());
+        detail.setExternalAmount(record.getExternalAmount());
+        detail.setStatus(record.getStatus());
+        detail.setNotes(reconciliationMatcher.renderNotes(record.getNoteCode(), record.getNotes(),
+                                                          record.getInternalAmount(), record.getExternalAmount(),
+                                                          record.getConfidence()));
+        detail.setConfidence(record.getConfidence());
+        return detail;
+    }
+
+    private String encodeCursor(String... position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join("|", position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (CURSOR_STORED.equals(position[0]) && position.length == 4) {
+                LocalDate.parse(position[1]);
+                ReconciliationStatus.valueOf(position[2]);
+                Long.parseLong(position[3]);
+                return position;
+            }
+            if (CURSOR_MATCHED.equals(position[0]) && position.length == 3) {
+                LocalDate.parse(position[1]);
+                return position;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Reported below like any other malformed cursor.
+        }
+        throw new WalletException("Invalid cursor: " + cursor);
+    }
+
+    private static class TimeOrderedCursor<T> {
+        private final Iterator<T> iterator;
+        private final Function<T, LocalDateTime> timeOf;
+        private T next;
+
+        TimeOrderedCursor(Iterator<T> iterator, Function<T, LocalDateTime> timeOf) {
+            this.iterator = iterator;
+            this.timeOf = timeOf;
+            this.next = iterator.hasNext() ? iterator.next() : null;
+        }
+
+        List<T> takeBefore(LocalDateTime bound) {
+            List<T> taken = new ArrayList<>();
+            while (next != null && timeOf.apply(next).isBefore(bound)) {
+                taken.add(next);
+                next = iterator.hasNext() ? iterator.next() : null;
+            }
+            return taken;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,326 @@
+package com.wallet.service;
+
+import com.wallet.dto.ReconciliationReportResponse;
+import com.wallet.dto.ReconciliationShardResponse;
+import com.wallet.entity.ReconciliationShard;
+import com.wallet.entity.ShardStatus;
+import com.wallet.entity.Wallet;
+import com.wallet.exception.WalletException;
+import com.wallet.repository.ReconciliationShardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class ReconciliationShardCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationShardCoordinator.class);
+    private static final String LEADER_LEASE = "reconciliation-leader";
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private ReconciliationShardRepository shardRepository;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ExternalSourceFetcher externalSourceFetcher;
+
+    @Autowired
+    private ReconciliationDigestService digestService;
+
+    @Autowired
+    private ChunkedReconciliationRunner chunkedRunner;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${wallet.reconciliation.sharding.shard-count:16}")
+    private int shardCount;
+
+    @Value("${wallet.reconciliation.sharding.workers:2}")
+    private int workers;
+
+    @Value("${wallet.reconciliation.sharding.lease-ttl-seconds:120}")
+    private long leaseTtlSeconds;
+
+    @Value("${wallet.reconciliation.sharding.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${wallet.reconciliation.digest.enabled:true}")
+    private boolean digestEnabled;
+
+    @Value("${wallet.reconciliation.sharding.retry-backoff-seconds:60}")
+    private long retryBackoffSeconds;
+
+    @Value("${wallet.reconciliation.sharding.max-retry-backoff-seconds:1800}")
+    private long maxRetryBackoffSeconds;
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ThreadPoolExecutor shardExecutor;
+    private Semaphore idleWorkers;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Shards run on their own bounded pool, so a long shard does not hold up the other scheduled jobs.
+        shardExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers), runnable -> {
+                    Thread thread = new Thread(runnable, "reconciliation-shard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        idleWorkers = new Semaphore(workers);
+    }
+
+    @Scheduled(cron = "${wallet.reconciliation.schedule.cron}")
+    public void performDailyReconciliation() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        logger.info("Starting daily reconciliation for: {}", yesterday);
+
+        try {
+            if (leaseService.tryAcquire(LEADER_LEASE, leaseTtl())) {
+                planShards(yesterday);
+            }
+            processAvailableShards();
+        } catch (Exception e) {
+            logger.error("Daily reconciliation failed for: {}", yesterday, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.reconciliation.sharding.poll-interval-ms:15000}")
+    public void pollShards() {
+        try {
+            processAvailableShards();
+            if (leaseService.tryAcquire(LEADER_LEASE, leaseTtl())) {
+                finalizeCompletedDates();
+            }
+        } catch (Exception e) {
+            logger.error("Reconciliation shard polling failed", e);
+        }
+    }
+
+    public void planShards(LocalDate date) {
+        if (shardRepository.existsByReconciliationDate(date)) {
+            logger.info("Reconciliation shards already planned for date: {}", date);
+            return;
+        }
+
+        externalSourceFetcher.fetchAll(date);
+        if (digestEnabled) {
+            // Refreshed once here rather than by every shard, which would race to rebuild the same buckets.
+            digestService.refreshInternal(date);
+        }
+
+        List<ReconciliationShard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int bucketStart = i * Wallet.SHARD_BUCKETS / shardCount;
+            int bucketEnd = (i + 1) * Wallet.SHARD_BUCKETS / shardCount;
+            shards.add(new ReconciliationShard(date, i, bucketStart, bucketEnd));
+        }
+
+        try {
+            // The plan only becomes visible together with the removal of any full-day results it replaces.
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                chunkedRunner.clearForShardPlan(date);
+                shardRepository.saveAll(shards);
+            });
+            logger.info("Planned {} reconciliation shards for date: {}", shardCount, date);
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Reconciliation shards for date: {} were planned by another node", date);
+        }
+    }
+
+    private void processAvailableShards() {
+        // A shard is claimed only once a worker is free to start it, so its lease never runs down in a queue.
+        while (idleWorkers.tryAcquire()) {
+            ReconciliationShard shard;
+            try {
+                shard = claimNextShard();
+            } catch (RuntimeException e) {
+                idleWorkers.release();
+                throw e;
+            }
+            if (shard == null) {
+                idleWorkers.release();
+                return;
+            }
+            shardExecutor.execute(() -> {
+                try {
+                    processShard(shard);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    private ReconciliationShard claimNextShard() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ReconciliationShard> candidates = shardRepository.findClaimable(ShardStatus.PENDING, ShardStatus.RUNNING, now);
+        // Nodes start polling at the same moment, so spread their first claims across the shard list.
+        Collections.shuffle(candidates);
+
+        for (ReconciliationShard candidate : candidates) {
+            int claimed = shardRepository.claim(candidate.getId(), leaseService.getNodeId(), now.plus(leaseTtl()), now,
+                                                ShardStatus.PENDING, ShardStatus.RUNNING);
+            if (claimed != 1) {
+                continue;
+            }
+            if (candidate.getAttempts() >= maxAttempts) {
+                logger.error("Reconciliation shard {} for date: {} failed {} times, giving up",
+                            candidate.getShardIndex(), candidate.getReconciliationDate(), candidate.getAttempts());
+                shardRepository.release(candidate.getId(), leaseService.getNodeId(), ShardStatus.FAILED, ShardStatus.RUNNING);
+                continue;
+            }
+            return candidate;
+        }
+        return null;
+    }
+
+    private void processShard(ReconciliationShard shard) {
+        String owner = leaseService.getNodeId();
+        long renewEvery = Math.max(1, leaseTtlSeconds / 3);
+        ScheduledFuture<?> renewal = heartbeat.scheduleAtFixedRate(() -> {
+            if (shardRepository.renew(shard.getId(), owner, LocalDateTime.now().plus(leaseTtl()), ShardStatus.RUNNING) != 1) {
+                logger.warn("Lost lease on reconciliation shard {} for date: {}", shard.getShardIndex(), shard.getReconciliationDate());
+            }
+        }, renewEvery, renewEvery, TimeUnit.SECONDS);
+
+        try {
+            // Fencing: every chunk commits only while this node still owns the shard lease.
+            int recordCount = reconciliationService.reconcileShard(
+                    shard.getReconciliationDate(), shard.getBucketStart(), shard.getBucketEnd(),
+                    () -> shardRepository.renew(shard.getId(), owner, LocalDateTime.now().plus(leaseTtl()),
+                                                ShardStatus.RUNNING) == 1);
+
+            if (shardRepository.complete(shard.getId(), owner, recordCount, LocalDateTime.now(),
+                                         ShardStatus.COMPLETED, ShardStatus.RUNNING) != 1) {
+                throw new IllegalStateException("Lease lost on reconciliation shard " + shard.getShardIndex());
+            }
+
+            logger.info("Completed reconciliation shard {} for date: {} with {} records",
+                       shard.getShardIndex(), shard.getReconciliationDate(), recordCount);
+        } catch (Exception e) {
+            // Back off before the next claim so a transient outage does not use up every attempt in one polling loop.
+            LocalDateTime retryAfter = LocalDateTime.now().plus(retryBackoff(shard.getAttempts() + 1));
+            logger.error("Reconciliation shard {} for date: {} failed on attempt {}, retrying after {}",
+                        shard.getShardIndex(), shard.getReconciliationDate(), shard.getAttempts() + 1, retryAfter, e);
+            shardRepository.releaseForRetry(shard.getId(), owner, retryAfter, errorOf(e), ShardStatus.PENDING, ShardStatus.RUNNING);
+        } finally {
+            renewal.cancel(false);
+        }
+    }
+
+    private void finalizeCompletedDates() {
+        for (LocalDate date : shardRepository.findDatesReadyToFinalize(ShardStatus.COMPLETED, ShardStatus.FINALIZED)) {
+            reconciliationService.publishStoredReport(date);
+            shardRepository.markFinalized(date, ShardStatus.COMPLETED, ShardStatus.FINALIZED);
+            logger.info("Daily reconciliation completed successfully for: {}", date);
+        }
+    }
+
+    public List<ReconciliationShard> getShards(LocalDate date) {
+        return shardRepository.findByReconciliationDateOrderByShardIndex(date);
+    }
+
+    public List<ReconciliationShard> retryFailedShards(LocalDate date) {
+        int reset = shardRepository.resetFailed(date, ShardStatus.FAILED, ShardStatus.PENDING);
+        logger.info("Reset {} failed reconciliation shards for date: {}", reset, date);
+        return getShards(date);
+    }
+
+    public ReconciliationReportResponse finalizeWithFailures(LocalDate date) {
+        List<ReconciliationShard> shards = getShards(date);
+        if (shards.isEmpty()) {
+            throw new WalletException("No reconciliation shards planned for date: " + date);
+        }
+
+        List<Integer> failedShards = new ArrayList<>();
+        for (ReconciliationShard shard : shards) {
+            if (shard.getStatus() == ShardStatus.PENDING || shard.getStatus() == ShardStatus.RUNNING) {
+                throw new WalletException("Reconciliation shard " + shard.getShardIndex() + " for date: " + date
+                        + " is still " + shard.getStatus());
+            }
+            if (shard.getStatus() == ShardStatus.FAILED) {
+                failedShards.add(shard.getShardIndex());
+            }
+        }
+
+        ReconciliationReportResponse report = reconciliationService.publishStoredReport(date, failedShards);
+        shardRepository.markFinalized(date, ShardStatus.COMPLETED, ShardStatus.FINALIZED);
+        if (failedShards.isEmpty()) {
+            logger.info("Daily reconciliation completed successfully for: {}", date);
+        } else {
+            logger.warn("Daily reconciliation for: {} finalized with failed shards {} left out of the totals", date, failedShards);
+        }
+        return report;
+    }
+
+    public ReconciliationShardResponse getShardStatus(ReconciliationShard shard) {
+        ReconciliationShardResponse response = new ReconciliationShardResponse();
+        response.setShardIndex(shard.getShardIndex());
+        response.setBucketStart(shard.getBucketStart());
+        response.setBucketEnd(shard.getBucketEnd());
+        response.setStatus(shard.getStatus());
+        response.setOwner(shard.getOwner());
+        response.setAttempts(shard.getAttempts());
+        response.setRetryAfter(shard.getRetryAfter());
+        response.setLastError(shard.getLastError());
+        response.setRecordCount(shard.getRecordCount());
+        response.setCompletedAt(shard.getCompletedAt());
+        return response;
+    }
+
+    private Duration retryBackoff(int attempt) {
+        long seconds = retryBackoffSeconds << Math.min(attempt - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, maxRetryBackoffSeconds));
+    }
+
+    private String errorOf(Exception e) {
+        String error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    private Duration leaseTtl() {
+        return Duration.ofSeconds(leaseTtlSeconds);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shardExecutor.shutdownNow();
+        heartbeat.shutdownNow();
+        leaseService.release(LEADER_LEASE);
+    }
+}
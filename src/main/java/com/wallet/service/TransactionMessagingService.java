@@ -1,30 +1,23 @@
 package com.wallet.service;
 
 import com.wallet.entity.Transaction;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.entity.Wallet;
+import com.wallet.messaging.WalletEventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 @Service
 public class TransactionMessagingService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionMessagingService.class);
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
-
-    @Autowired
-    private ObjectMapper objectMapper;
-
-    @Value("${wallet.rabbitmq.exchanges.wallet-exchange}")
-    private String walletExchange;
-
-    @Value("${wallet.rabbitmq.routing-keys.transaction}")
-    private String transactionRoutingKey;
+    private WalletEventBus eventBus;
 
     public void sendTransactionMessage(Transaction transaction) {
         try {
@@ -40,9 +33,7 @@ public class TransactionMessagingService {
                 transaction.getCreatedAt()
             );
             
-            String messageJson = objectMapper.writeValueAsString(message);
-            
-            rabbitTemplate.convertAndSend(walletExchange, transactionRoutingKey, messageJson);
+            eventBus.publishTransaction(message);
             
             logger.info("Transaction message sent for: {}", transaction.getTransactionId());
             
@@ -51,23 +42,28 @@ public class TransactionMessagingService {
         }
     }
 
+    public static int partitionOf(String customerId, int partitionCount) {
+        // Partitions are contiguous ranges of the wallet shard buckets, the same split reconciliation shards use.
+        return Wallet.shardBucketOf(customerId) * partitionCount / Wallet.SHARD_BUCKETS;
+    }
+
     public static class TransactionMessage {
         private String transactionId;
         private String customerId;
         private String type;
-        private Object amount;
-        private Object balanceBefore;
-        private Object balanceAfter;
+        private BigDecimal amount;
+        private BigDecimal balanceBefore;
+        private BigDecimal balanceAfter;
         private String status;
         private String reference;
-        private Object timestamp;
+        private LocalDateTime timestamp;
 
         public TransactionMessage() {
         }
 
         public TransactionMessage(String transactionId, String customerId, String type,
-                                Object amount, Object balanceBefore, Object balanceAfter,
-                                String status, String reference, Object timestamp) {
+                                BigDecimal amount, BigDecimal balanceBefore, BigDecimal balanceAfter,
+                                String status, String reference, LocalDateTime timestamp) {
             this.transactionId = transactionId;
             this.customerId = customerId;
             this.type = type;
@@ -104,27 +100,27 @@ public class TransactionMessagingService {
             this.type = type;
         }
 
-        public Object getAmount() {
+        public BigDecimal getAmount() {
             return amount;
         }
 
-        public void setAmount(Object amount) {
+        public void setAmount(BigDecimal amount) {
             this.amount = amount;
         }
 
-        public Object getBalanceBefore() {
+        public BigDecimal getBalanceBefore() {
             return balanceBefore;
         }
 
-        public void setBalanceBefore(Object balanceBefore) {
+        public void setBalanceBefore(BigDecimal balanceBefore) {
             this.balanceBefore = balanceBefore;
         }
 
-        public Object getBalanceAfter() {
+        public BigDecimal getBalanceAfter() {
             return balanceAfter;
         }
 
-        public void setBalanceAfter(Object balanceAfter) {
+        public void setBalanceAfter(BigDecimal balanceAfter) {
             this.balanceAfter = balanceAfter;
         }
 
@@ -144,11 +140,11 @@ public class TransactionMessagingService {
             this.reference = reference;
         }
 
-        public Object getTimestamp() {
+        public LocalDateTime getTimestamp() {
             return timestamp;
         }
 
-        public void setTimestamp(Object timestamp) {
+        public void setTimestamp(LocalDateTime timestamp) {
             this.timestamp = timestamp;
         }
     }
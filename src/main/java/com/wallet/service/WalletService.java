@@ -39,6 +39,9 @@ public class WalletService {
     @Autowired
     private TransactionMessagingService messagingService;
 
+    @Autowired
+    private ReconciliationDigestService digestService;
+
     @Retryable(retryFor = {OptimisticLockException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
     public TransactionResponse topup(String customerId, TransactionRequest request) {
         logger.info("Processing topup for customer: {} with transaction: {}", customerId, request.getTransactionId());
@@ -65,6 +68,7 @@ public class WalletService {
 
         walletRepository.save(wallet);
         transaction = transactionRepository.save(transaction);
+        digestService.recordInternal(transaction);
 
         TransactionResponse response = createTransactionResponse(transaction, customerId);
         
@@ -107,6 +111,7 @@ public class WalletService {
 
         walletRepository.save(wallet);
         transaction = transactionRepository.save(transaction);
+        digestService.recordInternal(transaction);
 
         TransactionResponse response = createTransactionResponse(transaction, customerId);
         
@@ -0,0 +1,258 @@
+package com.wallet.service;
+
+import com.wallet.dto.WalletStatsResponse;
+import com.wallet.dto.WalletStatsResponse.StatsBucket;
+import com.wallet.entity.RollupGranularity;
+import com.wallet.entity.TransactionRollup;
+import com.wallet.repository.TransactionRollupRepository;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class WalletStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletStatsService.class);
+
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO transaction_rollups (scope, granularity, bucket_start, transaction_count, topup_volume, " +
+            "consume_volume, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (scope, granularity, bucket_start) DO UPDATE SET " +
+            "transaction_count = transaction_rollups.transaction_count + EXCLUDED.transaction_count, " +
+            "topup_volume = transaction_rollups.topup_volume + EXCLUDED.topup_volume, " +
+            "consume_volume = transaction_rollups.consume_volume + EXCLUDED.consume_volume, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String UPSERT_MERGE =
+            "MERGE INTO transaction_rollups r USING (VALUES (CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(10)), " +
+            "CAST(? AS TIMESTAMP), CAST(? AS BIGINT), CAST(? AS NUMERIC(25,2)), CAST(? AS NUMERIC(25,2)), " +
+            "CAST(? AS TIMESTAMP))) AS v (scope, granularity, bucket_start, transaction_count, topup_volume, " +
+            "consume_volume, updated_at) " +
+            "ON r.scope = v.scope AND r.granularity = v.granularity AND r.bucket_start = v.bucket_start " +
+            "WHEN MATCHED THEN UPDATE SET transaction_count = r.transaction_count + v.transaction_count, " +
+            "topup_volume = r.topup_volume + v.topup_volume, consume_volume = r.consume_volume + v.consume_volume, " +
+            "updated_at = v.updated_at " +
+            "WHEN NOT MATCHED THEN INSERT (scope, granularity, bucket_start, transaction_count, topup_volume, " +
+            "consume_volume, updated_at) VALUES (v.scope, v.granularity, v.bucket_start, v.transaction_count, " +
+            "v.topup_volume, v.consume_volume, v.updated_at)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.stats.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${wallet.stats.max-periods:168}")
+    private int maxPeriods;
+
+    // Deltas since the last flush. Updates and removal both go through the map's per-key locking, so none are lost.
+    private final Map<RollupKey, RollupDelta> pending = new ConcurrentHashMap<>();
+    private volatile Boolean postgres;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("wallet.stats.pending", pending, Map::size)
+                .description("Rollup buckets with changes not yet flushed")
+                .register(meterRegistry);
+        flushTimer = meterRegistry.timer("wallet.stats.flush");
+    }
+
+    public void record(TransactionMessage message) {
+        if (message.getTimestamp() == null || message.getAmount() == null) {
+            return;
+        }
+        boolean topup = "TOPUP".equals(message.getType());
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime bucket = granularity.bucketOf(message.getTimestamp());
+            add(new RollupKey(message.getCustomerId(), granularity, bucket), topup, message.getAmount());
+            add(new RollupKey(TransactionRollup.GLOBAL_SCOPE, granularity, bucket), topup, message.getAmount());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.stats.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<RollupKey, RollupDelta> drained = new HashMap<>();
+        for (RollupKey key : pending.keySet()) {
+            RollupDelta delta = pending.remove(key);
+            if (delta != null) {
+                drained.put(key, delta);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(drained.size());
+        drained.forEach((key, delta) -> rows.add(new Object[] {key.scope, key.granularity.name(),
+                Timestamp.valueOf(key.bucketStart), delta.count, delta.topupVolume, delta.consumeVolume, now}));
+        String sql = isPostgres() ? UPSERT_POSTGRES : UPSERT_MERGE;
+        try {
+            // One transaction per flush, so a failure leaves nothing half-applied to be counted twice on retry.
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (int from = 0; from < rows.size(); from += flushBatchSize) {
+                    jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + flushBatchSize)));
+                }
+            });
+        } catch (DataAccessException | TransactionException e) {
+            logger.error("Failed to flush {} rollup buckets, retrying on next flush", drained.size(), e);
+            drained.forEach((key, delta) -> pending.merge(key, delta, RollupDelta::merge));
+            return;
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.debug("Flushed {} rollup buckets", drained.size());
+    }
+
+    public WalletStatsResponse getCustomerStats(String customerId, RollupGranularity granularity, int periods) {
+        WalletStatsResponse response = getStats(customerId, granularity, periods);
+        response.setCustomerId(customerId);
+        return response;
+    }
+
+    public WalletStatsResponse getGlobalStats(RollupGranularity granularity, int periods) {
+        return getStats(TransactionRollup.GLOBAL_SCOPE, granularity, periods);
+    }
+
+    private WalletStatsResponse getStats(String scope, RollupGranularity granularity, int periods) {
+        int count = Math.max(1, Math.min(periods, maxPeriods));
+        LocalDateTime current = granularity.bucketOf(LocalDateTime.now());
+        LocalDateTime from = granularity.minus(current, count - 1);
+
+        Map<LocalDateTime, TransactionRollup> rollups = new HashMap<>();
+        for (TransactionRollup rollup : rollupRepository
+                .findByScopeAndGranularityAndBucketStartGreaterThanEqualOrderByBucketStart(scope, granularity, from)) {
+            rollups.put(rollup.getBucketStart(), rollup);
+        }
+
+        List<StatsBucket> buckets = new ArrayList<>(count);
+        long totalCount = 0;
+        BigDecimal totalTopup = BigDecimal.ZERO;
+        BigDecimal totalConsume = BigDecimal.ZERO;
+        // Every period is listed, with zeros where nothing happened, so dashboards don't have to fill gaps.
+        for (LocalDateTime bucket = from; !bucket.isAfter(current); bucket = granularity.next(bucket)) {
+            TransactionRollup rollup = rollups.get(bucket);
+            StatsBucket stats = rollup != null
+                    ? new StatsBucket(bucket, rollup.getTransactionCount(), rollup.getTopupVolume(), rollup.getConsumeVolume())
+                    : new StatsBucket(bucket, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+            buckets.add(stats);
+            totalCount += stats.getTransactionCount();
+            totalTopup = totalTopup.add(stats.getTopupVolume());
+            totalConsume = totalConsume.add(stats.getConsumeVolume());
+        }
+
+        WalletStatsResponse response = new WalletStatsResponse();
+        response.setGranularity(granularity);
+        response.setBuckets(buckets);
+        response.setTotal(new StatsBucket(from, totalCount, totalTopup, totalConsume));
+        return response;
+    }
+
+    private void add(RollupKey key, boolean topup, BigDecimal amount) {
+        pending.compute(key, (k, delta) -> {
+            RollupDelta updated = delta != null ? delta : new RollupDelta();
+            updated.add(topup, amount);
+            return updated;
+        });
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())));
+        }
+        return postgres;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private static final class RollupKey {
+        private final String scope;
+        private final RollupGranularity granularity;
+        private final LocalDateTime bucketStart;
+
+        RollupKey(String scope, RollupGranularity granularity, LocalDateTime bucketStart) {
+            this.scope = scope;
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RollupKey)) {
+                return false;
+            }
+            RollupKey other = (RollupKey) o;
+            return scope.equals(other.scope) && granularity == other.granularity && bucketStart.equals(other.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, granularity, bucketStart);
+        }
+    }
+
+    private static final class RollupDelta {
+        private long count;
+        private BigDecimal topupVolume = BigDecimal.ZERO;
+        private BigDecimal consumeVolume = BigDecimal.ZERO;
+
+        void add(boolean topup, BigDecimal amount) {
+            count++;
+            if (topup) {
+                topupVolume = topupVolume.add(amount);
+            } else {
+                consumeVolume = consumeVolume.add(amount);
+            }
+        }
+
+        RollupDelta merge(RollupDelta other) {
+            count += other.count;
+            topupVolume = topupVolume.add(other.topupVolume);
+            consumeVolume = consumeVolume.add(other.consumeVolume);
+            return this;
+        }
+    }
+}
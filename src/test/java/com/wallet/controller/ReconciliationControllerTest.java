@@ -0,0 +1,209 @@
+package com.wallet.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.service.ReconciliationTestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllertest",
+        "spring.jpa.show-sql=false",
+        "wallet.reconciliation.batch-size=2",
+        "wallet.reconciliation.sharding.shard-count=4",
+        "wallet.reconciliation.sharding.poll-interval-ms=3600000",
+        "wallet.external.watch.enabled=false",
+        "wallet.external.local-directory=target/reconciliation-test-data"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "embedded"})
+class ReconciliationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void reportIsServedAsynchronouslyAndItsRecordsPageByCursor() throws Exception {
+        seed(LocalDate.of(2023, 4, 1), "C1");
+
+        async(get("/reconciliation/report").param("date", "2023-04-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.totalRecords").value(6))
+                .andExpect(jsonPath("$.summary.matchedRecords").value(2))
+                .andExpect(jsonPath("$.summary.amountMismatchRecords").value(1))
+                .andExpect(jsonPath("$.summary.missingExternalRecords").value(2))
+                .andExpect(jsonPath("$.summary.missingInternalRecords").value(1))
+                .andExpect(jsonPath("$.detailsUrl").value(endsWith("/reconciliation/records?from=2023-04-01&to=2023-04-01")));
+    }
+
+    @Test
+    void submittedJobCanBePolledForItsResult() throws Exception {
+        seed(LocalDate.of(2023, 4, 2), "C2");
+
+        MvcResult submitted = mockMvc.perform(post("/reconciliation/jobs").param("date", "2023-04-02"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        String jobId = json(submitted).get("jobId").asText();
+
+        String status = null;
+        for (int i = 0; i < 300 && !"COMPLETED".equals(status); i++) {
+            status = json(mockMvc.perform(get("/reconciliation/jobs/{jobId}", jobId))
+                    .andExpect(status().isOk()).andReturn()).get("status").asText();
+            if ("FAILED".equals(status)) {
+                fail("Reconciliation job failed");
+            }
+            Thread.sleep(50);
+        }
+        assertEquals("COMPLETED", status);
+
+        mockMvc.perform(get("/reconciliation/jobs/{jobId}/result", jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.totalRecords").value(6))
+                .andExpect(jsonPath("$.detailsUrl").exists());
+        mockMvc.perform(get("/reconciliation/jobs/{jobId}", "unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void recordsPageByCursorAndFilterByStatus() throws Exception {
+        seed(LocalDate.of(2023, 4, 6), "C6");
+        async(get("/reconciliation/report").param("date", "2023-04-06")).andExpect(status().isOk());
+
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/reconciliation/records")
+                    .param("from", "2023-04-06").param("to", "2023-04-06").param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = json(mockMvc.perform(request).andExpect(status().isOk()).andReturn());
+            assertTrue(page.get("records").size() <= 2);
+            for (JsonNode record : page.get("records")) {
+                assertTrue(seen.add(record.path("internalTransactionId").asText()
+                        + "/" + record.path("externalTransactionId").asText()));
+            }
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+        // Matched pairs are not stored under compact storage; the records endpoint rebuilds them from the source data.
+        assertEquals(6, seen.size());
+        assertEquals(3, pages);
+
+        mockMvc.perform(get("/reconciliation/records").param("from", "2023-04-06").param("to", "2023-04-06")
+                        .param("status", "MISSING_EXTERNAL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.records.length()").value(2));
+        mockMvc.perform(get("/reconciliation/records").param("from", "2023-04-07").param("to", "2023-04-06"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/reconciliation/records").param("from", "2023-04-06").param("to", "2023-04-06")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rangeReportRunsOnTheJobExecutorAndIsStableOnRerun() throws Exception {
+        seed(LocalDate.of(2023, 4, 3), "C3");
+        seed(LocalDate.of(2023, 4, 4), "C4");
+
+        for (int run = 0; run < 2; run++) {
+            async(get("/reconciliation/report/range").param("from", "2023-04-03").param("to", "2023-04-04"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].reconciliationDate").value("2023-04-03"))
+                    .andExpect(jsonPath("$[0].summary.totalRecords").value(6))
+                    .andExpect(jsonPath("$[1].summary.totalRecords").value(6))
+                    .andExpect(jsonPath("$[0].details").doesNotExist())
+                    .andExpect(jsonPath("$[1].detailsUrl").value(endsWith("/reconciliation/records?from=2023-04-04&to=2023-04-04")));
+            mockMvc.perform(get("/reconciliation/records").param("from", "2023-04-03").param("to", "2023-04-04"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.records.length()").value(12));
+        }
+
+        async(get("/reconciliation/report/range").param("from", "2023-04-04").param("to", "2023-04-03"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rangePairsAcrossMidnightBelongToTheEarlierDay() throws Exception {
+        new ReconciliationTestData(context, LocalDate.of(2023, 4, 9))
+                .internal("C9-T1", "C9-A", "15.00", LocalDateTime.of(2023, 4, 9, 23, 58))
+                .external("C9-T1", "C9-A", "15.00", null, LocalDateTime.of(2023, 4, 10, 0, 1))
+                .stage();
+
+        // Starting the range after midnight still looks behind it, so the external is not reported as missing.
+        async(get("/reconciliation/report/range").param("from", "2023-04-10").param("to", "2023-04-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].summary.totalRecords").value(0));
+
+        async(get("/reconciliation/report/range").param("from", "2023-04-09").param("to", "2023-04-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].summary.totalRecords").value(1))
+                .andExpect(jsonPath("$[0].summary.matchedRecords").value(1))
+                .andExpect(jsonPath("$[1].summary.totalRecords").value(0));
+    }
+
+    @Test
+    void exportHandsUnreconciledDatesToAJobAndStreamsStoredOnes() throws Exception {
+        seed(LocalDate.of(2023, 4, 11), "C11");
+
+        MvcResult accepted = mockMvc.perform(get("/reconciliation/report/export").param("date", "2023-04-11"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/reconciliation/jobs/")))
+                .andReturn();
+        String location = accepted.getResponse().getHeader("Location");
+        String jobId = location.substring(location.lastIndexOf('/') + 1);
+        for (int i = 0; i < 300 && !"COMPLETED".equals(json(mockMvc.perform(get("/reconciliation/jobs/{jobId}", jobId))
+                .andReturn()).get("status").asText()); i++) {
+            Thread.sleep(50);
+        }
+
+        String csv = mockMvc.perform(get("/reconciliation/report/export").param("date", "2023-04-11"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(csv.contains("Total Records: 6"));
+        assertTrue(csv.contains("C11-X1"));
+        assertEquals(7, csv.substring(csv.indexOf("Internal Transaction ID")).split("\n").length);
+    }
+
+    private void seed(LocalDate date, String prefix) throws Exception {
+        new ReconciliationTestData(context, date).typicalDay(prefix);
+    }
+
+    private ResultActions async(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,150 @@
+package com.wallet.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.entity.ReconciliationShard;
+import com.wallet.entity.ShardStatus;
+import com.wallet.repository.ReconciliationShardRepository;
+import com.wallet.service.ReconciliationService;
+import com.wallet.service.ReconciliationShardCoordinator;
+import com.wallet.service.ReconciliationTestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllertest",
+        "spring.jpa.show-sql=false",
+        "wallet.reconciliation.batch-size=2",
+        "wallet.reconciliation.sharding.shard-count=4",
+        "wallet.reconciliation.sharding.poll-interval-ms=3600000",
+        "wallet.external.watch.enabled=false",
+        "wallet.external.local-directory=target/reconciliation-test-data"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "embedded"})
+class ReconciliationShardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ReconciliationShardCoordinator shardCoordinator;
+
+    @Autowired
+    private ReconciliationShardRepository shardRepository;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Test
+    void operatorsCanFinalizeAroundAFailedShardAndRetryIt() throws Exception {
+        LocalDate date = LocalDate.of(2023, 4, 5);
+        seed(date, "C5");
+        shardCoordinator.planShards(date);
+
+        mockMvc.perform(get("/admin/reconciliation/shards").param("date", "2023-04-05"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value("PENDING"));
+
+        ReconciliationShard failed = shardRepository.findByReconciliationDateOrderByShardIndex(date).get(2);
+        failed.setStatus(ShardStatus.FAILED);
+        failed.setAttempts(3);
+        failed.setLastError("IllegalStateException: boom");
+        shardRepository.save(failed);
+        pollUntilSettled(date);
+
+        mockMvc.perform(get("/admin/reconciliation/shards").param("date", "2023-04-05"))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[2].status").value("FAILED"))
+                .andExpect(jsonPath("$[2].lastError").value("IllegalStateException: boom"));
+
+        mockMvc.perform(post("/admin/reconciliation/shards/finalize").param("date", "2023-04-05"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failedShards[0]").value(2));
+
+        mockMvc.perform(post("/admin/reconciliation/shards/retry").param("date", "2023-04-05"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[2].status").value("PENDING"))
+                .andExpect(jsonPath("$[2].attempts").value(0));
+        mockMvc.perform(post("/admin/reconciliation/shards/finalize").param("date", "2023-04-05"))
+                .andExpect(status().isBadRequest());
+
+        pollUntilSettled(date);
+
+        JsonNode shards = json(mockMvc.perform(get("/admin/reconciliation/shards").param("date", "2023-04-05"))
+                .andExpect(status().isOk()).andReturn());
+        int records = 0;
+        for (JsonNode shard : shards) {
+            assertEquals("FINALIZED", shard.get("status").asText());
+            records += shard.path("recordCount").asInt();
+        }
+        assertEquals(6, records);
+
+        mockMvc.perform(post("/admin/reconciliation/shards/finalize").param("date", "2023-05-05"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shardPlanAndFullDayRunReplaceEachOthersResults() throws Exception {
+        LocalDate date = LocalDate.of(2023, 4, 8);
+        seed(date, "C8");
+        MvcResult started = mockMvc.perform(get("/reconciliation/report").param("date", "2023-04-08"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(jsonPath("$.summary.totalRecords").value(6));
+
+        shardCoordinator.planShards(date);
+        pollUntilSettled(date);
+
+        assertEquals(6, reconciliationService.publishStoredReport(date).getSummary().getTotalRecords());
+        mockMvc.perform(get("/reconciliation/records").param("from", "2023-04-08").param("to", "2023-04-08"))
+                .andExpect(jsonPath("$.records.length()").value(6));
+
+        started = mockMvc.perform(get("/reconciliation/report").param("date", "2023-04-08"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(jsonPath("$.summary.totalRecords").value(6));
+        assertTrue(shardRepository.findByReconciliationDateOrderByShardIndex(date).isEmpty());
+        assertEquals(6, reconciliationService.publishStoredReport(date).getSummary().getTotalRecords());
+    }
+
+    private void pollUntilSettled(LocalDate date) throws InterruptedException {
+        // Shards run on the coordinator's workers; polling again once they are done finalizes the date.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        boolean settled = false;
+        while (!settled && System.nanoTime() < deadline) {
+            shardCoordinator.pollShards();
+            Thread.sleep(50);
+            settled = shardRepository.findByReconciliationDateOrderByShardIndex(date).stream()
+                    .noneMatch(shard -> shard.getStatus() == ShardStatus.PENDING || shard.getStatus() == ShardStatus.RUNNING);
+        }
+        assertTrue(settled);
+        shardCoordinator.pollShards();
+    }
+
+    private void seed(LocalDate date, String prefix) throws Exception {
+        new ReconciliationTestData(context, date).typicalDay(prefix);
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,161 @@
+package com.wallet.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import com.wallet.dto.DeadLetterReplayRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DeadLetterReplayServiceTest {
+
+    private static final String DLQ = "wallet.transaction.processing.dlq";
+
+    private RabbitTemplate rabbitTemplate;
+    private AmqpAdmin amqpAdmin;
+    private Channel channel;
+    private DeadLetterReplayService service;
+    private final Deque<GetResponse> deadLetters = new ArrayDeque<>();
+    private long deliveryTag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        amqpAdmin = mock(AmqpAdmin.class);
+        channel = mock(Channel.class);
+        when(channel.basicGet(eq(DLQ), eq(false))).thenAnswer(invocation -> deadLetters.poll());
+        when(rabbitTemplate.execute(ArgumentMatchers.<ChannelCallback<Boolean>>any()))
+                .thenAnswer(invocation -> invocation.<ChannelCallback<Boolean>>getArgument(0).doInRabbit(channel));
+
+        service = new DeadLetterReplayService();
+        ReflectionTestUtils.setField(service, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(service, "amqpAdmin", amqpAdmin);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "walletExchange", "wallet.exchange");
+        ReflectionTestUtils.setField(service, "transactionQueue", "wallet.transaction.processing");
+        ReflectionTestUtils.setField(service, "reconciliationQueue", "wallet.reconciliation.processing");
+        ReflectionTestUtils.setField(service, "transactionRoutingKey", "transaction.process");
+        ReflectionTestUtils.setField(service, "reconciliationRoutingKey", "reconciliation.process");
+        ReflectionTestUtils.setField(service, "defaultRatePerSecond", 10000);
+        ReflectionTestUtils.invokeMethod(service, "init");
+
+        // Rejected after going through the retry tiers: newest death first, the oldest one holds the routing key.
+        deadLetter("CUST1", Map.of("x-death", List.of(
+                death("rejected", "wallet.transaction.processing", "transaction.p1"),
+                death("expired", "wallet.exchange.retry.1", "transaction.p1"),
+                death("expired", "wallet.exchange.retry.0", "transaction.p1"))));
+        // Rejected straight away with retries disabled, before x-death existed on this broker.
+        deadLetter("CUST2", Map.of("x-last-death-reason", "rejected"));
+        // A fragment of a batched delivery, republished to the DLX by the consumer.
+        deadLetter("CUST1", Map.of(TransactionMessageConsumer.ORIGINAL_ROUTING_KEY_HEADER, "transaction.p3",
+                "x-death", List.of(death("expired", "wallet.exchange.retry.0", "transaction.p0"))));
+        when(amqpAdmin.getQueueInfo(DLQ)).thenReturn(new QueueInformation(DLQ, deadLetters.size(), 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Test
+    void replaysByReasonAndRestoresTheOriginalRoutingKey() throws Exception {
+        DeadLetterReplayJob job = replay(request(null, "rejected", null));
+
+        assertEquals(DeadLetterReplayJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getReplayed());
+        assertEquals(1, job.getSkipped());
+        List<Message> replayed = replayedTo("transaction.p1", "transaction.process");
+        assertEquals("CUST1", replayed.get(0).getMessageProperties().getHeader("customerId"));
+        assertNull(replayed.get(0).getMessageProperties().getHeader("x-death"));
+        assertEquals(job.getId(), replayed.get(0).getMessageProperties().getHeader("x-replay-job"));
+        assertNull(replayed.get(1).getMessageProperties().getHeader("x-last-death-reason"));
+        verify(rabbitTemplate).send(eq(""), eq(DLQ), argThat(m ->
+                m.getMessageProperties().getHeader(TransactionMessageConsumer.ORIGINAL_ROUTING_KEY_HEADER) != null));
+        verify(channel, times(3)).basicAck(anyLong(), eq(false));
+    }
+
+    @Test
+    void republishedFragmentsMatchTheirOwnReasonAndRoutingKey() throws Exception {
+        DeadLetterReplayJob job = replay(request("CUST1", "republished", "transaction.p3"));
+
+        assertEquals(1, job.getReplayed());
+        assertEquals(2, job.getSkipped());
+        Message replayed = replayedTo("transaction.p3").get(0);
+        assertNull(replayed.getMessageProperties().getHeader(TransactionMessageConsumer.ORIGINAL_ROUTING_KEY_HEADER));
+    }
+
+    @Test
+    void customerFilterAndMaxMessagesStopEarly() throws Exception {
+        DeadLetterReplayRequest request = request("CUST1", null, null);
+        request.setMaxMessages(1L);
+
+        DeadLetterReplayJob job = replay(request);
+
+        assertEquals(1, job.getReplayed());
+        assertEquals(1, job.getExamined());
+        replayedTo("transaction.p1");
+    }
+
+    private DeadLetterReplayJob replay(DeadLetterReplayRequest request) throws InterruptedException {
+        DeadLetterReplayJob job = service.submit(request);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished());
+        return job;
+    }
+
+    private List<Message> replayedTo(String... routingKeys) {
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(routingKeys.length)).send(eq("wallet.exchange"), keys.capture(), messages.capture());
+        assertEquals(List.of(routingKeys), keys.getAllValues());
+        return messages.getAllValues();
+    }
+
+    private DeadLetterReplayRequest request(String customerId, String reason, String routingKey) {
+        DeadLetterReplayRequest request = new DeadLetterReplayRequest();
+        request.setQueue("transaction");
+        request.setCustomerId(customerId);
+        request.setReason(reason);
+        request.setRoutingKey(routingKey);
+        return request;
+    }
+
+    private Map<String, Object> death(String reason, String queue, String routingKey) {
+        return Map.of("reason", reason, "queue", queue, "exchange", "wallet.exchange",
+                "routing-keys", List.of(routingKey), "count", 1L);
+    }
+
+    private void deadLetter(String customerId, Map<String, Object> deathHeaders) {
+        Map<String, Object> headers = new HashMap<>(deathHeaders);
+        headers.put("customerId", customerId);
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().headers(headers).build();
+        deadLetters.add(new GetResponse(new Envelope(++deliveryTag, false, "wallet.exchange.dlx", "dead.transaction"),
+                properties, "{}".getBytes(StandardCharsets.UTF_8), 0));
+    }
+}
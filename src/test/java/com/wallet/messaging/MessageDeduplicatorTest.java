@@ -0,0 +1,98 @@
+package com.wallet.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MessageDeduplicatorTest {
+
+    private MessageDeduplicator deduplicator;
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        deduplicator = new MessageDeduplicator();
+        ReflectionTestUtils.setField(deduplicator, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(deduplicator, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(deduplicator, "windowSeconds", 600L);
+        ReflectionTestUtils.setField(deduplicator, "segmentCount", 2);
+        ReflectionTestUtils.setField(deduplicator, "maxEntries", 4);
+        ReflectionTestUtils.setField(deduplicator, "retentionHours", 168L);
+    }
+
+    @Test
+    void remembersProcessedMessagesPerScope() {
+        deduplicator.init();
+        deduplicator.markProcessed("transaction", "m1");
+
+        assertTrue(deduplicator.isDuplicate("transaction", "m1"));
+        assertFalse(deduplicator.isDuplicate("reconciliation", "m1"));
+        assertFalse(deduplicator.isDuplicate("transaction", "m2"));
+        assertEquals(1.0, meterRegistry.counter("wallet.messaging.dedup.lookups", "result", "hit").count());
+        assertEquals(2.0, meterRegistry.counter("wallet.messaging.dedup.lookups", "result", "miss").count());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void fullSegmentsRotateAndDropTheOldestIds() {
+        deduplicator.init();
+        deduplicator.markProcessed("transaction", "m1");
+        deduplicator.markProcessed("transaction", "m2");
+        deduplicator.markProcessed("transaction", "m3");
+
+        // Two per segment: m1 and m2 moved to the older segment and are still known.
+        assertTrue(deduplicator.isDuplicate("transaction", "m1"));
+        assertTrue(deduplicator.isDuplicate("transaction", "m3"));
+
+        deduplicator.markProcessed("transaction", "m4");
+        deduplicator.markProcessed("transaction", "m5");
+
+        assertFalse(deduplicator.isDuplicate("transaction", "m1"));
+        assertTrue(deduplicator.isDuplicate("transaction", "m4"));
+        assertTrue(deduplicator.isDuplicate("transaction", "m5"));
+        assertEquals(2.0, meterRegistry.counter("wallet.messaging.dedup.evicted").count());
+        assertEquals(3, deduplicator.size());
+    }
+
+    @Test
+    void windowExpiryRotatesSegmentsOnLookup() {
+        deduplicator.init();
+        deduplicator.markProcessed("transaction", "m1");
+
+        expireRotation();
+        assertTrue(deduplicator.isDuplicate("transaction", "m1"));
+        expireRotation();
+        assertFalse(deduplicator.isDuplicate("transaction", "m1"));
+    }
+
+    @Test
+    void persistentHitIsPulledBackIntoMemory() {
+        ReflectionTestUtils.setField(deduplicator, "persistent", true);
+        deduplicator.init();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("transaction:m1"))).thenReturn(1);
+
+        assertTrue(deduplicator.isDuplicate("transaction", "m1"));
+        assertTrue(deduplicator.isDuplicate("transaction", "m1"));
+
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Integer.class), eq("transaction:m1"));
+        assertEquals(1.0, meterRegistry.counter("wallet.messaging.dedup.lookups", "result", "persistent-hit").count());
+
+        deduplicator.markProcessed("transaction", "m2");
+        verify(jdbcTemplate).update(anyString(), eq("transaction:m2"), any());
+    }
+
+    private void expireRotation() {
+        ReflectionTestUtils.setField(deduplicator, "nextRotationNanos", System.nanoTime() - 1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.wallet.messaging;
+
+import com.wallet.entity.ReconciliationRecord;
+import com.wallet.entity.ReconciliationStatus;
+import com.wallet.service.ReconciliationMatcher;
+import com.wallet.service.ReconciliationMessagingService;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailMessage;
+import com.wallet.service.ReconciliationMessagingService.ReconciliationDetailStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ReconciliationDetailAssemblerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 12, 1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReconciliationDetailAssembler assembler;
+    private ReconciliationMessagingService messagingService;
+    private List<ReconciliationDetailMessage> published;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        assembler = new ReconciliationDetailAssembler();
+        ReflectionTestUtils.setField(assembler, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(assembler, "streamTimeoutMinutes", 30L);
+        assembler.init();
+
+        published = new ArrayList<>();
+        WalletEventBus eventBus = mock(WalletEventBus.class);
+        doAnswer(invocation -> published.add(invocation.getArgument(0)))
+                .when(eventBus).publishReconciliationDetails(any());
+        messagingService = new ReconciliationMessagingService();
+        ReflectionTestUtils.setField(messagingService, "eventBus", eventBus);
+        ReflectionTestUtils.setField(messagingService, "reconciliationMatcher", new ReconciliationMatcher());
+        ReflectionTestUtils.setField(messagingService, "detailStreamEnabled", true);
+        ReflectionTestUtils.setField(messagingService, "detailChunkRecords", 3);
+        ReflectionTestUtils.setField(messagingService, "detailStreamIncludeMatched", false);
+    }
+
+    @Test
+    void streamSkipsMatchedRecordsAndEndsWithAManifest() {
+        stream(10, 4);
+
+        ReconciliationDetailMessage manifest = published.get(published.size() - 1);
+        assertEquals(ReconciliationDetailMessage.MANIFEST, manifest.getType());
+        assertEquals(2, manifest.getChunkCount());
+        assertEquals(6L, manifest.getRecordCount());
+        assertEquals(3L, manifest.getStatusCounts().get("MISSING_EXTERNAL"));
+        assertFalse(manifest.getStatusCounts().containsKey("MATCHED"));
+        assertEquals(List.of(0, 1), published.subList(0, 2).stream().map(ReconciliationDetailMessage::getSequence).toList());
+    }
+
+    @Test
+    void reassemblesOutOfOrderAndRedeliveredChunks() {
+        stream(20, 2);
+        List<ReconciliationDetailMessage> delivered = new ArrayList<>(published);
+        delivered.add(published.get(1));
+        delivered.add(published.get(0));
+        Collections.shuffle(delivered, new Random(7));
+
+        delivered.forEach(assembler::accept);
+
+        assertEquals(1.0, meterRegistry.counter("wallet.reconciliation.details.streams", "outcome", "completed").count());
+        assertEquals(published.size() - 1.0,
+                     meterRegistry.counter("wallet.reconciliation.details.chunks", "outcome", "processed").count());
+        assertEquals(0.0, meterRegistry.get("wallet.reconciliation.details.open-streams").gauge().value());
+    }
+
+    @Test
+    void manifestThatDisagreesWithTheChunksIsReported() {
+        stream(6, 0);
+        ReconciliationDetailMessage manifest = published.get(published.size() - 1);
+        manifest.setRecordCount(manifest.getRecordCount() + 1);
+
+        published.forEach(assembler::accept);
+
+        assertEquals(1.0, meterRegistry.counter("wallet.reconciliation.details.streams", "outcome", "mismatched").count());
+    }
+
+    @Test
+    void streamWithAMissingChunkStaysOpenUntilEvicted() {
+        stream(9, 0);
+        published.remove(1);
+        published.forEach(assembler::accept);
+
+        assertEquals(1.0, meterRegistry.get("wallet.reconciliation.details.open-streams").gauge().value());
+
+        ReflectionTestUtils.setField(assembler, "streamTimeoutMinutes", 0L);
+        assembler.evictStaleStreams();
+
+        assertEquals(1.0, meterRegistry.counter("wallet.reconciliation.details.streams", "outcome", "incomplete").count());
+        assertEquals(0.0, meterRegistry.get("wallet.reconciliation.details.open-streams").gauge().value());
+    }
+
+    private void stream(int records, int matched) {
+        ReconciliationDetailStream stream = messagingService.openDetailStream(DATE, 0, 64, false);
+        List<ReconciliationRecord> batch = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            ReconciliationStatus status = i < matched ? ReconciliationStatus.MATCHED
+                    : i % 2 == 0 ? ReconciliationStatus.MISSING_EXTERNAL : ReconciliationStatus.MISSING_INTERNAL;
+            batch.add(new ReconciliationRecord(DATE, "TXN" + i, null, BigDecimal.ONE, null, status));
+        }
+        stream.add(batch.subList(0, records / 2));
+        stream.add(batch.subList(records / 2, records));
+        stream.finish();
+    }
+}
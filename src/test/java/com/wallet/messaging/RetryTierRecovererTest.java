@@ -0,0 +1,112 @@
+package com.wallet.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RetryTierRecovererTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private RetryTierRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        recoverer = new RetryTierRecoverer();
+        ReflectionTestUtils.setField(recoverer, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(recoverer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(recoverer, "walletExchange", "wallet.exchange");
+        ReflectionTestUtils.setField(recoverer, "enabled", true);
+        ReflectionTestUtils.setField(recoverer, "attempts", 4);
+        ReflectionTestUtils.setField(recoverer, "initialDelayMs", 1000L);
+        ReflectionTestUtils.setField(recoverer, "multiplier", 5.0);
+        ReflectionTestUtils.setField(recoverer, "maxDelayMs", 60000L);
+    }
+
+    @Test
+    void tierDelaysGrowAndAreCapped() {
+        assertEquals(List.of(1000L, 5000L, 25000L, 60000L), recoverer.tierDelays());
+        assertEquals("wallet.exchange.retry", recoverer.retryExchange());
+        assertEquals("wallet.exchange.retry.2", recoverer.tierQueue(2));
+    }
+
+    @Test
+    void firstFailureGoesToTierZeroOnTheReceivedRoutingKey() {
+        assertTrue(recoverer.scheduleRetry(message(null), new IllegalStateException("boom")));
+
+        Message sent = sent("transaction.p3");
+        assertEquals(0, (Integer) sent.getMessageProperties().getHeader(RetryTierRecoverer.RETRY_TIER_HEADER));
+        assertEquals(1, (Integer) sent.getMessageProperties().getHeader(RetryTierRecoverer.RETRY_ATTEMPT_HEADER));
+        assertEquals("payload", new String(sent.getBody(), StandardCharsets.UTF_8));
+        assertEquals(1, meterRegistry.counter("wallet.messaging.retries", "tier", "0").count());
+    }
+
+    @Test
+    void laterFailuresMoveToTheNextTier() {
+        assertTrue(recoverer.scheduleRetry(message(2), null));
+
+        Message sent = sent("transaction.p3");
+        assertEquals(2, (Integer) sent.getMessageProperties().getHeader(RetryTierRecoverer.RETRY_TIER_HEADER));
+        assertEquals(3, (Integer) sent.getMessageProperties().getHeader(RetryTierRecoverer.RETRY_ATTEMPT_HEADER));
+    }
+
+    @Test
+    void exhaustedOrDisabledRetriesAreNotScheduled() {
+        assertFalse(recoverer.scheduleRetry(message(4), null));
+
+        ReflectionTestUtils.setField(recoverer, "enabled", false);
+        assertFalse(recoverer.scheduleRetry(message(null), null));
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void failedPublishIsNotCountedAsScheduled() {
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        assertFalse(recoverer.scheduleRetry(message(null), null));
+    }
+
+    @Test
+    void recoverRejectsWithoutRequeueOnceExhausted() {
+        Message message = message(4);
+
+        ListenerExecutionFailedException e = assertThrows(ListenerExecutionFailedException.class,
+                () -> recoverer.recover(message, new IllegalStateException("boom")));
+        assertInstanceOf(AmqpRejectAndDontRequeueException.class, e.getCause());
+
+        assertDoesNotThrow(() -> recoverer.recover(message(0), new IllegalStateException("boom")));
+    }
+
+    private Message sent(String routingKey) {
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("wallet.exchange.retry"), eq(routingKey), captor.capture());
+        return captor.getValue();
+    }
+
+    private Message message(Integer attempt) {
+        MessageProperties properties = new MessageProperties();
+        properties.setReceivedRoutingKey("transaction.p3");
+        if (attempt != null) {
+            properties.setHeader(RetryTierRecoverer.RETRY_ATTEMPT_HEADER, attempt);
+        }
+        return new Message("payload".getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,82 @@
+package com.wallet.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(6));
+        assertEquals(8, new RingBuffer<String>(8).capacity());
+    }
+
+    @Test
+    void drainsInOrderAcrossWraparound() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 3; i++) {
+                ring.publish(round * 3 + i);
+            }
+            assertEquals(3, ring.backlog());
+            assertEquals(2, ring.drain(drained::add, 2));
+            assertEquals(1, ring.drain(drained::add, 10));
+            assertEquals(0, ring.backlog());
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, drained);
+    }
+
+    @Test
+    void failingHandlerKeepsTheEventsItHadConsumed() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        ring.publish(1);
+        ring.publish(2);
+        ring.publish(3);
+
+        assertThrows(IllegalStateException.class, () -> ring.drain(event -> {
+            if (event == 2) {
+                throw new IllegalStateException("handler failed");
+            }
+        }, 10));
+
+        // The event the handler failed on counts as consumed; the ring moves on to the next one.
+        List<Integer> rest = new ArrayList<>();
+        ring.drain(rest::add, 10);
+        assertEquals(List.of(3), rest);
+    }
+
+    @Test
+    void fullRingHoldsTheProducerBackUntilDrained() throws Exception {
+        RingBuffer<Integer> ring = new RingBuffer<>(2);
+        ring.publish(1);
+        ring.publish(2);
+
+        CountDownLatch published = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            ring.publish(3);
+            published.countDown();
+        });
+        producer.start();
+
+        assertFalse(published.await(200, TimeUnit.MILLISECONDS));
+        List<Integer> drained = new ArrayList<>();
+        ring.drain(drained::add, 1);
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        ring.drain(drained::add, 10);
+        assertEquals(List.of(1, 2, 3), drained);
+        producer.join();
+    }
+}
@@ -0,0 +1,115 @@
+package com.wallet.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionMessageCodecTest {
+
+    private ObjectMapper objectMapper;
+    private TransactionMessageCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        codec = new TransactionMessageCodec();
+        ReflectionTestUtils.setField(codec, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(codec, "format", "json");
+    }
+
+    @Test
+    void jsonRoundTrip() throws IOException {
+        TransactionMessage original = fullMessage();
+
+        Message encoded = codec.encode(original);
+
+        assertEquals(TransactionMessageCodec.JSON_CONTENT_TYPE, encoded.getMessageProperties().getContentType());
+        assertEquals("TXN1", encoded.getMessageProperties().getMessageId());
+        assertEquals("CUST1", encoded.getMessageProperties().getHeader("customerId"));
+        assertSameMessage(original, codec.decode(encoded));
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        ReflectionTestUtils.setField(codec, "format", "binary");
+        TransactionMessage original = fullMessage();
+
+        Message encoded = codec.encode(original);
+
+        assertEquals(TransactionMessageCodec.BINARY_CONTENT_TYPE, encoded.getMessageProperties().getContentType());
+        assertTrue(encoded.getBody().length < codec.encodeJson(original).length);
+        assertSameMessage(original, codec.decode(encoded));
+    }
+
+    @Test
+    void binaryRoundTripWithOptionalFieldsMissing() throws IOException {
+        TransactionMessage original = new TransactionMessage("TXN2", null, "CONSUME", new BigDecimal("-0.01"),
+                                                             null, null, null, null, null);
+
+        TransactionMessage decoded = codec.decodeBinary(codec.encodeBinary(original));
+
+        assertSameMessage(original, decoded);
+    }
+
+    @Test
+    void legacyStringWrappedJsonIsUnwrapped() throws IOException {
+        TransactionMessage original = fullMessage();
+        byte[] legacy = objectMapper.writeValueAsBytes(objectMapper.writeValueAsString(original));
+
+        assertSameMessage(original, codec.decodeJson(legacy));
+    }
+
+    @Test
+    void unknownBinaryVersionIsRejected() throws IOException {
+        byte[] body = codec.encodeBinary(fullMessage());
+        body[0] = 9;
+
+        assertThrows(IOException.class, () -> codec.decodeBinary(body));
+    }
+
+    @Test
+    void pooledBufferDoesNotLeakBytesBetweenMessages() throws IOException {
+        TransactionMessage large = fullMessage();
+        large.setReference("€".repeat(20_000));
+        large.setStatus("s".repeat(30_000));
+        codec.encodeBinary(large);
+
+        TransactionMessage small = new TransactionMessage("TXN3", "CUST3", "TOPUP", BigDecimal.ONE, null, null, null, null, null);
+        byte[] encoded = codec.encodeBinary(small);
+
+        assertSameMessage(small, codec.decodeBinary(encoded));
+        assertTrue(encoded.length < 64);
+    }
+
+    private TransactionMessage fullMessage() {
+        return new TransactionMessage("TXN1", "CUST1", "TOPUP", new BigDecimal("1234567.89"),
+                new BigDecimal("10.00"), new BigDecimal("1234577.89"), "COMPLETED", "ref-ü",
+                LocalDateTime.of(2023, 12, 1, 23, 59, 59, 123_000_000));
+    }
+
+    private void assertSameMessage(TransactionMessage expected, TransactionMessage actual) {
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getBalanceBefore(), actual.getBalanceBefore());
+        assertEquals(expected.getBalanceAfter(), actual.getBalanceAfter());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getReference(), actual.getReference());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+}
@@ -0,0 +1,146 @@
+package com.wallet.messaging;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.rabbitmq.client.Channel;
+import com.wallet.service.TransactionMessagingService.TransactionMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionMessageConsumerTest {
+
+    private TransactionMessageCodec codec;
+    private TransactionEventHandler eventHandler;
+    private RetryTierRecoverer retryTierRecoverer;
+    private RabbitTemplate rabbitTemplate;
+    private Channel channel;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionMessageConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        codec = new TransactionMessageCodec();
+        ReflectionTestUtils.setField(codec, "objectMapper", JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+        ReflectionTestUtils.setField(codec, "format", "json");
+
+        eventHandler = mock(TransactionEventHandler.class);
+        retryTierRecoverer = mock(RetryTierRecoverer.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        channel = mock(Channel.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        consumer = new TransactionMessageConsumer();
+        ReflectionTestUtils.setField(consumer, "messageCodec", codec);
+        ReflectionTestUtils.setField(consumer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(consumer, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(consumer, "eventHandler", eventHandler);
+        ReflectionTestUtils.setField(consumer, "retryTierRecoverer", retryTierRecoverer);
+        ReflectionTestUtils.setField(consumer, "walletExchange", "wallet.exchange");
+        consumer.registerMetrics();
+
+        when(eventHandler.handle(any())).thenReturn(true);
+    }
+
+    @Test
+    void acksTheWholeBatchUpToTheLastTag() throws IOException {
+        when(eventHandler.handle(argThat(m -> m != null && m.getTransactionId().equals("TXN2")))).thenReturn(false);
+
+        consumer.processTransactions(List.of(message("TXN1", 1), message("TXN2", 2), message("TXN3", 3)), channel);
+
+        verify(channel).basicAck(3, true);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        assertEquals(2, count("processed"));
+        assertEquals(1, count("duplicate"));
+    }
+
+    @Test
+    void failedMessageIsRetriedAndStillAcked() throws IOException {
+        failOn("TXN2");
+        when(retryTierRecoverer.scheduleRetry(any(), any())).thenReturn(true);
+
+        consumer.processTransactions(List.of(message("TXN1", 1), message("TXN2", 2)), channel);
+
+        verify(retryTierRecoverer).scheduleRetry(argThat(m -> m.getMessageProperties().getDeliveryTag() == 2), any());
+        verify(channel).basicAck(2, true);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        assertEquals(1, count("retried"));
+    }
+
+    @Test
+    void exhaustedSingleMessageIsNackedAndExcludedFromTheAck() throws IOException {
+        failOn("TXN3");
+
+        consumer.processTransactions(List.of(message("TXN1", 1), message("TXN2", 2), message("TXN3", 3)), channel);
+
+        verify(channel).basicNack(3, false, false);
+        verify(channel).basicAck(2, true);
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class));
+        assertEquals(1, count("dead-lettered"));
+    }
+
+    @Test
+    void failedFragmentOfABatchedDeliveryIsDeadLetteredAlone() throws IOException {
+        failOn("TXN2");
+
+        consumer.processTransactions(List.of(message("TXN1", 5), message("TXN2", 5), message("TXN3", 5)), channel);
+
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("wallet.exchange.dlx"), eq("dead.transaction"), captor.capture());
+        assertEquals("transaction.p2", captor.getValue().getMessageProperties()
+                .getHeader(TransactionMessageConsumer.ORIGINAL_ROUTING_KEY_HEADER));
+        assertEquals("TXN2", captor.getValue().getMessageProperties().getMessageId());
+        verify(eventHandler, times(3)).handle(any());
+        verify(channel).basicAck(5, true);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void batchedDeliveryIsNackedWhenTheFragmentCannotBeDeadLettered() throws IOException {
+        failOn("TXN2");
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        consumer.processTransactions(List.of(message("TXN0", 4), message("TXN1", 5), message("TXN2", 5),
+                message("TXN3", 5)), channel);
+
+        verify(channel).basicNack(5, false, false);
+        verify(channel).basicAck(4, true);
+        // Once the delivery is nacked, its remaining fragments are redelivered from the DLQ instead.
+        verify(eventHandler, never()).handle(argThat(m -> m != null && m.getTransactionId().equals("TXN3")));
+    }
+
+    private void failOn(String transactionId) {
+        when(eventHandler.handle(argThat(m -> m != null && m.getTransactionId().equals(transactionId))))
+                .thenThrow(new IllegalStateException("boom"));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("wallet.messaging.transaction.messages", "outcome", outcome).count();
+    }
+
+    private Message message(String transactionId, long deliveryTag) throws IOException {
+        Message message = codec.encode(new TransactionMessage(transactionId, "CUST1", "TOPUP",
+                new BigDecimal("10.00"), BigDecimal.ZERO, new BigDecimal("10.00"), "COMPLETED", "ref",
+                LocalDateTime.of(2023, 12, 1, 10, 0)));
+        message.getMessageProperties().setDeliveryTag(deliveryTag);
+        message.getMessageProperties().setReceivedRoutingKey("transaction.p2");
+        return message;
+    }
+}
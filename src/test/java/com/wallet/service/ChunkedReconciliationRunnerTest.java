@@ -0,0 +1,344 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.dto.ReconciliationReportResponse.ReconciliationSummary;
+import com.wallet.entity.ReconciliationCheckpoint;
+import com.wallet.entity.ReconciliationDigest;
+import com.wallet.entity.ReconciliationPhase;
+import com.wallet.entity.Wallet;
+import com.wallet.repository.ReconciliationCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:runnertest",
+        "spring.jpa.show-sql=false",
+        "wallet.reconciliation.batch-size=2",
+        "wallet.reconciliation.sharding.poll-interval-ms=3600000",
+        "wallet.external.watch.enabled=false",
+        "wallet.external.local-directory=target/reconciliation-test-data"
+})
+@ActiveProfiles({"test", "embedded"})
+class ChunkedReconciliationRunnerTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ChunkedReconciliationRunner runner;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ReconciliationDigestService digestService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void restoreDigests() {
+        setDigestEnabled(true);
+    }
+
+    @Test
+    void reconcilesEveryOutcomeAcrossChunksAndReplacesTheDayOnRerun() throws Exception {
+        LocalDate date = LocalDate.of(2023, 3, 1);
+        ReconciliationTestData data = new ReconciliationTestData(context, date)
+                .internal("R1-T1", "R1-A", "10.00")
+                .internal("R1-T2", "R1-A", "20.00")
+                .internal("R1-T3", "R1-A", "30.00")
+                .internal("R1-T4", "R1-B", "40.00")
+                .internal("R1-T5", "R1-B", "50.00")
+                .internal("R1-T6", "R1-C", "60.00")
+                .internal("R1-T7", "R1-C", "70.00")
+                .external("R1-T1", "R1-A", "10.00", null)
+                .external("R1-T2", "R1-A", "25.00", null)
+                .external("R1-T4", "R1-B", "40.00", null)
+                .external("R1-T5", "R1-B", "50.00", null)
+                .external("BANK-6", "R1-C", "60.00", "R1-T6")
+                .external("BANK-8", "R1-D", "80.00", null)
+                .stage();
+
+        for (int run = 0; run < 2; run++) {
+            ReconciliationCheckpoint checkpoint = runner.run(date, 0, Wallet.SHARD_BUCKETS, true, () -> true);
+
+            assertEquals(ReconciliationPhase.COMPLETED, checkpoint.getPhase());
+            assertEquals(8, checkpoint.getTotalRecords());
+            assertEquals(3, checkpoint.getMatchedRecords());
+            assertEquals(1, checkpoint.getAmountMismatchRecords());
+            assertEquals(1, checkpoint.getFuzzyMatchedRecords());
+            assertEquals(2, checkpoint.getMissingExternalRecords());
+            assertEquals(1, checkpoint.getMissingInternalRecords());
+            assertEquals(0, new BigDecimal("280.00").compareTo(checkpoint.getTotalInternalAmount()));
+            assertEquals(0, new BigDecimal("265.00").compareTo(checkpoint.getTotalExternalAmount()));
+            // Compact storage keeps the exceptions only, and a rerun replaces them instead of adding to them.
+            assertEquals(5, data.storedRecords());
+
+            ReconciliationSummary summary = reconciliationService.publishStoredReport(date).getSummary();
+            assertEquals(8, summary.getTotalRecords());
+            assertEquals(3, summary.getMatchedRecords());
+            assertEquals(1, summary.getFuzzyMatchedRecords());
+        }
+    }
+
+    @Test
+    void cleanDigestBucketsAreCountedWithoutLoadingRecords() throws Exception {
+        LocalDate date = LocalDate.of(2023, 3, 2);
+        ReconciliationTestData data = new ReconciliationTestData(context, date);
+        for (int i = 1; i <= 4; i++) {
+            data.internal("R2-T" + i, "R2-A", i + ".00").external("R2-T" + i, "R2-A", i + ".00", null);
+        }
+        data.stage();
+
+        ReconciliationCheckpoint checkpoint = runner.run(date, 0, Wallet.SHARD_BUCKETS, true, () -> true);
+
+        assertEquals(ReconciliationPhase.COMPLETED, checkpoint.getPhase());
+        assertEquals("", checkpoint.getDirtyBuckets());
+        assertEquals(4, checkpoint.getMatchedRecords());
+        assertEquals(8, checkpoint.getProcessedRecords());
+        assertEquals(0, data.storedRecords());
+        assertEquals(4, reconciliationService.publishStoredReport(date).getSummary().getMatchedRecords());
+    }
+
+    @Test
+    void onlyDirtyDigestBucketsAreReconciled() throws Exception {
+        LocalDate date = LocalDate.of(2023, 3, 3);
+        ReconciliationTestData data = new ReconciliationTestData(context, date);
+        for (int i = 1; i <= 4; i++) {
+            data.internal("R3-T" + i, "R3-A", i + ".00").external("R3-T" + i, "R3-A", i == 4 ? "4.50" : i + ".00", null);
+        }
+        data.stage();
+
+        ReconciliationCheckpoint checkpoint = runner.run(date, 0, Wallet.SHARD_BUCKETS, true, () -> true);
+
+        assertEquals(String.valueOf(ReconciliationDigest.bucketOf("R3-T4")), checkpoint.getDirtyBuckets());
+        assertEquals(3, checkpoint.getMatchedRecords());
+        assertEquals(1, checkpoint.getAmountMismatchRecords());
+        assertEquals(1, data.storedRecords());
+    }
+
+    @Test
+    void transactionsWithoutDigestsAreReconciledAfterTheDigestsAreRebuilt() throws Exception {
+        LocalDate date = LocalDate.of(2023, 3, 6);
+        ReconciliationTestData data = new ReconciliationTestData(context, date);
+        for (int i = 1; i <= 3; i++) {
+            data.internal("R6-T" + i, "R6-A", i + ".00").external("R6-T" + i, "R6-A", i + ".00", null);
+        }
+        data.stage();
+        assertEquals(3, runner.run(date, 0, Wallet.SHARD_BUCKETS, true, () -> true).getMatchedRecords());
+
+        // A late row has no digest on either side, so its bucket only shows up once the internal digest is rebuilt.
+        data.internal("R6-T4", "R6-A", "4.00");
+        ReconciliationCheckpoint checkpoint = runner.run(date, 0, Wallet.SHARD_BUCKETS, true, () -> true);
+
+        assertEquals(String.valueOf(ReconciliationDigest.bucketOf("R6-T4")), checkpoint.getDirtyBuckets());
+        assertEquals(3, checkpoint.getMatchedRecords());
+        assertEquals(1, checkpoint.getMissingExternalRecords());
+        assertEquals(1, data.storedRecords());
+    }
+
+    @Test
+    void shardRunsSkipCleanDigestBucketsWithinTheirOwnRange() throws Exception {
+        LocalDate date = LocalDate.of(2023, 3, 7);
+        ReconciliationTestData data = new ReconciliationTestData(context, date);
+        for (int i = 1; i <= 6; i++) {
+            String customer = "R7-" + (char) ('A' + i % 3);
+            data.internal("R7-T" + i, customer, i + ".00").external("R7-T" + i, customer, i == 6 ? "6.50" : i + ".00", null);
+        }
+        data.stage();
+        digestService.refreshInternal(date);
+
+        int half = Wallet.SHARD_BUCKETS / 2;
+        ReconciliationCheckpoint lower = runner.run(date, 0, half, true, () -> true);
+        ReconciliationCheckpoint upper = runner.run(date, half, Wallet.SHARD_BUCKETS, true, () -> true);
+
+        String dirty = String.valueOf(ReconciliationDigest.bucketOf("R7-T6"));
+        assertEquals(dirty, lower.getDirtyBuckets());
+        assertEquals(dirty, upper.getDirtyBuckets());
+        assertEquals(5, lower.getMatchedRecords() + upper.getMatchedRecords());
+        assertEquals(1, lower.getAmountMismatchRecords() + upper.getAmountMismatchRecords());
+        assertEquals(12, lower.getProcessedRecords() + upper.getProcessedRecords());
+        assertEquals(1, data.storedRecords());
+    }
+
+    @Test
+    void shardsFindExternalRowsBucketedUnderAnotherCustomer() throws Exception {
+        setDigestEnabled(false);
+        LocalDate date = LocalDate.of(2023, 3, 8);
+        int half = Wallet.SHARD_BUCKETS / 2;
+        String lowCustomer = customerIn(0, half);
+        String highCustomer = customerIn(half, Wallet.SHARD_BUCKETS);
+        // The bank books R8-T1 under a customer of the other shard, and two sources report R8-X1 under different ones.
+        ReconciliationTestData data = new ReconciliationTestData(context, date)
+                .internal("R8-T1", lowCustomer, "10.00")
+                .internal("R8-T2", lowCustomer, "20.00")
+                .external("R8-T1", highCustomer, "10.00", null)
+                .external("R8-X1", highCustomer, "30.00", null)
+                .stage()
+                .external("R8-X1", lowCustomer, "30.00", null)
+                .stage("card");
+
+        ReconciliationCheckpoint lower = runner.run(date, 0, half, true, () -> true);
+        ReconciliationCheckpoint upper = runner.run(date, half, Wallet.SHARD_BUCKETS, true, () -> true);
+
+        assertEquals(1, lower.getMatchedRecords());
+        assertEquals(1, lower.getMissingExternalRecords());
+        assertEquals(0, lower.getMissingInternalRecords());
+        assertEquals(1, upper.getMissingInternalRecords());
+        assertEquals(1, upper.getTotalRecords());
+        assertEquals(2, data.storedRecords());
+    }
+
+    @Test
+    void interruptedRunResumesAfterItsLastCommittedKey() throws Exception {
+        setDigestEnabled(false);
+        LocalDate date = LocalDate.of(2023, 3, 4);
+        ReconciliationTestData data = new ReconciliationTestData(context, date);
+        for (int i = 1; i <= 5; i++) {
+            data.internal("R4-T" + i, "R4-A", i + ".00");
+            if (i < 5) {
+                data.external("R4-T" + i, "R4-A", i + ".00", null);
+            }
+        }
+        data.stage();
+
+        AtomicInteger chunks = new AtomicInteger();
+        assertThrows(IllegalStateException.class,
+                () -> runner.run(date, 0, Wallet.SHARD_BUCKETS, true, () -> chunks.incrementAndGet() != 2));
+
+        ReconciliationCheckpoint interrupted = checkpoint(date);
+        assertEquals(ReconciliationPhase.INTERNAL, interrupted.getPhase());
+        assertEquals("R4-T2", interrupted.getLastKey());
+        assertEquals(2, interrupted.getProcessedRecords());
+
+        ReconciliationCheckpoint checkpoint = runner.run(date, 0, Wallet.SHARD_BUCKETS, false, () -> true);
+
+        assertEquals(ReconciliationPhase.COMPLETED, checkpoint.getPhase());
+        assertEquals(5, checkpoint.getTotalRecords());
+        assertEquals(4, checkpoint.getMatchedRecords());
+        assertEquals(1, checkpoint.getMissingExternalRecords());
+        assertEquals(9, checkpoint.getProcessedRecords());
+        assertEquals(1, data.storedRecords());
+        assertEquals(5, reconciliationService.publishStoredReport(date).getSummary().getTotalRecords());
+    }
+
+    @Test
+    void chunkIsRejectedWhenAnotherRunAdvancedTheCheckpoint() throws Exception {
+        setDigestEnabled(false);
+        LocalDate date = LocalDate.of(2023, 3, 5);
+        ReconciliationTestData data = new ReconciliationTestData(context, date)
+                .internal("R5-T1", "R5-A", "1.00")
+                .internal("R5-T2", "R5-A", "2.00")
+                .external("R5-T1", "R5-A", "1.00", null)
+                .stage();
+
+        TransactionTemplate otherRun = new TransactionTemplate(transactionManager);
+        otherRun.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean advanced = new AtomicBoolean();
+        BooleanSupplier guard = () -> {
+            if (advanced.compareAndSet(false, true)) {
+                otherRun.executeWithoutResult(status -> {
+                    ReconciliationCheckpoint other = checkpoint(date);
+                    other.setLastKey("R5-T9");
+                    checkpointRepository.save(other);
+                });
+            }
+            return true;
+        };
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> runner.run(date, 0, Wallet.SHARD_BUCKETS, true, guard));
+
+        ReconciliationCheckpoint checkpoint = checkpoint(date);
+        assertEquals("R5-T9", checkpoint.getLastKey());
+        assertEquals(0, checkpoint.getProcessedRecords());
+        assertEquals(0, data.storedRecords());
+    }
+
+    @Test
+    void concurrentUploadsStageEachRowOnceAndKeepCommittedBatches() throws Exception {
+        ExternalTransactionStagingService stagingService = context.getBean(ExternalTransactionStagingService.class);
+        List<ExternalTransactionRecord> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(new ExternalTransactionRecord("R9-T" + i, "R9-A", new BigDecimal("1.00"), "TOPUP",
+                    LocalDate.of(2023, 3, 9).atTime(12, 0), null));
+        }
+
+        ExecutorService uploads = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<ExternalRecordReadResult>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(uploads.submit(() -> stagingService.stage("race", sink -> {
+                    sink.accept(batch);
+                    return new ExternalRecordReadResult();
+                })));
+            }
+            long staged = 0;
+            for (Future<ExternalRecordReadResult> result : results) {
+                staged += result.get(30, TimeUnit.SECONDS).getRecordsStaged();
+            }
+            assertEquals(50, staged);
+        } finally {
+            uploads.shutdownNow();
+        }
+
+        // A batch that committed stays staged when a later batch of the same upload fails.
+        assertThrows(IOException.class, () -> stagingService.stage("partial", sink -> {
+            sink.accept(batch.subList(0, 10));
+            throw new IOException("connection reset");
+        }));
+        ExternalRecordReadResult rerun = stagingService.stage("partial", sink -> {
+            sink.accept(batch);
+            return new ExternalRecordReadResult();
+        });
+        assertEquals(40, rerun.getRecordsStaged());
+    }
+
+    private ReconciliationCheckpoint checkpoint(LocalDate date) {
+        return checkpointRepository.findByReconciliationDateAndBucketStartAndBucketEnd(date, 0, Wallet.SHARD_BUCKETS)
+                .orElseThrow();
+    }
+
+    private String customerIn(int bucketStart, int bucketEnd) {
+        for (int i = 0; ; i++) {
+            int bucket = Wallet.shardBucketOf("R8-C" + i);
+            if (bucket >= bucketStart && bucket < bucketEnd) {
+                return "R8-C" + i;
+            }
+        }
+    }
+
+    private void setDigestEnabled(boolean enabled) {
+        ChunkedReconciliationRunner target = AopTestUtils.getTargetObject(runner);
+        ReflectionTestUtils.setField(target, "digestEnabled", enabled);
+    }
+}
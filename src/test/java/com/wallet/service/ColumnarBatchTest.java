@@ -0,0 +1,81 @@
+package com.wallet.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarBatchTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 12, 1, 0, 0);
+
+    @Test
+    void dictionaryHandsOutDenseCodesAcrossRehashes() {
+        IdDictionary dictionary = new IdDictionary(4);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, dictionary.intern("TXN" + i));
+        }
+
+        assertEquals(10_000, dictionary.size());
+        assertEquals(1234, dictionary.intern("TXN1234"));
+        assertEquals(9999, dictionary.find("TXN9999"));
+        assertEquals(-1, dictionary.find("TXN10000"));
+        assertEquals("TXN42", dictionary.get(42));
+    }
+
+    @Test
+    void dictionaryKeepsMultiByteIdsIntact() {
+        IdDictionary dictionary = new IdDictionary();
+        int code = dictionary.intern("zahlung-ü-€");
+
+        assertEquals("zahlung-ü-€", dictionary.get(code));
+        assertEquals(code, dictionary.find("zahlung-ü-€"));
+        assertNotEquals(code, dictionary.intern("zahlung-u-€"));
+    }
+
+    @Test
+    void batchStoresColumnsAndGrowsPastItsInitialCapacity() {
+        ColumnarBatch batch = new ColumnarBatch(new IdDictionary(), new IdDictionary(), 1);
+        for (int i = 0; i < 100; i++) {
+            batch.add("TXN" + i, new BigDecimal("1.25"), START.plusHours(i), i % 2 == 0 ? "CUST" + (i % 3) : null);
+        }
+
+        assertEquals(100, batch.size());
+        assertEquals("TXN57", batch.transactionId(57));
+        assertEquals(new BigDecimal("1.25"), batch.amount(57));
+        assertEquals(125, batch.amountMinor(57));
+        assertEquals(START.plusHours(57), batch.timestamp(57));
+        assertEquals("CUST0", batch.customerId(0));
+        assertNull(batch.customerId(1));
+        assertEquals(new BigDecimal("125.00"), batch.totalAmount());
+        assertEquals(new BigDecimal("2.50"), batch.totalAmount(new int[] {3, 4}));
+    }
+
+    @Test
+    void amountsBeyondTwoDecimalsAreRejected() {
+        ColumnarBatch batch = new ColumnarBatch(new IdDictionary(), new IdDictionary(), 1);
+
+        assertThrows(ArithmeticException.class, () -> batch.add("TXN1", new BigDecimal("1.001"), START, "CUST1"));
+    }
+
+    @Test
+    void rowLookupUsesTheSharedDictionaryAndKeepsTheFirstDuplicate() {
+        IdDictionary ids = new IdDictionary();
+        ColumnarBatch internal = new ColumnarBatch(ids, new IdDictionary(), 4);
+        ColumnarBatch external = new ColumnarBatch(ids, new IdDictionary(), 4);
+        internal.add("TXN1", BigDecimal.ONE, START, "CUST1");
+        external.add("TXN2", BigDecimal.ONE, START, "CUST1");
+        external.add("TXN1", BigDecimal.TEN, START, "CUST1");
+        external.add("TXN1", BigDecimal.ONE, START, "CUST1");
+
+        assertEquals(1, external.rowOf(internal.idCode(0)));
+        assertEquals(-1, internal.rowOf(ids.find("TXN2")));
+        assertArrayEquals(new int[] {0, 1}, external.distinctRows());
+
+        // Adding rows drops the index so that it is rebuilt with the new codes.
+        internal.add("TXN3", BigDecimal.ONE, START, "CUST1");
+        assertEquals(1, internal.rowOf(ids.find("TXN3")));
+    }
+}
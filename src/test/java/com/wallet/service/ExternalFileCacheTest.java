@@ -0,0 +1,104 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalFileCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private ExternalFileCache cache;
+    private File file;
+    private AtomicInteger parses;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = newCache();
+        file = directory.resolve("partner.csv").toFile();
+        Files.writeString(file.toPath(), "stand-in for the partner file");
+        parses = new AtomicInteger();
+    }
+
+    @Test
+    void replaysSidecarWithoutParsingAgain() throws Exception {
+        List<ExternalTransactionRecord> first = read(cache);
+        List<ExternalTransactionRecord> second = read(newCache());
+
+        assertEquals(1, parses.get());
+        assertEquals(3, second.size());
+        assertEquals(first.get(2).getTransactionId(), second.get(2).getTransactionId());
+        assertEquals(0, first.get(2).getAmount().compareTo(second.get(2).getAmount()));
+        assertEquals(first.get(2).getTimestamp(), second.get(2).getTimestamp());
+        assertNull(second.get(1).getCustomerId());
+    }
+
+    @Test
+    void truncatedSidecarFallsBackToParsingWithoutPartialBatches() throws Exception {
+        read(cache);
+        Path sidecar = directory.resolve("partner.csv" + ExternalFileCache.SIDECAR_SUFFIX);
+        byte[] encoded = Files.readAllBytes(sidecar);
+        Files.write(sidecar, Arrays.copyOf(encoded, encoded.length - 20));
+
+        List<ExternalTransactionRecord> records = read(newCache());
+
+        assertEquals(2, parses.get());
+        assertEquals(3, records.size());
+        assertArrayEquals(encoded, Files.readAllBytes(sidecar));
+    }
+
+    @Test
+    void staleSidecarIsReplacedWhenTheFileChanges() throws Exception {
+        read(cache);
+        Files.writeString(file.toPath(), "a different partner file");
+        assertTrue(file.setLastModified(file.lastModified() + 5000));
+
+        read(cache);
+
+        assertEquals(2, parses.get());
+    }
+
+    private List<ExternalTransactionRecord> read(ExternalFileCache target) throws Exception {
+        List<ExternalTransactionRecord> received = new ArrayList<>();
+        ExternalRecordReadResult result = target.read(file, sink -> {
+            parses.incrementAndGet();
+            ExternalRecordReadResult parsed = new ExternalRecordReadResult();
+            sink.accept(List.of(
+                    new ExternalTransactionRecord("TXN1", "CUST1", new BigDecimal("10.00"), "TOPUP",
+                            LocalDateTime.of(2023, 12, 1, 10, 0), "ref-1"),
+                    new ExternalTransactionRecord("TXN2", null, new BigDecimal("-0.5"), null, null, null)));
+            sink.accept(List.of(
+                    new ExternalTransactionRecord("TXN3", "CUST2", new BigDecimal("123456789.123"), "CONSUME",
+                            LocalDateTime.of(2023, 12, 1, 23, 59, 59, 1000), "ref-3")));
+            for (int i = 0; i < 3; i++) {
+                parsed.recordRead();
+            }
+            return parsed;
+        }, received::addAll);
+        assertEquals(3, result.getRecordsRead());
+        return received;
+    }
+
+    private ExternalFileCache newCache() {
+        ExternalFileCache target = new ExternalFileCache();
+        ReflectionTestUtils.setField(target, "enabled", true);
+        ReflectionTestUtils.setField(target, "maxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(target, "batchSize", 2);
+        return target;
+    }
+}
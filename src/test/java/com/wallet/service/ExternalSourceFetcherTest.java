@@ -0,0 +1,111 @@
+package com.wallet.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSourceFetcherTest {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 12, 1);
+
+    private ExternalSourceFetcher fetcher;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fetcher = new ExternalSourceFetcher();
+        ReflectionTestUtils.setField(fetcher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(fetcher, "maxParallel", 1);
+        ReflectionTestUtils.setField(fetcher, "timeoutSeconds", 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetcher.shutdown();
+    }
+
+    @Test
+    void hungSourceIsCancelledAndFreesItsSlot() throws Exception {
+        AtomicBoolean sawCancellation = new AtomicBoolean();
+        CountDownLatch stopped = new CountDownLatch(1);
+        ExternalTransactionSource hung = source("hung", deadline -> {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                sawCancellation.set(deadline.isCancelled());
+                stopped.countDown();
+                deadline.check();
+            }
+            return result(5);
+        });
+        ReflectionTestUtils.setField(fetcher, "sources", List.of(hung));
+        fetcher.init();
+
+        long start = System.nanoTime();
+        ExternalRecordReadResult total = fetcher.fetchAll(DATE);
+
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        assertEquals(0, total.getRecordsRead());
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertTrue(sawCancellation.get());
+        assertEquals(1.0, meterRegistry.counter("wallet.external.source.errors", "source", "hung", "reason", "timeout").count());
+
+        // The single pool thread is free again and carries no stale interrupt into the next source.
+        ReflectionTestUtils.setField(fetcher, "sources", List.of(source("quick", deadline -> {
+            assertFalse(Thread.currentThread().isInterrupted());
+            return result(3);
+        })));
+        assertEquals(3, fetcher.fetchAll(DATE).getRecordsRead());
+    }
+
+    @Test
+    void failingSourceDoesNotStopTheOthers() {
+        ReflectionTestUtils.setField(fetcher, "maxParallel", 2);
+        ReflectionTestUtils.setField(fetcher, "sources", List.of(
+                source("broken", deadline -> {
+                    throw new IllegalStateException("partner down");
+                }),
+                source("healthy", deadline -> result(4))));
+        fetcher.init();
+
+        assertEquals(4, fetcher.fetchAll(DATE).getRecordsRead());
+        assertEquals(1.0, meterRegistry.counter("wallet.external.source.errors", "source", "broken", "reason", "error").count());
+    }
+
+    private ExternalRecordReadResult result(int records) {
+        ExternalRecordReadResult result = new ExternalRecordReadResult();
+        for (int i = 0; i < records; i++) {
+            result.recordRead();
+        }
+        return result;
+    }
+
+    private ExternalTransactionSource source(String name, Fetch fetch) {
+        return new ExternalTransactionSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public ExternalRecordReadResult fetch(LocalDate date, ExternalFetchDeadline deadline) {
+                return fetch.run(deadline);
+            }
+        };
+    }
+
+    private interface Fetch {
+        ExternalRecordReadResult run(ExternalFetchDeadline deadline);
+    }
+}
@@ -0,0 +1,173 @@
+package com.wallet.service;
+
+import com.wallet.dto.ExternalTransactionRecord;
+import com.wallet.entity.ReconciliationNote;
+import com.wallet.entity.ReconciliationRecord;
+import com.wallet.entity.ReconciliationStatus;
+import com.wallet.entity.Transaction;
+import com.wallet.entity.TransactionType;
+import com.wallet.entity.Wallet;
+import com.wallet.service.ReconciliationMatcher.MatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReconciliationMatcherTest {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 12, 1);
+    private static final LocalDateTime NOON = DATE.atTime(12, 0);
+
+    private ReconciliationMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        FuzzyMatcher fuzzyMatcher = new FuzzyMatcher();
+        ReflectionTestUtils.setField(fuzzyMatcher, "enabled", true);
+        ReflectionTestUtils.setField(fuzzyMatcher, "timeWindowSeconds", 300L);
+        ReflectionTestUtils.setField(fuzzyMatcher, "minConfidence", 0.6);
+        ReflectionTestUtils.setField(fuzzyMatcher, "amountTolerance", new BigDecimal("0.00"));
+        matcher = new ReconciliationMatcher();
+        ReflectionTestUtils.setField(matcher, "fuzzyMatcher", fuzzyMatcher);
+    }
+
+    @Test
+    void exactMatchClassifiesEveryRecord() {
+        List<Transaction> internal = List.of(
+                internal("TXN1", "CUST1", "10.00", NOON),
+                internal("TXN2", "CUST1", "20.00", NOON),
+                internal("TXN3", "CUST2", "30.00", NOON));
+        List<ExternalTransactionRecord> external = List.of(
+                external("TXN1", "CUST1", "10.0", NOON),
+                external("TXN2", "CUST1", "25.00", NOON),
+                external("TXN4", "CUST3", "40.00", NOON),
+                external("TXN4", "CUST3", "99.00", NOON));
+
+        MatchResult result = matcher.matchExact(DATE, internal, external);
+
+        Map<String, ReconciliationRecord> byId = byInternalId(result.getRecords());
+        assertEquals(ReconciliationStatus.MATCHED, byId.get("TXN1").getStatus());
+        assertNull(byId.get("TXN1").getNoteCode());
+        assertEquals(ReconciliationStatus.AMOUNT_MISMATCH, byId.get("TXN2").getStatus());
+        assertEquals(ReconciliationNote.AMOUNT_MISMATCH, byId.get("TXN2").getNoteCode());
+        assertEquals(List.of("TXN3"), ids(result.getUnmatchedInternal(), Transaction::getTransactionId));
+        // A duplicate external row counts once, with the first amount seen.
+        assertEquals(1, result.getUnmatchedExternal().size());
+        assertEquals(new BigDecimal("40.00"), result.getUnmatchedExternal().get(0).getAmount());
+    }
+
+    @Test
+    void fuzzyMatchingPairsSameCustomerAndAmountWithinTheWindow() {
+        List<Transaction> internal = List.of(
+                internal("TXN1", "CUST1", "10.00", NOON),
+                internal("TXN2", "CUST2", "20.00", NOON));
+        List<ExternalTransactionRecord> external = List.of(
+                external("EXT1", "CUST1", "10.00", NOON.plusSeconds(30)),
+                external("EXT2", "CUST2", "20.00", NOON.plusMinutes(10)));
+
+        MatchResult result = matcher.match(DATE, new ArrayList<>(internal), new ArrayList<>(external));
+
+        assertEquals(1, result.getRecords().size());
+        ReconciliationRecord fuzzy = result.getRecords().get(0);
+        assertEquals(ReconciliationStatus.FUZZY_MATCHED, fuzzy.getStatus());
+        assertEquals("TXN1", fuzzy.getInternalTransactionId());
+        assertEquals("EXT1", fuzzy.getExternalTransactionId());
+        assertTrue(fuzzy.getConfidence() >= 0.6 && fuzzy.getConfidence() < 1.0);
+        assertEquals(List.of("TXN2"), ids(result.getUnmatchedInternal(), Transaction::getTransactionId));
+        assertEquals(List.of("EXT2"), ids(result.getUnmatchedExternal(), ExternalTransactionRecord::getTransactionId));
+    }
+
+    @Test
+    void fuzzyMatchingClaimsEachExternalOnce() {
+        List<Transaction> internal = List.of(
+                internal("TXN1", "CUST1", "10.00", NOON),
+                internal("TXN2", "CUST1", "10.00", NOON.plusSeconds(5)));
+        List<ExternalTransactionRecord> external = List.of(external("EXT1", "CUST1", "10.00", NOON));
+
+        MatchResult result = matcher.match(DATE, new ArrayList<>(internal), new ArrayList<>(external));
+
+        assertEquals(1, result.getRecords().size());
+        assertEquals("TXN1", result.getRecords().get(0).getInternalTransactionId());
+        assertEquals(List.of("TXN2"), ids(result.getUnmatchedInternal(), Transaction::getTransactionId));
+        assertTrue(result.getUnmatchedExternal().isEmpty());
+    }
+
+    @Test
+    void fuzzyMatchingSkipsClaimedCandidatesInACrowdedWindow() {
+        List<Transaction> internal = new ArrayList<>();
+        List<ExternalTransactionRecord> external = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            internal.add(internal("TXN" + i, "CUST1", "10.00", NOON.plusSeconds(i)));
+            // Externals run in the opposite order, so claims land all over each internal's window.
+            external.add(external("EXT" + i, "CUST1", "10.00", NOON.plusSeconds(199 - i)));
+        }
+
+        MatchResult result = matcher.match(DATE, internal, external);
+
+        assertEquals(200, result.getRecords().size());
+        assertEquals(200, result.getRecords().stream().map(ReconciliationRecord::getExternalTransactionId).distinct().count());
+        assertTrue(result.getUnmatchedInternal().isEmpty());
+        assertTrue(result.getUnmatchedExternal().isEmpty());
+    }
+
+    @Test
+    void columnarMatchAgreesWithTheEntityMatch() {
+        IdDictionary ids = new IdDictionary();
+        ColumnarBatch internal = new ColumnarBatch(ids, new IdDictionary(), 4);
+        ColumnarBatch external = new ColumnarBatch(ids, new IdDictionary(), 4);
+        internal.add("TXN1", new BigDecimal("10.00"), NOON, "CUST1");
+        internal.add("TXN2", new BigDecimal("20.00"), NOON, "CUST1");
+        internal.add("TXN3", new BigDecimal("30.00"), NOON, "CUST2");
+        external.add("TXN2", new BigDecimal("21.00"), NOON, "CUST1");
+        external.add("TXN1", new BigDecimal("10.00"), NOON, "CUST1");
+
+        Map<String, ReconciliationRecord> byId = byInternalId(matcher.matchExact(DATE, internal, external));
+
+        assertEquals(ReconciliationStatus.MATCHED, byId.get("TXN1").getStatus());
+        assertEquals(ReconciliationStatus.AMOUNT_MISMATCH, byId.get("TXN2").getStatus());
+        assertEquals(new BigDecimal("21.00"), byId.get("TXN2").getExternalAmount());
+        assertEquals(ReconciliationStatus.MISSING_EXTERNAL, byId.get("TXN3").getStatus());
+    }
+
+    @Test
+    void notesAreRenderedFromTheirCodes() {
+        ReconciliationRecord mismatch = matcher.pairedRecord(DATE, "TXN1", "TXN1", new BigDecimal("1.00"), new BigDecimal("2.00"));
+        ReconciliationRecord legacy = new ReconciliationRecord(DATE, "TXN2", null, BigDecimal.ONE, null,
+                                                               ReconciliationStatus.MISSING_EXTERNAL);
+        legacy.setNotes("written before note codes");
+
+        assertEquals("Amount mismatch - Internal: 1.00, External: 2.00", matcher.renderNotes(mismatch));
+        assertEquals("written before note codes", matcher.renderNotes(legacy));
+        assertEquals("External transaction not found in internal system",
+                     matcher.renderNotes(matcher.missingInternalRecord(DATE, "EXT1", BigDecimal.TEN)));
+    }
+
+    private Transaction internal(String transactionId, String customerId, String amount, LocalDateTime createdAt) {
+        Transaction transaction = new Transaction(transactionId, new Wallet(customerId), TransactionType.TOPUP,
+                                                  new BigDecimal(amount), BigDecimal.ZERO, new BigDecimal(amount));
+        transaction.setCreatedAt(createdAt);
+        return transaction;
+    }
+
+    private ExternalTransactionRecord external(String transactionId, String customerId, String amount, LocalDateTime timestamp) {
+        return new ExternalTransactionRecord(transactionId, customerId, new BigDecimal(amount), "TOPUP", timestamp, null);
+    }
+
+    private Map<String, ReconciliationRecord> byInternalId(List<ReconciliationRecord> records) {
+        return records.stream().collect(Collectors.toMap(ReconciliationRecord::getInternalTransactionId, r -> r));
+    }
+
+    private <T> List<String> ids(List<T> values, Function<T, String> id) {
+        return values.stream().map(id).collect(Collectors.toList());
+    }
+}